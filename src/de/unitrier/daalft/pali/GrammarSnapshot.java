@@ -0,0 +1,428 @@
+package de.unitrier.daalft.pali;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import de.unitrier.daalft.pali.morphology.element.ChangingOccurrence;
+import de.unitrier.daalft.pali.morphology.element.DistributionOccurrence;
+import de.unitrier.daalft.pali.morphology.element.Feature;
+import de.unitrier.daalft.pali.morphology.element.FeatureSet;
+import de.unitrier.daalft.pali.morphology.element.Morph;
+import de.unitrier.daalft.pali.morphology.element.Morpheme;
+import de.unitrier.daalft.pali.morphology.element.Occurrence;
+import de.unitrier.daalft.pali.morphology.element.OccurrenceManager;
+import de.unitrier.daalft.pali.morphology.element.RestrictingOccurrence;
+import de.unitrier.daalft.pali.morphology.paradigm.Paradigm;
+import de.unitrier.daalft.pali.morphology.paradigm.ParadigmAccessor;
+import de.unitrier.daalft.pali.morphology.paradigm.ParadigmReader;
+import de.unitrier.daalft.pali.morphology.paradigm.irregular.Irregular;
+import de.unitrier.daalft.pali.morphology.paradigm.irregular.IrregularNouns;
+import de.unitrier.daalft.pali.morphology.paradigm.irregular.IrregularNumerals;
+import de.unitrier.daalft.pali.ngram.NGramScorer;
+import de.unitrier.daalft.pali.phonology.SandhiManager;
+import de.unitrier.daalft.pali.phonology.SandhiReader;
+import de.unitrier.daalft.pali.phonology.element.ConstantDefinition;
+import de.unitrier.daalft.pali.phonology.element.MethodDefinition;
+import de.unitrier.daalft.pali.phonology.element.MyDictionary;
+import de.unitrier.daalft.pali.phonology.element.SandhiRule;
+
+/**
+ * Binary snapshot of the fully built grammar
+ * <p>
+ * Reading the grammar from the XML and text files means scanning
+ * and regex-splitting every line, merging morphemes and expanding
+ * the sandhi rules. The snapshot stores the result of all this
+ * (paradigms, irregular paradigms, sandhi dictionary and expanded
+ * sandhi rules) so that it can be restored by simply reading it
+ * back from a memory-mapped file.
+ * <br/><br/>
+ * The snapshot records length and checksum of every source file it was
+ * built from. If any source file has changed since, the snapshot is
+ * regarded as stale and {@link #read(String)} returns <b>null</b>, so
+ * that the caller falls back to reading the source files.
+ * <br/><br/>
+ * Run {@link #main(String[])} (ant target <em>GrammarSnapshot</em>)
+ * to build the snapshot
+ * @author David
+ *
+ */
+public class GrammarSnapshot {
+
+	////////////////////////////////////////////////////////////////
+	// Constants
+	////////////////////////////////////////////////////////////////
+
+	public final static String DEFAULT_SNAPSHOT_FILEPATH = "./data/grammar/grammar.snapshot";
+
+	/**
+	 * File magic, "PALG"
+	 */
+	private final static int MAGIC = 0x50414C47;
+	/**
+	 * Format version, increase on every change of the layout
+	 */
+	private final static int VERSION = 1;
+	/**
+	 * Source files the snapshot is built from
+	 */
+	private final static String[] SOURCES = {
+		ParadigmReader.DEFAULT_PARADIGMS_FILEPATH,
+		ParadigmReader.IRREGULAR_NOUNS_FILEPATH,
+		ParadigmReader.IRREGULAR_NUMERALS_FILEPATH,
+		SandhiReader.defaultDictPath,
+		SandhiReader.defaultMergePath,
+		SandhiReader.defaultSplitPath,
+		SandhiReader.defaultSoundPath
+	};
+	private final static Charset UTF8 = Charset.forName("UTF-8");
+
+	////////////////////////////////////////////////////////////////
+	// Writing
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Writes the grammar held by the given paradigm accessor and
+	 * sandhi manager to the given file
+	 * @param pa paradigm accessor
+	 * @param sm sandhi manager
+	 * @param path snapshot file
+	 * @throws IOException
+	 */
+	public static void write (ParadigmAccessor pa, SandhiManager sm, String path) throws IOException {
+		// body first, all strings go to the string table
+		Map<String, Integer> strings = new LinkedHashMap<String, Integer>();
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(body);
+		writeParadigm(out, strings, pa.getParadigms());
+		writeIrregular(out, strings, pa.getIrregularNouns());
+		writeIrregular(out, strings, pa.getIrregularNumerals());
+		writeDictionary(out, strings, sm.getDictionary());
+		writeRules(out, strings, sm.getRules());
+		writeRules(out, strings, sm.getReverseRules());
+		writeRules(out, strings, sm.getSoundRules());
+		out.flush();
+
+		DataOutputStream file = new DataOutputStream(new FileOutputStream(path));
+		try {
+			file.writeInt(MAGIC);
+			file.writeInt(VERSION);
+			file.writeInt(SOURCES.length);
+			for (String source : SOURCES) {
+				writeString(file, source);
+				File f = new File(source);
+				file.writeLong(f.length());
+				file.writeLong(checksum(f));
+			}
+			file.writeInt(strings.size());
+			for (String s : strings.keySet()) {
+				writeString(file, s);
+			}
+			body.writeTo(file);
+		} finally {
+			file.close();
+		}
+	}
+
+	private static void writeParadigm (DataOutputStream out, Map<String, Integer> strings, Paradigm p) throws IOException {
+		List<Morpheme> morphemes = p.getMorphemes();
+		out.writeInt(morphemes.size());
+		for (Morpheme m : morphemes) {
+			List<Feature> features = new ArrayList<Feature>();
+			for (Feature f : m.getFeatureSet()) {
+				features.add(f);
+			}
+			out.writeInt(features.size());
+			for (Feature f : features) {
+				out.writeInt(ref(strings, f.getKey()));
+				out.writeInt(ref(strings, f.getValue()));
+			}
+			out.writeInt(m.getAllomorphs().size());
+			for (Morph a : m.getAllomorphs()) {
+				out.writeInt(ref(strings, a.getMorph()));
+				Occurrence o = a.getOccurrence();
+				out.writeByte(occurrenceType(o));
+				if (o != null)
+					out.writeInt(ref(strings, o.getOccurrence()));
+			}
+		}
+	}
+
+	private static void writeIrregular (DataOutputStream out, Map<String, Integer> strings, Irregular i) throws IOException {
+		out.writeInt(i.getParadigms().size());
+		for (Paradigm p : i.getParadigms()) {
+			writeParadigm(out, strings, p);
+		}
+	}
+
+	private static void writeDictionary (DataOutputStream out, Map<String, Integer> strings, MyDictionary dict) throws IOException {
+		out.writeInt(dict.getConstantDefinitions().size());
+		for (ConstantDefinition cd : dict.getConstantDefinitions()) {
+			out.writeInt(ref(strings, cd.getName()));
+			out.writeInt(cd.getElements().size());
+			for (String e : cd.getElements()) {
+				out.writeInt(ref(strings, e));
+			}
+		}
+		out.writeInt(dict.getMethodDefinitions().size());
+		for (MethodDefinition md : dict.getMethodDefinitions()) {
+			out.writeInt(ref(strings, md.getName()));
+		}
+	}
+
+	private static void writeRules (DataOutputStream out, Map<String, Integer> strings, List<SandhiRule> rules) throws IOException {
+		out.writeInt(rules.size());
+		for (SandhiRule r : rules) {
+			out.writeInt(ref(strings, r.getPattern()));
+			out.writeInt(ref(strings, r.getReplacement()));
+		}
+	}
+
+	/**
+	 * Returns the index of the given string in the string table,
+	 * adding it if necessary
+	 * @param strings string table
+	 * @param s string
+	 * @return index or -1 for <b>null</b>
+	 */
+	private static int ref (Map<String, Integer> strings, String s) {
+		if (s == null)
+			return -1;
+		Integer i = strings.get(s);
+		if (i == null) {
+			i = strings.size();
+			strings.put(s, i);
+		}
+		return i;
+	}
+
+	private static void writeString (DataOutputStream out, String s) throws IOException {
+		byte[] b = s.getBytes(UTF8);
+		out.writeInt(b.length);
+		out.write(b);
+	}
+
+	/**
+	 * Returns the type letter as used by {@link OccurrenceManager}
+	 * @param o occurrence
+	 * @return type letter or 0 if there is no occurrence
+	 */
+	private static char occurrenceType (Occurrence o) {
+		if (o == null)
+			return 0;
+		if (o instanceof DistributionOccurrence)
+			return 'D';
+		if (o instanceof RestrictingOccurrence)
+			return 'R';
+		if (o instanceof ChangingOccurrence)
+			return 'C';
+		return 'N';
+	}
+
+	////////////////////////////////////////////////////////////////
+	// Reading
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Reads the grammar from the given snapshot file
+	 * @param path snapshot file
+	 * @return grammar context or <b>null</b> if there is no
+	 * snapshot or the snapshot is stale
+	 * @throws IOException
+	 */
+	public static PaliGrammarContext read (String path) throws IOException {
+		File f = new File(path);
+		if (!f.isFile())
+			return null;
+		RandomAccessFile raf = new RandomAccessFile(f, "r");
+		ByteBuffer in;
+		try {
+			in = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+		} finally {
+			raf.close();
+		}
+		try {
+			if (in.getInt() != MAGIC || in.getInt() != VERSION)
+				return null;
+			int sources = in.getInt();
+			if (sources != SOURCES.length)
+				return null;
+			for (int i = 0; i < sources; i++) {
+				File source = new File(readString(in));
+				long length = in.getLong();
+				long crc = in.getLong();
+				if (!source.isFile() || source.length() != length || checksum(source) != crc)
+					return null;
+			}
+			String[] strings = new String[in.getInt()];
+			for (int i = 0; i < strings.length; i++) {
+				strings[i] = readString(in);
+			}
+			Paradigm paradigms = readParadigm(in, strings);
+			IrregularNouns irrNoun = new IrregularNouns();
+			readIrregular(in, strings, irrNoun);
+			IrregularNumerals irrNum = new IrregularNumerals();
+			readIrregular(in, strings, irrNum);
+			MyDictionary dict = readDictionary(in, strings);
+			List<SandhiRule> rules = readRules(in, strings);
+			List<SandhiRule> revRules = readRules(in, strings);
+			List<SandhiRule> soundRules = readRules(in, strings);
+
+			ParadigmAccessor pa = new ParadigmAccessor(new ParadigmReader(paradigms, irrNoun, irrNum).readOnly());
+			SandhiManager sm = new SandhiManager(dict, rules, revRules, soundRules);
+			return new PaliGrammarContext(pa, sm, NGramScorer.getInstance());
+		} catch (BufferUnderflowException e) {
+			// truncated snapshot
+			return null;
+		}
+	}
+
+	private static Paradigm readParadigm (ByteBuffer in, String[] strings) {
+		Paradigm p = new Paradigm();
+		int morphemes = in.getInt();
+		for (int i = 0; i < morphemes; i++) {
+			Feature[] features = new Feature[in.getInt()];
+			for (int j = 0; j < features.length; j++) {
+				String key = string(strings, in.getInt());
+				features[j] = new Feature(key, string(strings, in.getInt()));
+			}
+			FeatureSet fs = new FeatureSet(features);
+			int allomorphs = in.getInt();
+			List<Morph> am = new ArrayList<Morph>(allomorphs);
+			for (int j = 0; j < allomorphs; j++) {
+				String morph = string(strings, in.getInt());
+				char type = (char) in.get();
+				if (type == 0) {
+					am.add(new Morph(morph));
+				} else {
+					am.add(new Morph(morph, OccurrenceManager.getOccurrence(type + string(strings, in.getInt()))));
+				}
+			}
+			// morphemes were merged before writing,
+			// no need to look for equal feature sets again
+			p.getMorphemes().add(new Morpheme(fs, am));
+		}
+		return p;
+	}
+
+	private static void readIrregular (ByteBuffer in, String[] strings, Irregular i) {
+		int paradigms = in.getInt();
+		for (int j = 0; j < paradigms; j++) {
+			i.add(readParadigm(in, strings));
+		}
+	}
+
+	private static MyDictionary readDictionary (ByteBuffer in, String[] strings) {
+		MyDictionary dict = new MyDictionary();
+		int constants = in.getInt();
+		for (int i = 0; i < constants; i++) {
+			StringBuilder sb = new StringBuilder(string(strings, in.getInt())).append(":");
+			int elements = in.getInt();
+			for (int j = 0; j < elements; j++) {
+				if (j > 0)
+					sb.append(",");
+				sb.append(string(strings, in.getInt()));
+			}
+			dict.add(new ConstantDefinition(sb.toString()));
+		}
+		int methods = in.getInt();
+		for (int i = 0; i < methods; i++) {
+			dict.add(new MethodDefinition(string(strings, in.getInt())));
+		}
+		return dict;
+	}
+
+	private static List<SandhiRule> readRules (ByteBuffer in, String[] strings) {
+		int n = in.getInt();
+		List<SandhiRule> rules = new ArrayList<SandhiRule>(n);
+		for (int i = 0; i < n; i++) {
+			String pattern = string(strings, in.getInt());
+			rules.add(new SandhiRule(pattern, string(strings, in.getInt())));
+		}
+		return rules;
+	}
+
+	private static String string (String[] strings, int ref) {
+		return ref < 0 ? null : strings[ref];
+	}
+
+	private static String readString (ByteBuffer in) {
+		byte[] b = new byte[in.getInt()];
+		in.get(b);
+		return new String(b, UTF8);
+	}
+
+	////////////////////////////////////////////////////////////////
+	// Helpers
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Computes a hash of the grammar source files
+	 * <p>
+	 * The hash changes whenever any source file or the
+	 * snapshot format changes, so it can be used to
+	 * invalidate results computed with an older grammar
+	 * @return grammar hash
+	 * @throws IOException
+	 */
+	public static long grammarVersion () throws IOException {
+		CRC32 crc = new CRC32();
+		ByteBuffer buf = ByteBuffer.allocate(16);
+		buf.putInt(0, MAGIC).putInt(4, VERSION);
+		crc.update(buf.array(), 0, 8);
+		for (String source : SOURCES) {
+			File f = new File(source);
+			buf.putLong(0, f.length()).putLong(8, checksum(f));
+			crc.update(buf.array(), 0, 16);
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * Computes the CRC32 checksum of a file
+	 * @param f file
+	 * @return checksum or -1 if the file does not exist
+	 * @throws IOException
+	 */
+	private static long checksum (File f) throws IOException {
+		if (!f.isFile())
+			return -1;
+		CRC32 crc = new CRC32();
+		InputStream in = new FileInputStream(f);
+		try {
+			byte[] buf = new byte[8192];
+			int n;
+			while ((n = in.read(buf)) > 0) {
+				crc.update(buf, 0, n);
+			}
+		} finally {
+			in.close();
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * Builds the snapshot from the grammar source files
+	 * @param args optional path of the snapshot file
+	 * @throws Exception
+	 */
+	public static void main (String[] args) throws Exception {
+		String path = args.length > 0 ? args[0] : DEFAULT_SNAPSHOT_FILEPATH;
+		write(new ParadigmAccessor(), new SandhiManager(), path);
+		System.out.println("Grammar snapshot written to " + path);
+	}
+}
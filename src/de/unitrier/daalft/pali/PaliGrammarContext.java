@@ -0,0 +1,154 @@
+package de.unitrier.daalft.pali;
+
+import java.io.IOException;
+
+import de.unitrier.daalft.pali.morphology.paradigm.ParadigmAccessor;
+import de.unitrier.daalft.pali.morphology.paradigm.ParadigmReader;
+import de.unitrier.daalft.pali.morphology.paradigm.irregular.IrregularNouns;
+import de.unitrier.daalft.pali.morphology.paradigm.irregular.IrregularNumerals;
+import de.unitrier.daalft.pali.ngram.NGramScorer;
+import de.unitrier.daalft.pali.phonology.SandhiManager;
+
+/**
+ * Holds all grammar data needed by the tools
+ * <p>
+ * Paradigms, irregular paradigms, sandhi rules and n-gram tables
+ * are loaded once when the context is created, and the tools built
+ * from a context use its data only. The context holds read-only
+ * copies of the paradigms, including their morphemes and feature
+ * sets, of the irregular paradigms and of the lists of sandhi rules,
+ * so its data cannot be changed through the context. A context can
+ * therefore be shared by any number of analyzers, generators and
+ * splitters, also across threads.
+ * <br/><br/>
+ * Use {@link #getInstance()} to obtain the context loaded from the
+ * default data files
+ * @author David
+ *
+ */
+public final class PaliGrammarContext {
+
+	/**
+	 * Shared default context
+	 */
+	private static PaliGrammarContext instance;
+
+	/**
+	 * Paradigms including irregular paradigms
+	 */
+	private final ParadigmAccessor pa;
+	/**
+	 * Sandhi rules
+	 */
+	private final SandhiManager sm;
+	/**
+	 * N-gram tables
+	 */
+	private final NGramScorer ngs;
+
+	/**
+	 * Constructor
+	 * <p>
+	 * Loads all grammar data from the default data files
+	 * @throws Exception if the grammar cannot be read
+	 */
+	public PaliGrammarContext () throws Exception {
+		this(new ParadigmAccessor(new ParadigmReader().readOnly()), new SandhiManager(), NGramScorer.getInstance());
+	}
+
+	/**
+	 * Constructor with already loaded grammar data
+	 * <p>
+	 * The context uses a read-only copy of the paradigm accessor,
+	 * so changes to <em>pa</em> do not affect the context
+	 * @param pa paradigm accessor
+	 * @param sm sandhi manager
+	 * @param ngs n-gram scorer
+	 * @see ParadigmAccessor#readOnly()
+	 */
+	public PaliGrammarContext (ParadigmAccessor pa, SandhiManager sm, NGramScorer ngs) {
+		this.pa = pa.readOnly();
+		this.sm = sm;
+		this.ngs = ngs;
+	}
+
+	/**
+	 * Loads a context from the default data files
+	 * <p>
+	 * Uses the grammar snapshot if it is present and up to date,
+	 * otherwise reads the grammar source files
+	 * @return context
+	 * @throws Exception if the grammar cannot be read
+	 * @see GrammarSnapshot
+	 */
+	public static PaliGrammarContext load () throws Exception {
+		PaliGrammarContext ctx = null;
+		try {
+			ctx = GrammarSnapshot.read(GrammarSnapshot.DEFAULT_SNAPSHOT_FILEPATH);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		if (ctx == null)
+			ctx = new PaliGrammarContext();
+		return ctx;
+	}
+
+	/**
+	 * Returns the shared context loaded from the default data files
+	 * <p>
+	 * The data files are read on the first call only
+	 * @return shared context
+	 * @throws IllegalStateException if the grammar cannot be read
+	 * @see #load()
+	 */
+	public static synchronized PaliGrammarContext getInstance () {
+		if (instance == null) {
+			try {
+				instance = load();
+			} catch (Exception e) {
+				throw new IllegalStateException("Could not load grammar", e);
+			}
+		}
+		return instance;
+	}
+
+	/**
+	 * Returns the paradigm accessor
+	 * @return read-only paradigm accessor
+	 */
+	public ParadigmAccessor getParadigmAccessor () {
+		return pa;
+	}
+
+	/**
+	 * Returns the irregular noun paradigms
+	 * @return irregular noun paradigms
+	 */
+	public IrregularNouns getIrregularNouns () {
+		return pa.getIrregularNouns();
+	}
+
+	/**
+	 * Returns the irregular numeral paradigms
+	 * @return irregular numeral paradigms
+	 */
+	public IrregularNumerals getIrregularNumerals () {
+		return pa.getIrregularNumerals();
+	}
+
+	/**
+	 * Returns the sandhi manager
+	 * @return sandhi manager
+	 */
+	public SandhiManager getSandhiManager () {
+		return sm;
+	}
+
+	/**
+	 * Returns the n-gram scorer
+	 * @return n-gram scorer
+	 */
+	public NGramScorer getNGramScorer () {
+		return ngs;
+	}
+}
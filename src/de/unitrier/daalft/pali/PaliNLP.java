@@ -29,20 +29,34 @@ public class PaliNLP {
 	public PaliNLP()
 	{
 		try {
-			ParadigmAccessor pa = new ParadigmAccessor();
-
-			mg = new MorphologyGenerator(pa);
-			ma = new MorphologyAnalyzer(pa);
-			l = new Lemmatizer(pa);
-			sm = new SandhiMerge();
-			sp = new SandhiSplit();
-			wcs = new WordclassStemmer(pa);
+			init(PaliGrammarContext.getInstance());
 		} catch (Exception ee) {
 			// TODO: change this! the exception is swallowed!
 			ee.printStackTrace();
 		}
 	}
 
+	/**
+	 * Constructor
+	 * @param ctx grammar context to share
+	 * @throws Exception
+	 */
+	public PaliNLP(PaliGrammarContext ctx) throws Exception
+	{
+		init(ctx);
+	}
+
+	private void init (PaliGrammarContext ctx) throws Exception {
+		ParadigmAccessor pa = ctx.getParadigmAccessor();
+
+		mg = new MorphologyGenerator(pa, ctx.getSandhiManager());
+		ma = new MorphologyAnalyzer(pa);
+		l = new Lemmatizer(pa);
+		sm = new SandhiMerge(ctx.getSandhiManager());
+		sp = new SandhiSplit(ctx.getSandhiManager(), ctx.getNGramScorer());
+		wcs = new WordclassStemmer(pa);
+	}
+
 	/**
 	 * Lemmatizes a word using rules
 	 * <p>
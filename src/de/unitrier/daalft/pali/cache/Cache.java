@@ -1,235 +1,497 @@
-/*
- * MIT license
- */
-package de.unitrier.daalft.pali.cache;
-
-
-import java.util.HashMap;
-
-
-/**
- * This class implements a cache.
- *
- * @author knauth
- */
-public class Cache<T>
-{
-
-	////////////////////////////////////////////////////////////////
-	// Nested Classes
-	////////////////////////////////////////////////////////////////
-
-	private class CacheRecord<T>
-	{
-
-		public CacheRecord predecessor;
-		public CacheRecord successor;
-		public long timeStampLastAccess;
-		public final String key;
-		public T value;
-
-		/**
-		 * Constructor.
-		 */
-		public CacheRecord(String key, T value, long timeStampLastAccess)
-		{
-			this.key = key;
-			this.value = value;
-			this.timeStampLastAccess = timeStampLastAccess;
-		}
-
-	}
-
-	////////////////////////////////////////////////////////////////
-	// Constants
-	////////////////////////////////////////////////////////////////
-
-	////////////////////////////////////////////////////////////////
-	// Variables
-	////////////////////////////////////////////////////////////////
-
-	private CacheRecord<T> beforeFirst;
-	private CacheRecord<T> afterLast;
-	private int count;
-
-	private HashMap<String, CacheRecord<T>> map;
-
-	private int maxCacheSize;
-	private long maxCacheDuration;
-
-	////////////////////////////////////////////////////////////////
-	// Constructors
-	////////////////////////////////////////////////////////////////
-
-	/**
-	 * Constructor.
-	 *
-	 * @param	maxCacheSize				The maximum number of elements in the cache.
-	 * @param	maxCacheDurationSeconds		The maximum number of seconds an element may be cached.
-	 */
-	public Cache(int maxCacheSize, int maxCacheDurationSeconds)
-	{
-		this.maxCacheSize = maxCacheSize;
-		if (maxCacheDurationSeconds <= 0) {
-			this.maxCacheDuration = -1;
-		} else {
-			this.maxCacheDuration = maxCacheDurationSeconds * 1000L;
-		}
-
-		beforeFirst = new CacheRecord<>(null, null, Long.MAX_VALUE);
-		afterLast = new CacheRecord<>(null, null, Long.MAX_VALUE);
-
-		afterLast.predecessor = beforeFirst;
-		beforeFirst.successor = afterLast;
-
-		map = new HashMap<>();
-	}
-
-	////////////////////////////////////////////////////////////////
-	// Methods
-	////////////////////////////////////////////////////////////////
-
-	/**
-	 * Get the number of elements currently stored in the cache.
-	 */
-	public int size()
-	{
-		return count;
-	}
-
-	/**
-	 * Explicite cache cleaning. Typically you do not need to call this method directly.
-	 */
-	public void cleanCache()
-	{
-		synchronized (this) {
-			__cleanCache();
-		}
-	}
-
-	private void __cleanCache()
-	{
-		if (maxCacheSize > 0) {
-			while (count > maxCacheSize) {
-				map.remove(afterLast.predecessor.key);
-				__remove(afterLast.predecessor);
-			}
-		}
-		if (maxCacheDuration > 0) {
-			long timeLimit = System.currentTimeMillis() - maxCacheDuration;
-			while (afterLast.predecessor.timeStampLastAccess < timeLimit) {
-				map.remove(afterLast.predecessor.key);
-				__remove(afterLast.predecessor);
-			}
-		}
-	}
-
-	/**
-	 * Lookup a cache element. <code>null</code> is returned if the element is not cached.
-	 *
-	 * @param		key			The key to look for
-	 * @param		bTouch		Specify <code>true</code> here, if you want to touch the element and therefor
-	 *							to raise it within the cache. (The elements at the bottom of the cache will be
-	 *							removed at some other time.)
-	 */
-	public T get(String key, boolean bTouch)
-	{
-		CacheRecord<T> n;
-		if (bTouch) {
-			synchronized (this) {
-				n = map.get(key);
-				if (n == null) return null;
-				n.timeStampLastAccess = System.currentTimeMillis();
-				__remove(n);
-				__insertAfter(beforeFirst, n);
-			}
-			return n.value;
-		} else {
-			synchronized (this) {
-				n = map.get(key);
-			}
-			if (n == null) return null;
-			return n.value;
-		}
-	}
-
-	/**
-	 * Explicitely remove an element from the cache.
-	 *
-	 * @param		key		The key to look for
-	 * @return		Returns <code>true</code> if the element has been cached, <code>false</code> otherwise.
-	 */
-	public boolean remove(String key)
-	{
-		CacheRecord<T> n;
-		synchronized (this) {
-			n = map.get(key);
-			if (n == null) return false;
-			map.remove(key);
-			__remove(n);
-		}
-		return true;
-	}
-
-	/**
-	 * Put an element into the cache. If the cach contains such an element already, the existing one is removed
-	 * from the cache.
-	 *
-	 * @param		key		The key
-	 * @param		value		The value
-	 * @return		Returns <code>true</code> if the element has been cached, <code>false</code> otherwise.
-	 */
-	public void put(String key, T value)
-	{
-		CacheRecord<T> nNew = new CacheRecord<>(key, value, System.currentTimeMillis());
-		synchronized (this) {
-			CacheRecord<T> nOld = map.get(key);
-			if (nOld != null) {
-				__remove(nOld);
-				map.remove(key);
-			}
-			__insertAfter(beforeFirst, nNew);
-			map.put(key, nNew);
-			__cleanCache();
-		}
-	}
-
-	private void __insertAfter(CacheRecord<T> a, CacheRecord<T> n)
-	{
-		CacheRecord<T> b = a.successor;
-
-		n.predecessor = a;
-		a.successor = n;
-
-		n.successor = b;
-		b.predecessor = n;
-
-		count++;
-	}
-
-	private void __insertBetween(CacheRecord<T> a, CacheRecord<T> n, CacheRecord<T> b)
-	{
-		n.predecessor = a;
-		a.successor = n;
-
-		n.successor = b;
-		b.predecessor = n;
-
-		count++;
-	}
-
-	private void __remove(CacheRecord<T> n)
-	{
-		CacheRecord<T> a = n.predecessor;
-		CacheRecord<T> b = n.successor;
-
-		a.successor = b;
-		b.predecessor = a;
-
-		n.predecessor = null;
-		n.successor = null;
-
-		count--;
-	}
-
-}
+/*
+ * MIT license
+ */
+package de.unitrier.daalft.pali.cache;
+
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * This class implements a cache.
+ *
+ * Lookups do not lock: the elements are held in a concurrent map, and touching an element only
+ * records the access in a small per-thread-stripe read buffer. The LRU list is maintained by
+ * whichever thread finds a buffer full and gets hold of the maintenance lock; it then replays
+ * the recorded accesses in one batch. If the lock is busy the accesses are dropped, so the LRU
+ * order is approximate under heavy load. Insertions, removals and eviction take the lock.
+ *
+ * Which elements are evicted from a full cache is decided by the {@link EvictionPolicy}. Hits,
+ * misses and evictions are counted so that policies can be compared.
+ *
+ * @author knauth
+ */
+public class Cache<T>
+{
+
+	////////////////////////////////////////////////////////////////
+	// Nested Classes
+	////////////////////////////////////////////////////////////////
+
+	private static class CacheRecord<T>
+	{
+
+		public CacheRecord<T> predecessor;
+		public CacheRecord<T> successor;
+		public volatile long timeStampLastAccess;
+		public final long timeStampCreated;
+		public volatile boolean bTouched;
+		public boolean bInWindow;
+		public final String key;
+		public final T value;
+
+		/**
+		 * Constructor.
+		 */
+		public CacheRecord(String key, T value, long timeStampLastAccess)
+		{
+			this.key = key;
+			this.value = value;
+			this.timeStampLastAccess = timeStampLastAccess;
+			this.timeStampCreated = timeStampLastAccess;
+		}
+
+		/**
+		 * Returns <code>true</code> if this record is part of the LRU list. Must be called with the
+		 * maintenance lock held.
+		 */
+		public boolean isLinked()
+		{
+			return predecessor != null;
+		}
+
+	}
+
+	/**
+	 * Lossy buffer of recently touched records.
+	 */
+	private static class ReadBuffer<T>
+	{
+
+		public final AtomicReferenceArray<CacheRecord<T>> records;
+		public final AtomicInteger writeIndex;
+		public final AtomicLong hitCount;
+		public final AtomicLong missCount;
+
+		/**
+		 * Constructor.
+		 */
+		public ReadBuffer()
+		{
+			records = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+			writeIndex = new AtomicInteger();
+			hitCount = new AtomicLong();
+			missCount = new AtomicLong();
+		}
+
+	}
+
+	////////////////////////////////////////////////////////////////
+	// Constants
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Number of accesses a read buffer can hold before it has to be drained.
+	 */
+	private static final int READ_BUFFER_SIZE = 32;
+
+	/**
+	 * Share of the maximum cache size given to the window of {@link EvictionPolicy#TINY_LFU}.
+	 */
+	private static final double WINDOW_SHARE = 0.01;
+
+	////////////////////////////////////////////////////////////////
+	// Variables
+	////////////////////////////////////////////////////////////////
+
+	private final CacheRecord<T> beforeFirst;
+	private final CacheRecord<T> afterLast;
+
+	private final CacheRecord<T> windowBeforeFirst;
+	private final CacheRecord<T> windowAfterLast;
+	private int windowCount;
+	private int maxWindowSize;
+
+	private final EvictionPolicy evictionPolicy;
+	private final FrequencySketch sketch;
+	private volatile long evictionCount;
+
+	private final ConcurrentHashMap<String, CacheRecord<T>> map;
+
+	private final ReadBuffer<T>[] readBuffers;
+	private final ReentrantLock lock;
+
+	private int maxCacheSize;
+	private long maxCacheDuration;
+
+	////////////////////////////////////////////////////////////////
+	// Constructors
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Constructor.
+	 *
+	 * @param	maxCacheSize				The maximum number of elements in the cache.
+	 * @param	maxCacheDurationSeconds		The maximum number of seconds an element may be cached.
+	 */
+	public Cache(int maxCacheSize, int maxCacheDurationSeconds)
+	{
+		this(maxCacheSize, maxCacheDurationSeconds, EvictionPolicy.LRU);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param	maxCacheSize				The maximum number of elements in the cache.
+	 * @param	maxCacheDurationSeconds		The maximum number of seconds an element may be cached.
+	 * @param	evictionPolicy				The policy deciding which elements to evict if the cache is full.
+	 *										{@link EvictionPolicy#TINY_LFU} requires a maximum cache size.
+	 */
+	@SuppressWarnings("unchecked")
+	public Cache(int maxCacheSize, int maxCacheDurationSeconds, EvictionPolicy evictionPolicy)
+	{
+		this.maxCacheSize = maxCacheSize;
+		if (maxCacheDurationSeconds <= 0) {
+			this.maxCacheDuration = -1;
+		} else {
+			this.maxCacheDuration = maxCacheDurationSeconds * 1000L;
+		}
+
+		beforeFirst = new CacheRecord<>(null, null, Long.MAX_VALUE);
+		afterLast = new CacheRecord<>(null, null, Long.MAX_VALUE);
+
+		afterLast.predecessor = beforeFirst;
+		beforeFirst.successor = afterLast;
+
+		windowBeforeFirst = new CacheRecord<>(null, null, Long.MAX_VALUE);
+		windowAfterLast = new CacheRecord<>(null, null, Long.MAX_VALUE);
+
+		windowAfterLast.predecessor = windowBeforeFirst;
+		windowBeforeFirst.successor = windowAfterLast;
+
+		if ((evictionPolicy == EvictionPolicy.TINY_LFU) && (maxCacheSize > 0)) {
+			this.evictionPolicy = EvictionPolicy.TINY_LFU;
+			this.maxWindowSize = Math.max(1, (int) (maxCacheSize * WINDOW_SHARE));
+			this.sketch = new FrequencySketch(maxCacheSize);
+		} else {
+			this.evictionPolicy = EvictionPolicy.LRU;
+			this.maxWindowSize = 0;
+			this.sketch = null;
+		}
+
+		int stripes = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
+		readBuffers = (ReadBuffer<T>[]) new ReadBuffer<?>[Math.max(stripes, 1)];
+		for (int i = 0; i < readBuffers.length; i++) {
+			readBuffers[i] = new ReadBuffer<>();
+		}
+		lock = new ReentrantLock();
+
+		map = new ConcurrentHashMap<>(16, 0.75f, readBuffers.length);
+	}
+
+	////////////////////////////////////////////////////////////////
+	// Methods
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Get the number of elements currently stored in the cache.
+	 */
+	public int size()
+	{
+		return map.size();
+	}
+
+	/**
+	 * Get the eviction policy of this cache.
+	 */
+	public EvictionPolicy getEvictionPolicy()
+	{
+		return evictionPolicy;
+	}
+
+	/**
+	 * Get the number of lookups that found an element.
+	 */
+	public long getHitCount()
+	{
+		long n = 0;
+		for (ReadBuffer<T> buffer : readBuffers) {
+			n += buffer.hitCount.get();
+		}
+		return n;
+	}
+
+	/**
+	 * Get the number of lookups that found no element.
+	 */
+	public long getMissCount()
+	{
+		long n = 0;
+		for (ReadBuffer<T> buffer : readBuffers) {
+			n += buffer.missCount.get();
+		}
+		return n;
+	}
+
+	/**
+	 * Get the number of elements removed because the cache was full or the elements were expired.
+	 * Elements removed explicitely or replaced by <code>put()</code> are not counted.
+	 */
+	public long getEvictionCount()
+	{
+		return evictionCount;
+	}
+
+	/**
+	 * Explicite cache cleaning. Typically you do not need to call this method directly.
+	 */
+	public void cleanCache()
+	{
+		lock.lock();
+		try {
+			__drainReadBuffers();
+			__cleanCache();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void __cleanCache()
+	{
+		while (windowCount > maxWindowSize) {
+			__leaveWindow(windowAfterLast.predecessor);
+		}
+		if (maxCacheSize > 0) {
+			while (map.size() > maxCacheSize && windowAfterLast.predecessor != windowBeforeFirst) {
+				__evict(windowAfterLast.predecessor);
+			}
+			while (map.size() > maxCacheSize && afterLast.predecessor != beforeFirst) {
+				__evict(afterLast.predecessor);
+			}
+		}
+		if (maxCacheDuration > 0) {
+			long timeLimit = System.currentTimeMillis() - maxCacheDuration;
+			while (windowAfterLast.predecessor.timeStampLastAccess < timeLimit) {
+				__evict(windowAfterLast.predecessor);
+			}
+			while (afterLast.predecessor.timeStampLastAccess < timeLimit) {
+				__evict(afterLast.predecessor);
+			}
+		}
+	}
+
+	/**
+	 * Moves the candidate from the window to the main area if there is room. Otherwise either the
+	 * candidate or the least recently used element of the main area is evicted, whichever has been
+	 * requested less often.
+	 */
+	private void __leaveWindow(CacheRecord<T> candidate)
+	{
+		__remove(candidate);
+		candidate.bInWindow = false;
+		__insertAfter(beforeFirst, candidate);
+		if ((map.size() <= maxCacheSize) || (afterLast.predecessor == candidate)) return;
+
+		CacheRecord<T> victim = afterLast.predecessor;
+		if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+			__evict(victim);
+		} else {
+			__evict(candidate);
+		}
+	}
+
+	/**
+	 * Lookup a cache element. <code>null</code> is returned if the element is not cached or has
+	 * been cached for longer than the maximum cache duration.
+	 *
+	 * @param		key			The key to look for
+	 * @param		bTouch		Specify <code>true</code> here, if you want to touch the element and therefor
+	 *							to raise it within the cache. (The elements at the bottom of the cache will be
+	 *							removed at some other time.)
+	 */
+	public T get(String key, boolean bTouch)
+	{
+		ReadBuffer<T> buffer = readBuffers[(int) Thread.currentThread().getId() & (readBuffers.length - 1)];
+		CacheRecord<T> n = map.get(key);
+		long now = System.currentTimeMillis();
+		if ((n == null) || __isExpired(n, now)) {
+			buffer.missCount.incrementAndGet();
+			return null;
+		}
+		buffer.hitCount.incrementAndGet();
+		if (bTouch) {
+			n.timeStampLastAccess = now;
+			n.bTouched = true;
+			__recordAccess(buffer, n);
+		} else if (sketch != null) {
+			__recordAccess(buffer, n);
+		}
+		return n.value;
+	}
+
+	/**
+	 * Lookup a cache element without touching it and without counting the lookup. Used to look
+	 * again for an element whose lookup has already been counted, and for checks that must not
+	 * change the statistics.
+	 *
+	 * @param		key			The key to look for
+	 */
+	T peek(String key)
+	{
+		CacheRecord<T> n = map.get(key);
+		if ((n == null) || __isExpired(n, System.currentTimeMillis())) return null;
+		return n.value;
+	}
+
+	/**
+	 * Get the time in milliseconds at which an element has been put into the cache. <code>-1</code> is
+	 * returned if the element is not cached.
+	 *
+	 * @param		key			The key to look for
+	 */
+	public long getTimeStampCreated(String key)
+	{
+		CacheRecord<T> n = map.get(key);
+		if (n == null) return -1;
+		return n.timeStampCreated;
+	}
+
+	/**
+	 * Explicitely remove an element from the cache.
+	 *
+	 * @param		key		The key to look for
+	 * @return		Returns <code>true</code> if the element has been cached, <code>false</code> otherwise.
+	 */
+	public boolean remove(String key)
+	{
+		lock.lock();
+		try {
+			CacheRecord<T> n = map.remove(key);
+			if (n == null) return false;
+			__remove(n);
+		} finally {
+			lock.unlock();
+		}
+		return true;
+	}
+
+	/**
+	 * Put an element into the cache. If the cach contains such an element already, the existing one is removed
+	 * from the cache.
+	 *
+	 * @param		key		The key
+	 * @param		value		The value
+	 */
+	public void put(String key, T value)
+	{
+		CacheRecord<T> nNew = new CacheRecord<>(key, value, System.currentTimeMillis());
+		lock.lock();
+		try {
+			__drainReadBuffers();
+			CacheRecord<T> nOld = map.put(key, nNew);
+			if (nOld != null) {
+				__remove(nOld);
+			}
+			if (sketch != null) {
+				sketch.increment(key);
+				nNew.bInWindow = true;
+				__insertAfter(windowBeforeFirst, nNew);
+			} else {
+				__insertAfter(beforeFirst, nNew);
+			}
+			__cleanCache();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private boolean __isExpired(CacheRecord<T> n, long now)
+	{
+		return (maxCacheDuration > 0) && (now - n.timeStampLastAccess > maxCacheDuration);
+	}
+
+	/**
+	 * Records an access in the read buffer of the current thread. Drains the buffers if this one
+	 * is full and no other thread is maintaining the LRU list.
+	 */
+	private void __recordAccess(ReadBuffer<T> buffer, CacheRecord<T> n)
+	{
+		if (buffer.writeIndex.get() < READ_BUFFER_SIZE) {
+			int i = buffer.writeIndex.getAndIncrement();
+			if (i < READ_BUFFER_SIZE) {
+				buffer.records.lazySet(i, n);
+				if (i < READ_BUFFER_SIZE - 1) return;
+			}
+		}
+		if (lock.tryLock()) {
+			try {
+				__drainReadBuffers();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Replays all recorded accesses: counts them in the frequency sketch and moves touched records
+	 * to the front of their LRU list. Must be called with the maintenance lock held.
+	 */
+	private void __drainReadBuffers()
+	{
+		for (ReadBuffer<T> buffer : readBuffers) {
+			int end = Math.min(buffer.writeIndex.get(), READ_BUFFER_SIZE);
+			for (int i = 0; i < end; i++) {
+				CacheRecord<T> n = buffer.records.getAndSet(i, null);
+				if ((n == null) || !n.isLinked()) continue;
+				if (sketch != null) {
+					sketch.increment(n.key);
+				}
+				if (n.bTouched) {
+					n.bTouched = false;
+					__remove(n);
+					__insertAfter(n.bInWindow ? windowBeforeFirst : beforeFirst, n);
+				}
+			}
+			buffer.writeIndex.set(0);
+		}
+	}
+
+	private void __evict(CacheRecord<T> n)
+	{
+		map.remove(n.key, n);
+		__remove(n);
+		evictionCount++;
+	}
+
+	private void __insertAfter(CacheRecord<T> a, CacheRecord<T> n)
+	{
+		CacheRecord<T> b = a.successor;
+
+		if (n.bInWindow) windowCount++;
+
+		n.predecessor = a;
+		a.successor = n;
+
+		n.successor = b;
+		b.predecessor = n;
+	}
+
+	private void __remove(CacheRecord<T> n)
+	{
+		CacheRecord<T> a = n.predecessor;
+		CacheRecord<T> b = n.successor;
+
+		if (n.bInWindow) windowCount--;
+
+		a.successor = b;
+		b.predecessor = a;
+
+		n.predecessor = null;
+		n.successor = null;
+	}
+
+}
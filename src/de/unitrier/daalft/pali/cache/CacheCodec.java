@@ -0,0 +1,36 @@
+/*
+ * MIT license
+ */
+package de.unitrier.daalft.pali.cache;
+
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+
+/**
+ * Converts cache elements to bytes and back, see {@link PersistentCache}.
+ *
+ * @author knauth
+ */
+public interface CacheCodec<T>
+{
+
+	/**
+	 * Write a value.
+	 *
+	 * @param		out		The output
+	 * @param		value		The value, never <code>null</code>
+	 */
+	public void write(DataOutput out, T value) throws IOException;
+
+	/**
+	 * Read a value written by {@link #write(DataOutput, Object)}.
+	 *
+	 * @param		in		The input
+	 * @return		Returns the value.
+	 */
+	public T read(DataInput in) throws IOException;
+
+}
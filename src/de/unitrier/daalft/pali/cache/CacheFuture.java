@@ -0,0 +1,132 @@
+/*
+ * MIT license
+ */
+package de.unitrier.daalft.pali.cache;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+
+/**
+ * The pending result of a cache lookup.
+ *
+ * In addition to a plain {@link FutureTask} listeners can be registered that are run as soon as
+ * the result is available, so callers can combine many lookups without blocking a thread on each
+ * of them. Listeners are run by the thread completing the future, or immediately by the thread
+ * registering them if the future is already done; they should be short.
+ *
+ * @author knauth
+ */
+public class CacheFuture<T> extends FutureTask<T>
+{
+
+	////////////////////////////////////////////////////////////////
+	// Variables
+	////////////////////////////////////////////////////////////////
+
+	private List<Runnable> listeners;
+
+	////////////////////////////////////////////////////////////////
+	// Constructors
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Constructor.
+	 *
+	 * @param	callable		The computation of the result
+	 */
+	public CacheFuture(Callable<T> callable)
+	{
+		super(callable);
+		listeners = new ArrayList<>();
+	}
+
+	/**
+	 * Creates a future that is already done.
+	 *
+	 * @param	value		The result
+	 */
+	public static <T> CacheFuture<T> completed(final T value)
+	{
+		CacheFuture<T> f = new CacheFuture<>(new Callable<T>() {
+			@Override
+			public T call()
+			{
+				return value;
+			}
+		});
+		f.run();
+		return f;
+	}
+
+	/**
+	 * Creates a future that is completed explicitely by {@link #complete(Object)} or
+	 * {@link #fail(Exception)}.
+	 */
+	static <T> CacheFuture<T> pending()
+	{
+		return new CacheFuture<>(new Callable<T>() {
+			@Override
+			public T call()
+			{
+				throw new IllegalStateException("Pending future must be completed explicitely");
+			}
+		});
+	}
+
+	////////////////////////////////////////////////////////////////
+	// Methods
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Register a listener that is run once the result is available or the computation failed.
+	 *
+	 * @param		listener		The listener
+	 */
+	public void addListener(Runnable listener)
+	{
+		synchronized (this) {
+			if (listeners != null) {
+				listeners.add(listener);
+				return;
+			}
+		}
+		__run(listener);
+	}
+
+	void complete(T value)
+	{
+		set(value);
+	}
+
+	void fail(Exception e)
+	{
+		setException(e);
+	}
+
+	@Override
+	protected void done()
+	{
+		List<Runnable> l;
+		synchronized (this) {
+			l = listeners;
+			listeners = null;
+		}
+		for (Runnable listener : l) {
+			__run(listener);
+		}
+	}
+
+	private static void __run(Runnable listener)
+	{
+		try {
+			listener.run();
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+		}
+	}
+
+}
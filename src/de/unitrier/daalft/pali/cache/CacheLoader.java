@@ -0,0 +1,23 @@
+/*
+ * MIT license
+ */
+package de.unitrier.daalft.pali.cache;
+
+
+/**
+ * Computes the value of a cache element on a cache miss.
+ *
+ * @author knauth
+ */
+public interface CacheLoader<T>
+{
+
+	/**
+	 * Compute the value for a key.
+	 *
+	 * @param		key		The key
+	 * @return		Returns the value or <code>null</code> if there is no value for this key.
+	 */
+	public T load(String key) throws Exception;
+
+}
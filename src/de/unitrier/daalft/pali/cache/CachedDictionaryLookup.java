@@ -1,39 +1,134 @@
 package de.unitrier.daalft.pali.cache;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Executor;
 
+import de.cl.dictclient.DictWord;
 import de.general.json.JObject;
 import de.unitrier.daalft.pali.lexicon.LexiconAdapter;
 
 public class CachedDictionaryLookup {
 
-	private Cache<JObject[]> cache;
+	/**
+	 * Default number of seconds a lemma missing from the dictionary is remembered
+	 */
+	public static final int DEFAULT_NEGATIVE_CACHE_DURATION_IN_SECONDS = 3600;
+
+	private LoadingCache<JObject[]> cache;
 	private LexiconAdapter lexiconAdapter;
-	private HashSet<String> invalid;
+	private CacheLoader<JObject[]> loader;
 	
 	public CachedDictionaryLookup(String domain, int port, String user, String pw, int maxCacheSize, int maxCacheDurationInSeconds) throws Exception {
-		invalid = new HashSet<>();
-		cache = new Cache<JObject[]>(maxCacheSize, maxCacheDurationInSeconds);
+		this(domain, port, user, pw, maxCacheSize, maxCacheDurationInSeconds, EvictionPolicy.LRU);
+	}
+
+	public CachedDictionaryLookup(String domain, int port, String user, String pw, int maxCacheSize, int maxCacheDurationInSeconds, EvictionPolicy evictionPolicy) throws Exception {
+		this(domain, port, user, pw, maxCacheSize, maxCacheDurationInSeconds, evictionPolicy, maxCacheSize, DEFAULT_NEGATIVE_CACHE_DURATION_IN_SECONDS);
+	}
+
+	public CachedDictionaryLookup(String domain, int port, String user, String pw, int maxCacheSize, int maxCacheDurationInSeconds, EvictionPolicy evictionPolicy,
+			int maxNegativeCacheSize, int maxNegativeCacheDurationInSeconds) throws Exception {
+		this(domain, port, user, pw, maxCacheSize, maxCacheDurationInSeconds, evictionPolicy, maxNegativeCacheSize, maxNegativeCacheDurationInSeconds, null, 0);
+	}
+
+	/**
+	 * Constructor
+	 * @param domain dictionary server
+	 * @param port port
+	 * @param user user
+	 * @param pw password
+	 * @param maxCacheSize maximum number of cached lemmata
+	 * @param maxCacheDurationInSeconds maximum number of seconds a lemma is cached
+	 * @param evictionPolicy eviction policy
+	 * @param maxNegativeCacheSize maximum number of remembered missing lemmata
+	 * @param maxNegativeCacheDurationInSeconds maximum number of seconds a missing lemma is remembered
+	 * @param executor executor for asynchronous lookups, may be null
+	 * @param refreshAfterSeconds number of seconds after which a lemma is looked up again in the background, 0 to disable
+	 * @throws Exception
+	 */
+	public CachedDictionaryLookup(String domain, int port, String user, String pw, int maxCacheSize, int maxCacheDurationInSeconds, EvictionPolicy evictionPolicy,
+			int maxNegativeCacheSize, int maxNegativeCacheDurationInSeconds, Executor executor, int refreshAfterSeconds) throws Exception {
+		cache = new LoadingCache<JObject[]>(maxCacheSize, maxCacheDurationInSeconds, evictionPolicy, maxNegativeCacheSize, maxNegativeCacheDurationInSeconds,
+				executor, refreshAfterSeconds);
 		lexiconAdapter = new LexiconAdapter(domain, port, user, pw);
+		loader = new CacheLoader<JObject[]>() {
+			@Override
+			public JObject[] load(String lemma) throws Exception {
+				return lexiconAdapter.getLemmaEntriesAsJObjectArray(lemma);
+			}
+		};
+	}
+
+	public LoadingCache<JObject[]> getCache() {
+		return cache;
 	}
 		
 	public boolean lemmaExists(String lemma) {
-		return (cache.get(lemma, false) != null);
+		return (cache.getIfPresent(lemma) != null);
 	}
 
 	public JObject[] getLemmata (String lemma) throws Exception {
-		if (invalid.contains(lemma))
-			return null;
-		JObject[] lemmata = cache.get(lemma, false);
-		if (lemmata != null) {
-			return lemmata;
+		return cache.get(lemma, loader);
+	}
+
+	/**
+	 * Looks up many lemmata
+	 * <p>
+	 * Lemmata that are not cached are fetched with
+	 * one batch lookup. Lemmata whose lookup fails in the
+	 * batch are looked up again one at a time
+	 * @param lemmata lemmata
+	 * @return entries per lemma, null if lemma is unknown
+	 * @throws Exception if a lemma cannot be looked up; the
+	 * lemmata looked up so far are cached nonetheless
+	 */
+	public Map<String, JObject[]> getLemmata (Collection<String> lemmata) throws Exception {
+		Map<String, JObject[]> out = new LinkedHashMap<String, JObject[]>();
+		List<String> missing = new ArrayList<String>();
+		for (String lemma : lemmata) {
+			if (out.containsKey(lemma))
+				continue;
+			JObject[] entries = cache.getIfPresent(lemma);
+			out.put(lemma, entries);
+			if (entries == null && !cache.isKnownAbsent(lemma))
+				missing.add(lemma);
 		}
-		lemmata = lexiconAdapter.getLemmaEntriesAsJObjectArray(lemma);
-		if (lemmata == null) {
-			invalid.add(lemma);
-			return null;
+		if (!missing.isEmpty()) {
+			List<String> failed = new ArrayList<String>();
+			for (Entry<String, DictWord[]> e : lexiconAdapter.lookupLemmas(missing, failed).entrySet()) {
+				JObject[] entries = e.getValue().length > 0 ? e.getValue() : null;
+				cache.put(e.getKey(), entries);
+				out.put(e.getKey(), entries);
+			}
+			for (String lemma : failed) {
+				JObject[] entries = lexiconAdapter.getLemmaEntriesAsJObjectArray(lemma);
+				cache.put(lemma, entries);
+				out.put(lemma, entries);
+			}
 		}
-		cache.put(lemma, lemmata);
-		return lemmata;
+		return out;
+	}
+
+	/**
+	 * Looks up a lemma without blocking
+	 * @param lemma lemma
+	 * @return pending entries, null if lemma is unknown
+	 */
+	public CacheFuture<JObject[]> getLemmataAsync (String lemma) {
+		return cache.getAsync(lemma, loader);
+	}
+
+	/**
+	 * Looks up many lemmata without blocking
+	 * @param lemmata lemmata
+	 * @return pending entries per lemma
+	 */
+	public CacheFuture<Map<String, JObject[]>> getLemmataAsync (Collection<String> lemmata) {
+		return cache.getAllAsync(lemmata, loader);
 	}
 }
@@ -1,40 +1,163 @@
 package de.unitrier.daalft.pali.cache;
 
-import java.util.HashSet;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 import de.general.log.ILogInterface;
+import de.unitrier.daalft.pali.GrammarSnapshot;
 import de.unitrier.daalft.pali.morphology.Lemmatizer;
 import de.unitrier.daalft.pali.morphology.element.ConstructedWord;
 import de.unitrier.daalft.pali.morphology.paradigm.ParadigmAccessor;
 
 public class CachedLemmatizer {
 
-	private Cache<List<ConstructedWord>> cache;
+	/**
+	 * Default number of seconds a word without lemma is remembered
+	 */
+	public static final int DEFAULT_NEGATIVE_CACHE_DURATION_IN_SECONDS = 3600;
+
+	private LoadingCache<List<ConstructedWord>> cache;
+	private PersistentCache<List<ConstructedWord>> persistentCache;
 	private Lemmatizer lemmatizer;
-	private HashSet<String> invalid;
 	
 	public CachedLemmatizer(ParadigmAccessor pa, int maxCacheSize, int maxCacheDurationInSeconds) throws Exception {
-		cache = new Cache<List<ConstructedWord>>(maxCacheSize, maxCacheDurationInSeconds);
+		this(pa, maxCacheSize, maxCacheDurationInSeconds, EvictionPolicy.LRU);
+	}
+
+	public CachedLemmatizer(ParadigmAccessor pa, int maxCacheSize, int maxCacheDurationInSeconds, EvictionPolicy evictionPolicy) throws Exception {
+		this(pa, maxCacheSize, maxCacheDurationInSeconds, evictionPolicy, maxCacheSize, DEFAULT_NEGATIVE_CACHE_DURATION_IN_SECONDS);
+	}
+
+	public CachedLemmatizer(ParadigmAccessor pa, int maxCacheSize, int maxCacheDurationInSeconds, EvictionPolicy evictionPolicy,
+			int maxNegativeCacheSize, int maxNegativeCacheDurationInSeconds) throws Exception {
+		cache = new LoadingCache<List<ConstructedWord>>(maxCacheSize, maxCacheDurationInSeconds, evictionPolicy, maxNegativeCacheSize, maxNegativeCacheDurationInSeconds);
 		lemmatizer = new Lemmatizer(pa);
-		invalid = new HashSet<>();
+	}
+
+	/**
+	 * Constructor with a persistent second-level cache
+	 * <p>
+	 * Results are also stored in the given file, tagged with the
+	 * version of the grammar. The most recent results are loaded
+	 * into memory on start; results of another grammar version
+	 * are discarded
+	 * @param pa paradigm accessor
+	 * @param maxCacheSize maximum number of cached words
+	 * @param maxCacheDurationInSeconds maximum number of seconds a word is cached in memory
+	 * @param evictionPolicy eviction policy
+	 * @param persistentCachePath file of the second-level cache
+	 * @throws Exception
+	 */
+	public CachedLemmatizer(ParadigmAccessor pa, int maxCacheSize, int maxCacheDurationInSeconds, EvictionPolicy evictionPolicy,
+			String persistentCachePath) throws Exception {
+		this(pa, maxCacheSize, maxCacheDurationInSeconds, evictionPolicy, persistentCachePath, PersistentCache.DEFAULT_MAX_BYTES);
+	}
+
+	/**
+	 * Constructor with a persistent second-level cache of limited size
+	 * <p>
+	 * If the results stored exceed the given number of bytes,
+	 * the oldest ones are discarded
+	 * @param pa paradigm accessor
+	 * @param maxCacheSize maximum number of cached words
+	 * @param maxCacheDurationInSeconds maximum number of seconds a word is cached in memory
+	 * @param evictionPolicy eviction policy
+	 * @param persistentCachePath file of the second-level cache
+	 * @param maxPersistentCacheBytes maximum number of bytes of the second-level cache
+	 * @throws Exception
+	 */
+	public CachedLemmatizer(ParadigmAccessor pa, int maxCacheSize, int maxCacheDurationInSeconds, EvictionPolicy evictionPolicy,
+			String persistentCachePath, long maxPersistentCacheBytes) throws Exception {
+		this(pa, maxCacheSize, maxCacheDurationInSeconds, evictionPolicy, maxCacheSize, DEFAULT_NEGATIVE_CACHE_DURATION_IN_SECONDS);
+		persistentCache = new PersistentCache<List<ConstructedWord>>(persistentCachePath, GrammarSnapshot.grammarVersion(),
+				new ConstructedWordListCodec(), maxPersistentCacheBytes);
+		warmUp(maxCacheSize);
+	}
+
+	/**
+	 * Loads the most recent results of the second-level cache into memory
+	 * @param max maximum number of results
+	 * @throws IOException
+	 */
+	private void warmUp (int max) throws IOException {
+		for (String key : persistentCache.getRecentKeys(max)) {
+			List<ConstructedWord> l = persistentCache.get(key);
+			if (l.isEmpty())
+				cache.getNegativeCache().put(key, Boolean.TRUE);
+			else
+				cache.getCache().put(key, l);
+		}
+	}
+
+	/**
+	 * Closes the second-level cache, if any
+	 * @throws IOException
+	 */
+	public void close () throws IOException {
+		if (persistentCache != null)
+			persistentCache.close();
+	}
+
+	public LoadingCache<List<ConstructedWord>> getCache() {
+		return cache;
 	}
 		
 	public boolean lemmaExists(String lemma) {
-		return (cache.get(lemma, false) != null);
+		return (cache.getIfPresent(key(lemma, null)) != null);
 	}
 
-	public List<ConstructedWord> lemmatize (ILogInterface log, String word, String pos) throws Exception {
-		List<ConstructedWord> lemmata = cache.get(word, false);
-		if (lemmata != null) {
-			return lemmata;
-		}
-		lemmata = lemmatizer.lemmatize(log, word, pos);
+	/**
+	 * Returns the cache key of a word and part of speech
+	 * @param word word
+	 * @param pos part of speech
+	 * @return key
+	 */
+	private static String key (String word, String pos) {
+		return pos == null ? word : word + "\t" + pos;
+	}
+
+	/**
+	 * Lemmatizes a word
+	 * <p>
+	 * Words without lemma are cached negatively
+	 * and yield an empty list
+	 * @param log log
+	 * @param word word
+	 * @param pos part of speech
+	 * @return lemmata
+	 * @throws Exception
+	 */
+	public List<ConstructedWord> lemmatize (final ILogInterface log, final String word, final String pos) throws Exception {
+		List<ConstructedWord> lemmata = cache.get(key(word, pos), new CacheLoader<List<ConstructedWord>>() {
+			@Override
+			public List<ConstructedWord> load(String key) throws Exception {
+				List<ConstructedWord> l = null;
+				if (persistentCache != null) {
+					try {
+						l = persistentCache.get(key);
+					} catch (IOException e) {
+						e.printStackTrace();
+					}
+				}
+				if (l == null) {
+					l = lemmatizer.lemmatize(log, word, pos);
+					if (l == null)
+						l = new ArrayList<ConstructedWord>();
+					if (persistentCache != null) {
+						try {
+							persistentCache.put(key, l);
+						} catch (IOException e) {
+							e.printStackTrace();
+						}
+					}
+				}
+				return l.isEmpty() ? null : l;
+			}
+		});
 		if (lemmata == null) {
-			invalid.add(word);
-			return null;
+			return new ArrayList<ConstructedWord>();
 		}
-		cache.put(word, lemmata);
 		return lemmata;
 	}
 
@@ -0,0 +1,86 @@
+/*
+ * MIT license
+ */
+package de.unitrier.daalft.pali.cache;
+
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.unitrier.daalft.pali.morphology.element.ConstructedWord;
+import de.unitrier.daalft.pali.morphology.element.Feature;
+import de.unitrier.daalft.pali.morphology.element.FeatureSet;
+
+
+/**
+ * Converts lemmatizer results to bytes and back.
+ *
+ * @author knauth
+ */
+public class ConstructedWordListCodec implements CacheCodec<List<ConstructedWord>>
+{
+
+	////////////////////////////////////////////////////////////////
+	// Methods
+	////////////////////////////////////////////////////////////////
+
+	@Override
+	public void write(DataOutput out, List<ConstructedWord> value) throws IOException
+	{
+		out.writeInt(value.size());
+		for (ConstructedWord cw : value) {
+			__writeString(out, cw.getWord());
+			__writeString(out, cw.getStem());
+			__writeString(out, cw.getLemma());
+			List<Feature> features = new ArrayList<>();
+			for (Feature f : cw.getFeatureSet()) {
+				features.add(f);
+			}
+			out.writeInt(features.size());
+			for (Feature f : features) {
+				__writeString(out, f.getKey());
+				__writeString(out, f.getValue());
+			}
+		}
+	}
+
+	@Override
+	public List<ConstructedWord> read(DataInput in) throws IOException
+	{
+		int n = in.readInt();
+		List<ConstructedWord> value = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			ConstructedWord cw = new ConstructedWord(__readString(in));
+			cw.setStem(__readString(in));
+			cw.setLemma(__readString(in));
+			Feature[] features = new Feature[in.readInt()];
+			for (int j = 0; j < features.length; j++) {
+				features[j] = new Feature(__readString(in), __readString(in));
+			}
+			try {
+				cw.setFeatureSet(new FeatureSet(features));
+			} catch (IllegalStateException e) {
+				throw new IOException("Features cannot be interned", e);
+			}
+			value.add(cw);
+		}
+		return value;
+	}
+
+	private static void __writeString(DataOutput out, String s) throws IOException
+	{
+		out.writeBoolean(s != null);
+		if (s != null) {
+			out.writeUTF(s);
+		}
+	}
+
+	private static String __readString(DataInput in) throws IOException
+	{
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+}
@@ -0,0 +1,28 @@
+/*
+ * MIT license
+ */
+package de.unitrier.daalft.pali.cache;
+
+
+/**
+ * Decides which elements a full {@link Cache} gives up.
+ *
+ * @author knauth
+ */
+public enum EvictionPolicy
+{
+
+	/**
+	 * Evict the least recently used element.
+	 */
+	LRU,
+
+	/**
+	 * W-TinyLFU: new elements enter a small LRU window. An element leaving the window is only
+	 * admitted to the main LRU area if it has been requested more often than the element it would
+	 * replace, as estimated by a {@link FrequencySketch}. Scans over rarely requested keys therefore
+	 * do not flush frequently requested ones.
+	 */
+	TINY_LFU
+
+}
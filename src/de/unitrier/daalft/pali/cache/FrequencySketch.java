@@ -0,0 +1,134 @@
+/*
+ * MIT license
+ */
+package de.unitrier.daalft.pali.cache;
+
+
+/**
+ * This class estimates how often keys have been requested recently.
+ *
+ * It is a count-min sketch with four rows of 4 bit counters, sixteen counters packed into each
+ * <code>long</code>. The estimate is the minimum of the four counters of a key. After a number of
+ * increments proportional to the cache size all counters are halved, so old popularity fades.
+ *
+ * This class is not thread safe.
+ *
+ * @author knauth
+ */
+class FrequencySketch
+{
+
+	////////////////////////////////////////////////////////////////
+	// Constants
+	////////////////////////////////////////////////////////////////
+
+	private static final long[] SEEDS = {
+		0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+	};
+
+	private static final long RESET_MASK = 0x7777777777777777L;
+
+	private static final int MAX_COUNT = 15;
+
+	////////////////////////////////////////////////////////////////
+	// Variables
+	////////////////////////////////////////////////////////////////
+
+	private final long[] table;
+	private final int tableMask;
+	private final int sampleSize;
+	private int size;
+
+	////////////////////////////////////////////////////////////////
+	// Constructors
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Constructor.
+	 *
+	 * @param	maximumSize		The maximum number of elements of the cache.
+	 */
+	public FrequencySketch(int maximumSize)
+	{
+		int n = Integer.highestOneBit(Math.max(maximumSize, 16) - 1) << 1;
+		table = new long[n];
+		tableMask = n - 1;
+		sampleSize = 10 * Math.max(maximumSize, 16);
+	}
+
+	////////////////////////////////////////////////////////////////
+	// Methods
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the estimated number of recent requests of a key, at most 15.
+	 */
+	public int frequency(String key)
+	{
+		int hash = __spread(key.hashCode());
+		int frequency = MAX_COUNT;
+		for (int i = 0; i < SEEDS.length; i++) {
+			int index = __indexOf(hash, i);
+			int count = (int) ((table[index >>> 4] >>> ((index & 15) << 2)) & 0xfL);
+			frequency = Math.min(frequency, count);
+		}
+		return frequency;
+	}
+
+	/**
+	 * Records a request of a key.
+	 */
+	public void increment(String key)
+	{
+		int hash = __spread(key.hashCode());
+		boolean added = false;
+		for (int i = 0; i < SEEDS.length; i++) {
+			added |= __incrementAt(__indexOf(hash, i));
+		}
+		if (added && (++size == sampleSize)) {
+			__reset();
+		}
+	}
+
+	private boolean __incrementAt(int index)
+	{
+		int slot = index >>> 4;
+		int offset = (index & 15) << 2;
+		long mask = 0xfL << offset;
+		if ((table[slot] & mask) != mask) {
+			table[slot] += 1L << offset;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Halves all counters.
+	 */
+	private void __reset()
+	{
+		for (int i = 0; i < table.length; i++) {
+			table[i] = (table[i] >>> 1) & RESET_MASK;
+		}
+		size /= 2;
+	}
+
+	/**
+	 * Returns the counter of a key in the given row. Counters are numbered across all 16 counters
+	 * of all longs.
+	 */
+	private int __indexOf(int hash, int row)
+	{
+		long h = (hash + SEEDS[row]) * SEEDS[row];
+		h += h >>> 32;
+		return (int) h & ((tableMask << 4) | 15);
+	}
+
+	private static int __spread(int x)
+	{
+		x = ((x >>> 16) ^ x) * 0x45d9f3b;
+		x = ((x >>> 16) ^ x) * 0x45d9f3b;
+		return (x >>> 16) ^ x;
+	}
+
+}
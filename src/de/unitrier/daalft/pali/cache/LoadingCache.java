@@ -0,0 +1,349 @@
+/*
+ * MIT license
+ */
+package de.unitrier.daalft.pali.cache;
+
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * This class implements a cache that computes missing elements itself.
+ *
+ * Keys without a value are remembered in a separate, bounded negative cache with its own maximum
+ * duration, so misses are not recomputed over and over again. Concurrent requests for the same
+ * missing key are joined: only one of them runs the loader, the others wait for its result
+ * (single-flight). If the loader fails, nothing is cached and all waiting requests fail.
+ *
+ * If an executor is given, elements can be requested asynchronously with {@link #getAsync(String, CacheLoader)},
+ * and elements older than the refresh time are reloaded in the background while the old value is
+ * still served (refresh-ahead).
+ *
+ * @author knauth
+ */
+public class LoadingCache<T>
+{
+
+	////////////////////////////////////////////////////////////////
+	// Variables
+	////////////////////////////////////////////////////////////////
+
+	private final Cache<T> cache;
+	private final Cache<Boolean> negativeCache;
+
+	private final ConcurrentHashMap<String, CacheFuture<T>> inFlight;
+
+	private final Executor executor;
+	private final long refreshAfter;
+
+	////////////////////////////////////////////////////////////////
+	// Constructors
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Constructor.
+	 *
+	 * @param	maxCacheSize						The maximum number of elements in the cache.
+	 * @param	maxCacheDurationSeconds				The maximum number of seconds an element may be cached.
+	 * @param	evictionPolicy						The policy deciding which elements to evict if the cache is full.
+	 * @param	maxNegativeCacheSize				The maximum number of keys without value remembered.
+	 * @param	maxNegativeCacheDurationSeconds		The maximum number of seconds a key without value is remembered.
+	 */
+	public LoadingCache(int maxCacheSize, int maxCacheDurationSeconds, EvictionPolicy evictionPolicy,
+		int maxNegativeCacheSize, int maxNegativeCacheDurationSeconds)
+	{
+		this(maxCacheSize, maxCacheDurationSeconds, evictionPolicy, maxNegativeCacheSize, maxNegativeCacheDurationSeconds, null, 0);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param	maxCacheSize						The maximum number of elements in the cache.
+	 * @param	maxCacheDurationSeconds				The maximum number of seconds an element may be cached.
+	 * @param	evictionPolicy						The policy deciding which elements to evict if the cache is full.
+	 * @param	maxNegativeCacheSize				The maximum number of keys without value remembered.
+	 * @param	maxNegativeCacheDurationSeconds		The maximum number of seconds a key without value is remembered.
+	 * @param	executor							The executor running asynchronous loads, or <code>null</code> to
+	 *												load in the requesting thread.
+	 * @param	refreshAfterSeconds					The number of seconds after which a cached element is reloaded in the
+	 *												background when it is requested. Specify 0 to disable refreshing.
+	 */
+	public LoadingCache(int maxCacheSize, int maxCacheDurationSeconds, EvictionPolicy evictionPolicy,
+		int maxNegativeCacheSize, int maxNegativeCacheDurationSeconds, Executor executor, int refreshAfterSeconds)
+	{
+		cache = new Cache<>(maxCacheSize, maxCacheDurationSeconds, evictionPolicy);
+		negativeCache = new Cache<>(maxNegativeCacheSize, maxNegativeCacheDurationSeconds, evictionPolicy);
+		inFlight = new ConcurrentHashMap<>();
+		this.executor = executor;
+		if ((executor == null) || (refreshAfterSeconds <= 0)) {
+			this.refreshAfter = -1;
+		} else {
+			this.refreshAfter = refreshAfterSeconds * 1000L;
+		}
+	}
+
+	////////////////////////////////////////////////////////////////
+	// Methods
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Get the cache of elements with value.
+	 */
+	public Cache<T> getCache()
+	{
+		return cache;
+	}
+
+	/**
+	 * Get the cache of keys without value.
+	 */
+	public Cache<Boolean> getNegativeCache()
+	{
+		return negativeCache;
+	}
+
+	/**
+	 * Get the number of lookups answered by the cache or the negative cache.
+	 */
+	public long getHitCount()
+	{
+		return cache.getHitCount() + negativeCache.getHitCount();
+	}
+
+	/**
+	 * Get the number of lookups answered by neither the cache nor the negative cache. Lookups
+	 * with {@link #getIfPresent(String)} alone are not counted.
+	 */
+	public long getMissCount()
+	{
+		return negativeCache.getMissCount();
+	}
+
+	/**
+	 * Lookup a cache element without loading it. <code>null</code> is returned if the element is not cached.
+	 *
+	 * @param		key			The key to look for
+	 */
+	public T getIfPresent(String key)
+	{
+		return cache.get(key, false);
+	}
+
+	/**
+	 * Returns <code>true</code> if the key is known to have no value. The lookup is not counted.
+	 *
+	 * @param		key			The key to look for
+	 */
+	public boolean isKnownAbsent(String key)
+	{
+		return negativeCache.peek(key) != null;
+	}
+
+	/**
+	 * Lookup a cache element, loading it if it is not cached. The element is loaded in the calling
+	 * thread unless a load of the same key is already in progress.
+	 *
+	 * @param		key			The key to look for
+	 * @param		loader		The loader computing the value if neither the key nor its absence is cached
+	 * @return		Returns the value or <code>null</code> if there is no value for this key.
+	 * @throws		Exception	The exception thrown by the loader
+	 */
+	public T get(String key, CacheLoader<T> loader) throws Exception
+	{
+		T value = cache.get(key, true);
+		if (value != null) {
+			__refreshIfStale(key, loader);
+			return value;
+		}
+		if (negativeCache.get(key, true) != null) return null;
+
+		CacheFuture<T> flight = __join(key, loader, false);
+		if (!flight.isDone()) {
+			flight.run();
+		}
+		try {
+			return flight.get();
+		} catch (ExecutionException e) {
+			throw __unwrap(e);
+		}
+	}
+
+	/**
+	 * Lookup a cache element without blocking. If the element is not cached it is loaded by the
+	 * executor of this cache; without executor it is loaded in the calling thread.
+	 *
+	 * @param		key			The key to look for
+	 * @param		loader		The loader computing the value if neither the key nor its absence is cached
+	 * @return		Returns the pending value; the value is <code>null</code> if there is no value for this key.
+	 */
+	public CacheFuture<T> getAsync(String key, CacheLoader<T> loader)
+	{
+		T value = cache.get(key, true);
+		if (value != null) {
+			__refreshIfStale(key, loader);
+			return CacheFuture.completed(value);
+		}
+		if (negativeCache.get(key, true) != null) return CacheFuture.completed(null);
+
+		CacheFuture<T> flight = __join(key, loader, false);
+		if (!flight.isDone()) {
+			if (executor != null) {
+				executor.execute(flight);
+			} else {
+				flight.run();
+			}
+		}
+		return flight;
+	}
+
+	/**
+	 * Lookup many cache elements without blocking.
+	 *
+	 * @param		keys		The keys to look for
+	 * @param		loader		The loader computing the values
+	 * @return		Returns the pending map from each key to its value or <code>null</code>, in the order of
+	 *				the keys. The map fails with the first failing load.
+	 */
+	public CacheFuture<Map<String, T>> getAllAsync(Collection<String> keys, CacheLoader<T> loader)
+	{
+		final Map<String, T> values = new LinkedHashMap<>();
+		final CacheFuture<Map<String, T>> all = CacheFuture.pending();
+		if (keys.isEmpty()) {
+			all.complete(values);
+			return all;
+		}
+		final AtomicInteger pending = new AtomicInteger(keys.size());
+		for (final String key : keys) {
+			values.put(key, null);
+		}
+		for (final String key : keys) {
+			final CacheFuture<T> f = getAsync(key, loader);
+			f.addListener(new Runnable() {
+				@Override
+				public void run()
+				{
+					try {
+						T value = f.get();
+						synchronized (values) {
+							values.put(key, value);
+						}
+						if (pending.decrementAndGet() == 0) {
+							synchronized (values) {
+								all.complete(values);
+							}
+						}
+					} catch (ExecutionException e) {
+						all.fail(__unwrap(e));
+					} catch (InterruptedException e) {
+						all.fail(e);
+					}
+				}
+			});
+		}
+		return all;
+	}
+
+	/**
+	 * Put an element loaded elsewhere, e.g. in a batch, into the cache.
+	 *
+	 * @param		key		The key
+	 * @param		value		The value, or <code>null</code> if there is no value for this key
+	 */
+	public void put(String key, T value)
+	{
+		if (value == null) {
+			cache.remove(key);
+			negativeCache.put(key, Boolean.TRUE);
+		} else {
+			negativeCache.remove(key);
+			cache.put(key, value);
+		}
+	}
+
+	/**
+	 * Explicitely remove a key from the cache and from the negative cache.
+	 *
+	 * @param		key		The key
+	 */
+	public void invalidate(String key)
+	{
+		cache.remove(key);
+		negativeCache.remove(key);
+	}
+
+	/**
+	 * Returns the load of a key in progress, or registers a new one that is not yet started.
+	 * Every thread that gets the new load may start it; it runs only once.
+	 */
+	private CacheFuture<T> __join(final String key, CacheLoader<T> loader, boolean bRefresh)
+	{
+		final CacheFuture<T> task = new CacheFuture<>(__loadTask(key, loader, bRefresh));
+		CacheFuture<T> flight = inFlight.putIfAbsent(key, task);
+		if (flight != null) return flight;
+
+		task.addListener(new Runnable() {
+			@Override
+			public void run()
+			{
+				inFlight.remove(key, task);
+			}
+		});
+		return task;
+	}
+
+	/**
+	 * Starts a background reload of a cached element that is older than the refresh time.
+	 */
+	private void __refreshIfStale(String key, CacheLoader<T> loader)
+	{
+		if (refreshAfter < 0) return;
+		long created = cache.getTimeStampCreated(key);
+		if ((created < 0) || (System.currentTimeMillis() - created < refreshAfter)) return;
+		if (inFlight.containsKey(key)) return;
+
+		CacheFuture<T> flight = __join(key, loader, true);
+		if (!flight.isDone()) {
+			executor.execute(flight);
+		}
+	}
+
+	/**
+	 * Creates the task loading a key and storing the result in the cache or the negative cache.
+	 * Unless refreshing, the caches are checked again because a concurrent load may just have finished.
+	 */
+	private Callable<T> __loadTask(final String key, final CacheLoader<T> loader, final boolean bRefresh)
+	{
+		return new Callable<T>() {
+			@Override
+			public T call() throws Exception
+			{
+				T value;
+				if (!bRefresh) {
+					value = cache.peek(key);
+					if (value != null) return value;
+					if (negativeCache.peek(key) != null) return null;
+				}
+
+				value = loader.load(key);
+				put(key, value);
+				return value;
+			}
+		};
+	}
+
+	static Exception __unwrap(ExecutionException e)
+	{
+		Throwable cause = e.getCause();
+		if (cause instanceof Exception) return (Exception) cause;
+		if (cause instanceof Error) throw (Error) cause;
+		return e;
+	}
+
+}
@@ -0,0 +1,483 @@
+/*
+ * MIT license
+ */
+package de.unitrier.daalft.pali.cache;
+
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+
+/**
+ * This class implements a second-level cache on disk that survives restarts.
+ *
+ * Elements are appended to a log file; an index from keys to file positions is kept in memory and
+ * rebuilt by scanning the log when the file is opened. Every record carries a checksum, so a record
+ * torn by a crash ends the log and is cut off. The file header holds a version, typically a hash of
+ * the grammar the elements have been computed with; a file with a different version is emptied.
+ *
+ * Elements are never replaced: the results are assumed to be determined by key and version.
+ *
+ * The records of the elements stored take up at most a given number of bytes. If a new element
+ * exceeds this limit, the oldest elements are evicted; their records stay in the log as dead bytes.
+ * Once more than half of the log is dead, the live records are rewritten to a new file that replaces
+ * the log. Scanning the log evicts the same elements again, so a reopened cache holds the elements
+ * it held when it was closed.
+ *
+ * @author knauth
+ */
+public class PersistentCache<T>
+{
+
+	////////////////////////////////////////////////////////////////
+	// Nested Classes
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Location of a record in the log
+	 */
+	private static class Record
+	{
+
+		public final long position;
+		public final int keyLength;
+		public final int size;
+
+		/**
+		 * Constructor.
+		 */
+		public Record(long position, int keyLength, int size)
+		{
+			this.position = position;
+			this.keyLength = keyLength;
+			this.size = size;
+		}
+
+	}
+
+	////////////////////////////////////////////////////////////////
+	// Constants
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * File magic, "PLC2"
+	 */
+	private static final int MAGIC = 0x504C4332;
+
+	/**
+	 * Format version, increase on every change of the layout
+	 */
+	private static final int FORMAT = 1;
+
+	/**
+	 * Size of the header: magic, format, version
+	 */
+	private static final int HEADER_SIZE = 16;
+
+	/**
+	 * Default maximum number of bytes of the live records
+	 */
+	public static final long DEFAULT_MAX_BYTES = 64L << 20;
+
+	/**
+	 * Fraction of dead bytes in the log that triggers a compaction
+	 */
+	private static final double COMPACTION_THRESHOLD = 0.5;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	////////////////////////////////////////////////////////////////
+	// Variables
+	////////////////////////////////////////////////////////////////
+
+	private final String path;
+	private RandomAccessFile file;
+	private FileChannel channel;
+	private final CacheCodec<T> codec;
+	private final long version;
+	private final long maxBytes;
+
+	/**
+	 * Record of every key, in the order of the log
+	 */
+	private LinkedHashMap<String, Record> index;
+
+	/**
+	 * Guards the index and the file; the write lock is held while the file is replaced
+	 */
+	private final ReentrantReadWriteLock lock;
+
+	/**
+	 * Number of bytes of the records in the index
+	 */
+	private long liveBytes;
+
+	private long end;
+
+	////////////////////////////////////////////////////////////////
+	// Constructors
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Constructor. Opens or creates the cache file with a limit of {@link #DEFAULT_MAX_BYTES}.
+	 *
+	 * @param	path		The cache file
+	 * @param	version		The version of the elements; elements of other versions are discarded
+	 * @param	codec		The conversion of elements to bytes
+	 */
+	public PersistentCache(String path, long version, CacheCodec<T> codec) throws IOException
+	{
+		this(path, version, codec, DEFAULT_MAX_BYTES);
+	}
+
+	/**
+	 * Constructor. Opens or creates the cache file.
+	 *
+	 * @param	path		The cache file
+	 * @param	version		The version of the elements; elements of other versions are discarded
+	 * @param	codec		The conversion of elements to bytes
+	 * @param	maxBytes	The maximum number of bytes of the records of the elements stored
+	 */
+	public PersistentCache(String path, long version, CacheCodec<T> codec, long maxBytes) throws IOException
+	{
+		if (maxBytes <= 0) throw new IllegalArgumentException("maxBytes must be positive");
+		this.path = path;
+		this.file = new RandomAccessFile(path, "rw");
+		this.channel = file.getChannel();
+		this.codec = codec;
+		this.version = version;
+		this.maxBytes = maxBytes;
+		this.index = new LinkedHashMap<>();
+		this.lock = new ReentrantReadWriteLock();
+
+		if (!__readHeader()) {
+			channel.truncate(0);
+			__writeHeader(channel);
+			end = HEADER_SIZE;
+		} else {
+			__scan();
+			if (__needsCompaction()) __compact();
+		}
+	}
+
+	////////////////////////////////////////////////////////////////
+	// Methods
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Get the version of the elements.
+	 */
+	public long getVersion()
+	{
+		return version;
+	}
+
+	/**
+	 * Get the number of elements stored.
+	 */
+	public int size()
+	{
+		lock.readLock().lock();
+		try {
+			return index.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get the maximum number of bytes of the records of the elements stored.
+	 */
+	public long getMaxBytes()
+	{
+		return maxBytes;
+	}
+
+	/**
+	 * Get the number of bytes of the records of the elements stored.
+	 */
+	public long getLiveBytes()
+	{
+		lock.readLock().lock();
+		try {
+			return liveBytes;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get the number of bytes of the log, including dead records of evicted elements.
+	 */
+	public long getFileBytes()
+	{
+		lock.readLock().lock();
+		try {
+			return end;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if an element is stored for the key.
+	 *
+	 * @param		key			The key to look for
+	 */
+	public boolean contains(String key)
+	{
+		lock.readLock().lock();
+		try {
+			return index.containsKey(key);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get the keys most recently stored, oldest first. Use this to warm up a first-level cache.
+	 *
+	 * @param		max		The maximum number of keys
+	 */
+	public List<String> getRecentKeys(int max)
+	{
+		lock.readLock().lock();
+		try {
+			int skip = Math.max(0, index.size() - max);
+			List<String> result = new ArrayList<>(index.size() - skip);
+			for (String key : index.keySet()) {
+				if (skip > 0) {
+					skip--;
+				} else {
+					result.add(key);
+				}
+			}
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Lookup an element. <code>null</code> is returned if the element is not stored.
+	 *
+	 * @param		key			The key to look for
+	 */
+	public T get(String key) throws IOException
+	{
+		byte[] value;
+		lock.readLock().lock();
+		try {
+			Record record = index.get(key);
+			if (record == null) return null;
+
+			value = new byte[record.size - (4 + record.keyLength + 4 + 8)];
+			__readFully(ByteBuffer.wrap(value), record.position + 4 + record.keyLength + 4);
+		} finally {
+			lock.readLock().unlock();
+		}
+		return codec.read(new DataInputStream(new ByteArrayInputStream(value)));
+	}
+
+	/**
+	 * Store an element. Nothing is done if an element is stored for the key already, or if its record
+	 * alone exceeds the limit. The oldest elements are evicted while the limit is exceeded.
+	 *
+	 * @param		key		The key
+	 * @param		value		The value
+	 */
+	public void put(String key, T value) throws IOException
+	{
+		if (contains(key)) return;
+
+		byte[] k = key.getBytes(UTF8);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		codec.write(new DataOutputStream(bytes), value);
+		byte[] v = bytes.toByteArray();
+
+		CRC32 crc = new CRC32();
+		crc.update(k);
+		crc.update(v);
+
+		int size = 4 + k.length + 4 + v.length + 8;
+		if (size > maxBytes) return;
+		ByteBuffer record = ByteBuffer.allocate(size);
+		record.putInt(k.length).put(k).putInt(v.length).put(v).putLong(crc.getValue()).flip();
+
+		lock.writeLock().lock();
+		try {
+			if (index.containsKey(key)) return;
+			__writeFully(record, end);
+			__add(key, new Record(end, k.length, size));
+			end += size;
+			if (__needsCompaction()) __compact();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Write all stored elements to the disk and close the file.
+	 */
+	public void close() throws IOException
+	{
+		lock.writeLock().lock();
+		try {
+			channel.force(false);
+			file.close();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if the file has a header of the expected format and version.
+	 */
+	private boolean __readHeader() throws IOException
+	{
+		if (channel.size() < HEADER_SIZE) return false;
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		__readFully(header, 0);
+		return (header.getInt(0) == MAGIC) && (header.getInt(4) == FORMAT) && (header.getLong(8) == version);
+	}
+
+	private void __writeHeader(FileChannel target) throws IOException
+	{
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC).putInt(FORMAT).putLong(version).flip();
+		while (header.hasRemaining()) {
+			target.write(header, header.position());
+		}
+	}
+
+	/**
+	 * Adds a record to the index as the newest one, replacing an older record of the key, and evicts the
+	 * oldest records while the limit is exceeded.
+	 */
+	private void __add(String key, Record record)
+	{
+		Record old = index.remove(key);
+		if (old != null) liveBytes -= old.size;
+		index.put(key, record);
+		liveBytes += record.size;
+
+		Iterator<Record> oldest = index.values().iterator();
+		while (liveBytes > maxBytes) {
+			liveBytes -= oldest.next().size;
+			oldest.remove();
+		}
+	}
+
+	private boolean __needsCompaction()
+	{
+		long logBytes = end - HEADER_SIZE;
+		return (logBytes > 0) && (logBytes - liveBytes > COMPACTION_THRESHOLD * logBytes);
+	}
+
+	/**
+	 * Rewrites the live records to a new file that replaces the log. If this fails before the new
+	 * file is in place, the log is left as it is.
+	 */
+	private void __compact() throws IOException
+	{
+		File target = new File(path);
+		File tmp = new File(path + ".tmp");
+		LinkedHashMap<String, Record> compacted = new LinkedHashMap<>();
+		long position = HEADER_SIZE;
+
+		try (RandomAccessFile out = new RandomAccessFile(tmp, "rw")) {
+			FileChannel outChannel = out.getChannel();
+			outChannel.truncate(0);
+			__writeHeader(outChannel);
+			for (Map.Entry<String, Record> e : index.entrySet()) {
+				Record record = e.getValue();
+				ByteBuffer bytes = ByteBuffer.allocate(record.size);
+				__readFully(bytes, record.position);
+				bytes.flip();
+				while (bytes.hasRemaining()) {
+					outChannel.write(bytes, position + bytes.position());
+				}
+				compacted.put(e.getKey(), new Record(position, record.keyLength, record.size));
+				position += record.size;
+			}
+			outChannel.force(true);
+		}
+
+		file.close();
+		Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		file = new RandomAccessFile(target, "rw");
+		channel = file.getChannel();
+		index = compacted;
+		end = position;
+	}
+
+	/**
+	 * Rebuilds the index from the log. The log is cut off after the last intact record.
+	 */
+	private void __scan() throws IOException
+	{
+		long size = channel.size();
+		DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(HEADER_SIZE)), 1 << 16));
+		long position = HEADER_SIZE;
+		CRC32 crc = new CRC32();
+		while (position + 8 <= size) {
+			int keyLength = in.readInt();
+			if ((keyLength < 0) || (position + 4 + keyLength + 4 > size)) break;
+			byte[] k = new byte[keyLength];
+			in.readFully(k);
+			int valueLength = in.readInt();
+			if ((valueLength < 0) || (position + 4 + keyLength + 4 + valueLength + 8 > size)) break;
+			byte[] v = new byte[valueLength];
+			in.readFully(v);
+			crc.reset();
+			crc.update(k);
+			crc.update(v);
+			if (in.readLong() != crc.getValue()) break;
+
+			int recordSize = 4 + keyLength + 4 + valueLength + 8;
+			if (recordSize <= maxBytes) {
+				__add(new String(k, UTF8), new Record(position, keyLength, recordSize));
+			}
+			position += recordSize;
+		}
+		end = position;
+		if (end < size) {
+			channel.truncate(end);
+		}
+	}
+
+	private void __readFully(ByteBuffer buffer, long position) throws IOException
+	{
+		while (buffer.hasRemaining()) {
+			int n = channel.read(buffer, position + buffer.position());
+			if (n < 0) throw new IOException("Unexpected end of cache file");
+		}
+	}
+
+	private void __writeFully(ByteBuffer buffer, long position) throws IOException
+	{
+		while (buffer.hasRemaining()) {
+			channel.write(buffer, position + buffer.position());
+		}
+	}
+
+}
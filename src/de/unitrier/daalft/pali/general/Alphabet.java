@@ -11,11 +11,22 @@ import java.util.Set;
 
 /**
  * Class to manage the alphabet and provide functionality related to the alphabet
+ * <p>
+ * Every letter and every aspirated consonant has a bitmask of its
+ * classes, see {@link #classOf(String)}, looked up in tables built
+ * when the class is loaded. The lists returned by the getters are
+ * built once as well and cannot be modified
  * @author David
  *
  */
 public class Alphabet {
 
+	/**
+	 * Letter classes
+	 */
+	public final static int VOWEL = 0x1, LONG_VOWEL = 0x2, SEMIVOWEL = 0x4, NASAL = 0x8, SIBILANT = 0x10,
+			MUTE = 0x20, ASPIRATED = 0x40, GUTTURAL = 0x80, PALATAL = 0x100, DENTAL = 0x200, CONSONANT = 0x400;
+
 	/**
 	 * Character sets
 	 */
@@ -29,18 +40,111 @@ public class Alphabet {
 	dentals = Arrays.asList("t", "th", "d", "dh", "n", "l", "s"),
 	palatals = Arrays.asList("c", "ch", "j", "jh", "ñ", "y"),
 	gutturals = Arrays.asList("k", "kh", "g", "gh", "ṅ");
-	
+
+	/**
+	 * Lists returned by the getters
+	 */
+	private final static List<String>
+	vowelList, shortVowelList, longVowelList, semiVowelList, consonantList,
+	nasalList, sibilantList, muteList, dentalList, palatalList, aspiratedList;
+
+	/**
+	 * Classes of the letters up to {@link #CHARS}, and of
+	 * the aspirated consonants by their first letter
+	 */
+	private final static int CHARS = 0x2000;
+	private final static short[] letters = new short[CHARS], aspirates = new short[CHARS];
+
+	static {
+		mark(shortVowels, VOWEL);
+		mark(longVowels, VOWEL | LONG_VOWEL);
+		mark(semiVowels, SEMIVOWEL | CONSONANT);
+		mark(nasals, NASAL | CONSONANT);
+		mark(sibilants, SIBILANT | CONSONANT);
+		mark(mutes, MUTE | CONSONANT);
+		mark(dentals, DENTAL | CONSONANT);
+		mark(palatals, PALATAL | CONSONANT);
+		mark(gutturals, GUTTURAL);
+
+		List<String> vowels = new ArrayList<String>();
+		vowels.addAll(shortVowels);
+		vowels.addAll(longVowels);
+		vowelList = Collections.unmodifiableList(vowels);
+		shortVowelList = Collections.unmodifiableList(shortVowels);
+		longVowelList = Collections.unmodifiableList(longVowels);
+		semiVowelList = Collections.unmodifiableList(semiVowels);
+		nasalList = Collections.unmodifiableList(nasals);
+		sibilantList = Collections.unmodifiableList(sibilants);
+		muteList = Collections.unmodifiableList(sort(new ArrayList<String>(mutes)));
+		dentalList = Collections.unmodifiableList(sort(new ArrayList<String>(dentals)));
+		palatalList = Collections.unmodifiableList(sort(new ArrayList<String>(palatals)));
+
+		Set<String> temp = new HashSet<String>();
+		temp.addAll(semiVowels);
+		temp.addAll(nasals);
+		temp.addAll(sibilants);
+		temp.addAll(mutes);
+		temp.addAll(dentals);
+		temp.addAll(palatals);
+		consonantList = Collections.unmodifiableList(sort(new ArrayList<String>(temp)));
+
+		List<String> aspirated = new ArrayList<String>();
+		for (String s : consonantList) {
+			if (s.matches(".h")) {
+				aspirated.add(s);
+				aspirates[s.charAt(0)] |= ASPIRATED;
+			}
+		}
+		aspiratedList = Collections.unmodifiableList(aspirated);
+	}
+
+	/**
+	 * Adds a class to the letters or aspirated consonants of a list
+	 * @param list letters
+	 * @param c class
+	 */
+	private static void mark (List<String> list, int c) {
+		for (String s : list) {
+			if (s.length() == 1) {
+				letters[s.charAt(0)] |= c;
+			} else {
+				aspirates[s.charAt(0)] |= c;
+			}
+		}
+	}
+
 	private Alphabet () {}
 
+	/**
+	 * Returns the classes of a letter
+	 * @param c letter
+	 * @return bitmask of classes, 0 if not a letter of the alphabet
+	 */
+	public static int classOf (char c) {
+		return c < CHARS ? letters[c] : 0;
+	}
+
+	/**
+	 * Returns the classes of a letter or an aspirated consonant
+	 * @param s letter or aspirated consonant
+	 * @return bitmask of classes, 0 if neither
+	 */
+	public static int classOf (String s) {
+		if (s == null)
+			return 0;
+		if (s.length() == 1)
+			return classOf(s.charAt(0));
+		if (s.length() == 2 && s.charAt(1) == 'h' && s.charAt(0) < CHARS)
+			return aspirates[s.charAt(0)];
+		return 0;
+	}
+
 	/**
 	 * Returns all vowels
 	 * @return all vowels
 	 */
 	public static List<String> getVowels () {
-		List<String> temp = new ArrayList<String>();
-		temp.addAll(shortVowels);
-		temp.addAll(longVowels);
-		return temp;
+		return vowelList;
 	}
 
 	/**
@@ -48,7 +152,7 @@ public class Alphabet {
 	 * @return short vowels
 	 */
 	public static List<String> getShortVowels () {
-		return shortVowels;
+		return shortVowelList;
 	}
 
 	/**
@@ -56,7 +160,7 @@ public class Alphabet {
 	 * @return long vowels
 	 */
 	public static List<String> getLongVowels () {
-		return longVowels;
+		return longVowelList;
 	}
 
 	/**
@@ -64,7 +168,7 @@ public class Alphabet {
 	 * @return semi vowels
 	 */
 	public static List<String> getSemiVowels () {
-		return semiVowels;
+		return semiVowelList;
 	}
 
 	/**
@@ -72,14 +176,7 @@ public class Alphabet {
 	 * @return all consonants
 	 */
 	public static List<String> getConsonants () {
-		Set<String> temp = new HashSet<String>();
-		temp.addAll(semiVowels);
-		temp.addAll(nasals);
-		temp.addAll(sibilants);
-		temp.addAll(mutes);
-		temp.addAll(dentals);
-		temp.addAll(palatals);
-		return sort(new ArrayList<String>(temp));
+		return consonantList;
 	}
 
 	/**
@@ -87,7 +184,7 @@ public class Alphabet {
 	 * @return all nasals
 	 */
 	public static List<String> getNasals () {
-		return nasals;
+		return nasalList;
 	}
 
 	/**
@@ -95,7 +192,7 @@ public class Alphabet {
 	 * @return all sibilants
 	 */
 	public static List<String> getSibilants () {
-		return sibilants;
+		return sibilantList;
 	}
 
 	/**
@@ -103,7 +200,7 @@ public class Alphabet {
 	 * @return all mutes
 	 */
 	public static List<String> getMutes () {
-		return sort(mutes);
+		return muteList;
 	}
 
 	/**
@@ -111,7 +208,7 @@ public class Alphabet {
 	 * @return all dentals
 	 */
 	public static List<String> getDentals () {
-		return sort(dentals);
+		return dentalList;
 	}
 
 	/**
@@ -119,7 +216,7 @@ public class Alphabet {
 	 * @return all palatals
 	 */
 	public static List<String> getPalatals () {
-		return sort(palatals);
+		return palatalList;
 	}
 
 	/**
@@ -128,7 +225,7 @@ public class Alphabet {
 	 * @return true if the alphabet contains c
 	 */
 	public static boolean contains (String c) {
-		return getConsonants().contains(c) || getVowels().contains(c) || c.equals("'") || c.equals("-");
+		return (classOf(c) & (VOWEL | CONSONANT)) != 0 || c.equals("'") || c.equals("-");
 	}
 
 	/**
@@ -136,13 +233,7 @@ public class Alphabet {
 	 * @return aspirated consonants
 	 */
 	public static List<String> getAspirated () {
-		List<String> temp = new ArrayList<String>();
-		for (String s : getConsonants()) {
-			if (s.matches(".h")) {
-				temp.add(s);
-			}
-		}
-		return temp;
+		return aspiratedList;
 	}
 
 	/**
@@ -151,8 +242,8 @@ public class Alphabet {
 	 * @return true if the alphabet contains c
 	 */
 	public static boolean contains (Character c) {
-		String s = Character.toLowerCase(c)+"";
-		return contains(s);
+		char l = Character.toLowerCase(c);
+		return (classOf(l) & (VOWEL | CONSONANT)) != 0 || l == '\'' || l == '-';
 	}
 
 	/**
@@ -180,7 +271,7 @@ public class Alphabet {
 	 * @return true if character is a vowel
 	 */
 	public static boolean isVowel (String s) {
-		return getVowels().contains(s);
+		return (classOf(s) & VOWEL) != 0;
 	}
 
 	/**
@@ -189,7 +280,7 @@ public class Alphabet {
 	 * @return true if character is a consonant
 	 */
 	public static boolean isConsonant (String s) {
-		return getConsonants().contains(s);
+		return (classOf(s) & CONSONANT) != 0;
 	}
 
 	/**
@@ -304,7 +395,7 @@ public class Alphabet {
 	 * @return true if consonant is guttural
 	 */
 	public static boolean isGuttural (String s) {
-		return gutturals.contains(s);
+		return (classOf(s) & GUTTURAL) != 0;
 	}
 	
 	/**
@@ -0,0 +1,79 @@
+package de.unitrier.daalft.pali.lexicon;
+
+import de.cl.dictclient.DictWord;
+import de.cl.dictclient.DictionaryClient;
+import de.cl.dictclient.impl.ConnectionProfile;
+import de.cl.dictclient.impl.JsonHttpRequesterBatchResponse;
+import de.cl.dictclient.impl.JsonHttpRequesterResponse;
+import de.cl.dictclient.impl.KVPJObject;
+import de.general.json.JArray;
+import de.general.json.JObject;
+import de.general.json.JProperty;
+
+/**
+ * Dictionary client sending many tag queries in one request
+ * <p>
+ * The queries are wrapped into a single <em>core_batch</em>
+ * request, which the dictionary server answers with one response
+ * per query
+ * @author David
+ *
+ */
+public class BatchDictionaryClient extends DictionaryClient {
+
+	/**
+	 * Maximum number of queries per request
+	 */
+	public final static int MAX_BATCH_SIZE = 100;
+
+	/**
+	 * Constructor
+	 * @param cp connection profile
+	 * @throws Exception
+	 */
+	public BatchDictionaryClient (ConnectionProfile cp) throws Exception {
+		super(cp);
+	}
+
+	/**
+	 * Returns the words of the given collections whose tag has the given value,
+	 * for all queries at once
+	 * <p>
+	 * Query <em>i</em> consists of <code>collections[i]</code>, <code>tags[i]</code>
+	 * and <code>values[i]</code>. More than {@link #MAX_BATCH_SIZE} queries are
+	 * split into several requests
+	 * @param collections collection names
+	 * @param tags tags
+	 * @param values tag values
+	 * @return words per query, <b>null</b> for queries the server could not answer
+	 * @throws Exception if the request fails
+	 */
+	public DictWord[][] getWordsByTags (String[] collections, String[] tags, String[] values) throws Exception {
+		DictWord[][] out = new DictWord[values.length][];
+		for (int from = 0; from < values.length; from += MAX_BATCH_SIZE) {
+			int to = Math.min(values.length, from + MAX_BATCH_SIZE);
+			KVPJObject[] queries = new KVPJObject[to - from];
+			for (int i = from; i < to; i++) {
+				JObject filter = new JObject(new JProperty(tags[i], values[i]));
+				queries[i-from] = new KVPJObject("dict_getwordsbytags", 
+						new JObject(new JProperty("colname", collections[i]), new JProperty("filter", filter)));
+			}
+			JsonHttpRequesterBatchResponse r = getRequester().postBatch("core_batch", true, queries);
+			if (!r.bSuccess) {
+				throw new Exception(r.getErrorMessage() != null ? r.getErrorMessage() : "Error!");
+			}
+			for (int i = from; i < to; i++) {
+				JsonHttpRequesterResponse e = r.responses[i-from].getValue();
+				if (!e.bSuccess)
+					continue;
+				JArray a = e.array;
+				DictWord[] dws = new DictWord[a.size()];
+				for (int j = 0; j < dws.length; j++) {
+					dws[j] = new DictWordN((JObject) a.get(j));
+				}
+				out[i] = dws;
+			}
+		}
+		return out;
+	}
+}
@@ -0,0 +1,415 @@
+package de.unitrier.daalft.pali.lexicon;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import de.cl.dictclient.DictWord;
+import de.general.json.JArray;
+import de.general.json.JObject;
+import de.general.json.JProperty;
+import de.general.json.JToken;
+import de.general.json.JValue;
+import de.general.json.JsonSerializer;
+
+/**
+ * Stand-in for the dictionary server on localhost
+ * <p>
+ * Speaks the subset of the JSON protocol used by the dictionary
+ * client (<em>core_info, core_login, core_batch, dict_listcollections,
+ * dict_getwordsbytags, dict_getwordbyid, dict_getwordids,
+ * dict_countwords</em>) over a fixture lexicon held in memory, so that
+ * {@link LexiconAdapter}, the cached lookups and everything built on
+ * them can be run and measured without the real server. Every request
+ * can be delayed by a fixed latency plus a random jitter, and failed
+ * with a given probability; in a batch, every command fails on its own.
+ * <br/><br/>
+ * Any user and password are accepted
+ * @author David
+ *
+ */
+public class FakeDictionaryServer {
+
+	private final static String BASE_PATH = "/api/json/";
+	private final static Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * Entries per collection, as sent, i.e. including their id
+	 */
+	private final Map<String, List<JObject>> collections = new ConcurrentHashMap<String, List<JObject>>();
+	/**
+	 * Entries per collection, tag and tag value, built on first use of a tag
+	 */
+	private final Map<String, Map<String, List<JObject>>> indexes = new ConcurrentHashMap<String, Map<String, List<JObject>>>();
+	private final Map<String, JObject> byId = new ConcurrentHashMap<String, JObject>();
+
+	private HttpServer server;
+	private ExecutorService executor;
+	private final Random random = new Random();
+
+	private volatile int latency, jitter;
+	private volatile double errorRate;
+
+	private final AtomicLong requests = new AtomicLong(), commands = new AtomicLong(), errors = new AtomicLong();
+	private int nextId;
+
+	////////////////////////////////////////////////////////////////
+	// Fixture
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Adds an entry to a collection
+	 * <p>
+	 * Entries without id are given one
+	 * @param collection collection name
+	 * @param word entry
+	 * @return id of the entry
+	 * @throws Exception
+	 */
+	public synchronized String addWord (String collection, JObject word) throws Exception {
+		// DictWord keeps its id apart from the JSON
+		String id = word instanceof DictWord ? ((DictWord) word).getID() : null;
+		JObject o = new JsonSerializer().deserialize(word.toJSON());
+		if (id == null && o.getValue("_id") instanceof JValue)
+			id = String.valueOf(((JValue) o.getValue("_id")).getValue());
+		if (id == null)
+			id = "fake" + (nextId++);
+		o.remove("_id");
+		o.add("_id", new JValue(id));
+		List<JObject> l = collections.get(collection);
+		if (l == null) {
+			l = new ArrayList<JObject>();
+			collections.put(collection, l);
+		}
+		l.add(o);
+		byId.put(collection + "\t" + id, o);
+		indexes.clear();
+		return id;
+	}
+
+	/**
+	 * Adds all entries of a local copy of the lexical database
+	 * @param mirror local copy
+	 * @param names collection names
+	 * @throws Exception
+	 */
+	public void addAll (LexiconMirror mirror, String... names) throws Exception {
+		for (String name : names) {
+			DictWord[] page;
+			for (int ofs = 0; (page = mirror.getPage(name, ofs, LexiconIterator.DEFAULT_PAGE_SIZE)) != null; ofs += LexiconIterator.DEFAULT_PAGE_SIZE) {
+				for (DictWord dw : page)
+					addWord(name, dw);
+			}
+		}
+	}
+
+	////////////////////////////////////////////////////////////////
+	// Fault injection
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Sets the delay of every request
+	 * @param latency fixed delay in milliseconds
+	 * @param jitter maximum random delay in milliseconds added
+	 */
+	public void setLatency (int latency, int jitter) {
+		this.latency = Math.max(0, latency);
+		this.jitter = Math.max(0, jitter);
+	}
+
+	/**
+	 * Sets the probability of a request or batch command to fail
+	 * @param errorRate probability between 0 and 1
+	 */
+	public void setErrorRate (double errorRate) {
+		this.errorRate = errorRate;
+	}
+
+	/**
+	 * Returns the number of HTTP requests answered
+	 * @return requests
+	 */
+	public long getRequestCount () {
+		return requests.get();
+	}
+
+	/**
+	 * Returns the number of commands answered, counting
+	 * every command of a batch
+	 * @return commands
+	 */
+	public long getCommandCount () {
+		return commands.get();
+	}
+
+	/**
+	 * Returns the number of injected errors
+	 * @return errors
+	 */
+	public long getErrorCount () {
+		return errors.get();
+	}
+
+	/**
+	 * Resets the counters
+	 */
+	public void resetCounts () {
+		requests.set(0);
+		commands.set(0);
+		errors.set(0);
+	}
+
+	////////////////////////////////////////////////////////////////
+	// Server
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Starts the server on the loopback interface
+	 * @param port port, 0 for any free port
+	 * @param threads number of requests answered in parallel
+	 * @throws IOException
+	 */
+	public void start (int port, int threads) throws IOException {
+		// without, small responses wait for delayed acknowledgements
+		if (System.getProperty("sun.net.httpserver.nodelay") == null)
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		executor = Executors.newFixedThreadPool(threads);
+		server.setExecutor(executor);
+		server.createContext(BASE_PATH, new HttpHandler() {
+			@Override
+			public void handle (HttpExchange ex) throws IOException {
+				FakeDictionaryServer.this.handle(ex);
+			}
+		});
+		server.start();
+	}
+
+	/**
+	 * Returns the port the server listens on
+	 * @return port
+	 */
+	public int getPort () {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Returns the host name to connect to
+	 * @return host
+	 */
+	public String getHost () {
+		return server.getAddress().getAddress().getHostAddress();
+	}
+
+	/**
+	 * Stops the server
+	 */
+	public void stop () {
+		if (server != null) {
+			server.stop(0);
+			executor.shutdownNow();
+			server = null;
+		}
+	}
+
+	private void handle (HttpExchange ex) throws IOException {
+		JObject response;
+		try {
+			requests.incrementAndGet();
+			delay();
+			String function = ex.getRequestURI().getPath().substring(BASE_PATH.length());
+			Map<String, String> params = parseQuery(ex.getRequestURI().getRawQuery());
+			if (function.equals("core_batch")) {
+				JObject body = new JsonSerializer().deserialize(read(ex.getRequestBody()));
+				response = batch((JArray) body.getValue("commands"));
+			} else if (fails()) {
+				response = error("fakeError", "Injected error");
+			} else {
+				response = call(function, params);
+			}
+		} catch (Exception e) {
+			response = error("invalidRequest", String.valueOf(e.getMessage()));
+		}
+		byte[] b = response.toJSON().getBytes(UTF8);
+		ex.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+		ex.sendResponseHeaders(200, b.length);
+		OutputStream out = ex.getResponseBody();
+		out.write(b);
+		out.close();
+	}
+
+	/**
+	 * Answers every command of a batch on its own
+	 */
+	private JObject batch (JArray commandList) throws Exception {
+		JArray results = new JArray();
+		for (int i = 0; i < commandList.size(); i++) {
+			JProperty command = ((JObject) commandList.get(i)).getProperties()[0];
+			Map<String, String> params = new HashMap<String, String>();
+			for (JProperty p : ((JObject) command.getValue()).getProperties()) {
+				JToken v = p.getValue();
+				params.put(p.getName(), v instanceof JValue ? String.valueOf(((JValue) v).getValue()) : v.toJSON());
+			}
+			JObject result;
+			try {
+				result = fails() ? error("fakeError", "Injected error") : call(command.getName(), params);
+			} catch (Exception e) {
+				result = error("invalidRequest", String.valueOf(e.getMessage()));
+			}
+			results.add(new JObject(new JProperty(command.getName(), result)));
+		}
+		return success(results);
+	}
+
+	/**
+	 * Answers a single command
+	 */
+	private JObject call (String function, Map<String, String> params) throws Exception {
+		commands.incrementAndGet();
+		String colname = params.get("colname");
+		List<JObject> words = colname == null ? null : collections.get(colname);
+		if (function.equals("core_info")) {
+			return success(new JObject(new JProperty("name", new JValue("FakeDictionaryServer"))));
+		} else if (function.equals("core_login")) {
+			return success(new JObject(new JProperty("sid", new JValue("fake-session"))));
+		} else if (function.equals("dict_listcollections")) {
+			JArray a = new JArray();
+			for (String name : collections.keySet())
+				a.add(new JValue(name));
+			return success(a);
+		}
+		if (words == null)
+			return error("unknownCollection", "Collection does not exist: " + colname);
+		if (function.equals("dict_countwords")) {
+			return success(new JValue(words.size()));
+		} else if (function.equals("dict_getwordbyid")) {
+			JObject o = byId.get(colname + "\t" + params.get("id"));
+			return o == null ? error("unknownWord", "No such word: " + params.get("id")) : success(o);
+		} else if (function.equals("dict_getwordids")) {
+			int ofs = Integer.parseInt(params.get("ofs")), count = Integer.parseInt(params.get("count"));
+			JArray a = new JArray();
+			synchronized (this) {
+				for (int i = ofs; i < Math.min(words.size(), ofs + count); i++)
+					a.add(words.get(i).getValue("_id"));
+			}
+			return success(a);
+		} else if (function.equals("dict_getwordsbytags")) {
+			JObject filter = new JsonSerializer().deserialize(params.get("filter"));
+			List<JObject> found = new ArrayList<JObject>();
+			for (JProperty p : filter.getProperties()) {
+				String value = String.valueOf(((JValue) p.getValue()).getValue());
+				List<JObject> l = lookup(colname, p.getName(), value);
+				if (p == filter.getProperties()[0]) {
+					found.addAll(l);
+				} else {
+					found.retainAll(l);
+				}
+			}
+			JArray a = new JArray();
+			for (JObject o : found)
+				a.add(o);
+			return success(a);
+		}
+		return error("unknownFunction", "Unknown function: " + function);
+	}
+
+	/**
+	 * Returns the entries of a collection whose tag has the given value
+	 */
+	private List<JObject> lookup (String colname, String tag, String value) {
+		String key = colname + "\t" + tag;
+		Map<String, List<JObject>> index = indexes.get(key);
+		if (index == null) {
+			synchronized (this) {
+				index = new HashMap<String, List<JObject>>();
+				String[] path = tag.split("\\.");
+				for (JObject o : collections.get(colname)) {
+					String v = o.getPropertyStringValueNormalized(path);
+					if (v == null)
+						continue;
+					List<JObject> l = index.get(v);
+					if (l == null) {
+						l = new ArrayList<JObject>();
+						index.put(v, l);
+					}
+					l.add(o);
+				}
+				indexes.put(key, index);
+			}
+		}
+		List<JObject> l = index.get(value);
+		return l == null ? new ArrayList<JObject>() : l;
+	}
+
+	private boolean fails () {
+		if (errorRate <= 0)
+			return false;
+		boolean fail;
+		synchronized (random) {
+			fail = random.nextDouble() < errorRate;
+		}
+		if (fail)
+			errors.incrementAndGet();
+		return fail;
+	}
+
+	private void delay () throws InterruptedException {
+		int d = latency;
+		if (jitter > 0) {
+			synchronized (random) {
+				d += random.nextInt(jitter + 1);
+			}
+		}
+		if (d > 0)
+			Thread.sleep(d);
+	}
+
+	private static JObject success (JToken value) {
+		return new JObject(new JProperty("duration", new JValue(0)), new JProperty("success", value));
+	}
+
+	private static JObject error (String id, String message) {
+		JObject e = new JObject(new JProperty("errID", new JValue(id)), new JProperty("errMsg", new JValue(message)));
+		return new JObject(new JProperty("duration", new JValue(0)), new JProperty("error", e));
+	}
+
+	private static Map<String, String> parseQuery (String query) throws IOException {
+		Map<String, String> params = new LinkedHashMap<String, String>();
+		if (query == null)
+			return params;
+		for (String kv : query.split("&")) {
+			int i = kv.indexOf('=');
+			if (i < 0)
+				continue;
+			params.put(URLDecoder.decode(kv.substring(0, i), "UTF-8"), URLDecoder.decode(kv.substring(i+1), "UTF-8"));
+		}
+		return params;
+	}
+
+	private static String read (InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] b = new byte[8192];
+		for (int n; (n = in.read(b)) > 0;)
+			out.write(b, 0, n);
+		return new String(out.toByteArray(), UTF8);
+	}
+}
@@ -1,21 +1,27 @@
 package de.unitrier.daalft.pali.lexicon;
 
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 import de.cl.dictclient.DictWord;
-import de.cl.dictclient.DictionaryClient;
 import de.cl.dictclient.DictionaryCollection;
 import de.cl.dictclient.impl.ConnectionProfile;
 import de.general.json.JObject;
 
 /**
  * Provides functionality related to the lexical database<br/>
- * Requires an active internet connection
+ * Requires an active internet connection, unless constructed
+ * with a {@link LexiconMirror}
  * @author David
  *
  */
@@ -26,13 +32,23 @@ public class LexiconAdapter {
 	/**
 	 * Dictionary names
 	 */
-	private final static String WORDFORMS = "paliwordforms",
+	final static String WORDFORMS = "paliwordforms",
 			LEMMA = "pali_main_new", GENERATED = "paligenerated";
 
+	/**
+	 * Tags looked up per collection
+	 */
+	final static String WORDFORM_TAG = "word", LEMMA_TAG = "form.lemma", GENERATED_TAG = "word";
+
 	/**
 	 * Client
 	 */
-	private DictionaryClient dc;
+	private BatchDictionaryClient dc;
+
+	/**
+	 * Local copy of the collections, null if online
+	 */
+	private LexiconMirror mirror;
 
 	public LexiconAdapter () throws Exception {
 		this("germa232.uni-trier.de", 8080, "testrw", "testrw");
@@ -43,16 +59,51 @@ public class LexiconAdapter {
 	 * @throws Exception
 	 */
 	public LexiconAdapter(String domain, int port, String user, String pw) throws Exception {
-		dc = new DictionaryClient(new ConnectionProfile(domain,port,user,pw));
+		dc = new BatchDictionaryClient(new ConnectionProfile(domain,port,user,pw));
 		lc = dc.getCollection(LEMMA);
 	}
 
+	/**
+	 * Constructor for lookups in a local copy, without connection
+	 * @param mirror local copy
+	 */
+	public LexiconAdapter(LexiconMirror mirror) {
+		this.mirror = mirror;
+	}
+
+	/**
+	 * Returns an adapter for the local copy at
+	 * {@link LexiconMirror#DEFAULT_PATH} if it exists,
+	 * otherwise for the default server
+	 * @return adapter
+	 * @throws Exception
+	 */
+	public static LexiconAdapter getDefault () throws Exception {
+		if (new File(LexiconMirror.DEFAULT_PATH).isFile()) {
+			try {
+				return new LexiconAdapter(LexiconMirror.map(LexiconMirror.DEFAULT_PATH));
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		return new LexiconAdapter();
+	}
+
+	/**
+	 * Checks whether lookups are answered by a local copy
+	 * @return true if offline
+	 */
+	public boolean isOffline () {
+		return mirror != null;
+	}
+
 	/**
 	 * Performs a ping
 	 * @throws Exception
 	 */
 	public void ping () throws Exception {
-		dc.ping();
+		if (mirror == null)
+			dc.ping();
 	}
 
 	/**
@@ -60,6 +111,12 @@ public class LexiconAdapter {
 	 * @throws Exception
 	 */
 	public void listCollections () throws Exception {
+		if (mirror != null) {
+			for (String s : new String[] {LEMMA, WORDFORMS, GENERATED})
+				if (mirror.hasCollection(s))
+					System.out.println(s);
+			return;
+		}
 		for (String s : dc.listCollections()) 
 			System.out.println(s);
 	}
@@ -71,8 +128,10 @@ public class LexiconAdapter {
 	 * @throws Exception
 	 */
 	public boolean wordformContains (String form) throws Exception {
+		if (mirror != null)
+			return mirror.contains(WORDFORMS, form);
 		DictionaryCollection c = dc.getCollection(WORDFORMS);
-		return c.getWordsByTags("word", form).length > 0;
+		return c.getWordsByTags(WORDFORM_TAG, form).length > 0;
 	}
 
 	/**
@@ -82,7 +141,9 @@ public class LexiconAdapter {
 	 * @throws Exception
 	 */
 	public boolean lemmaContains (String lemma) throws Exception {
-		return lc.getWordsByTags("form.lemma", lemma).length > 0;
+		if (mirror != null)
+			return mirror.contains(LEMMA, lemma);
+		return lc.getWordsByTags(LEMMA_TAG, lemma).length > 0;
 	}
 
 	/**
@@ -92,6 +153,8 @@ public class LexiconAdapter {
 	 * @throws Exception
 	 */
 	public boolean generatedContains (String word) {
+		if (mirror != null)
+			return mirror.contains(GENERATED, word);
 		DictionaryCollection c;
 		try {
 			c = dc.getCollection(GENERATED);
@@ -100,7 +163,7 @@ public class LexiconAdapter {
 		}
 		
 		try {
-			return c.getWordsByTags("word", word).length > 0;
+			return c.getWordsByTags(GENERATED_TAG, word).length > 0;
 		} catch (Exception e) {
 			// TODO Auto-generated catch block
 			e.printStackTrace();
@@ -116,9 +179,13 @@ public class LexiconAdapter {
 	 * @throws Exception
 	 */
 	public String getGenerated (String word) throws Exception {
-		if (generatedContains(word)) {
-			DictionaryCollection c = dc.getCollection(GENERATED);
-			DictWord[] dws = c.getWordsByTags("word", word);
+		DictWord[] dws;
+		try {
+			dws = find(GENERATED, GENERATED_TAG, word);
+		} catch (Exception e) {
+			dws = null;
+		}
+		if (dws != null && dws.length > 0) {
 			if (dws.length > 1) {
 				StringBuilder out = new StringBuilder("[");
 				for (DictWord dw : dws) {
@@ -144,9 +211,8 @@ public class LexiconAdapter {
 	 * @throws Exception
 	 */
 	public List<DictWord> getWordform (String form) throws Exception {
-		if (wordformContains(form)) {
-			DictionaryCollection c = dc.getCollection(WORDFORMS);
-			DictWord[] dws = c.getWordsByTags("word", form);
+		DictWord[] dws = find(WORDFORMS, WORDFORM_TAG, form);
+		if (dws.length > 0) {
 			if (dws.length > 1) {
 				return Arrays.asList(dws);
 			} else {
@@ -165,9 +231,8 @@ public class LexiconAdapter {
 	 * @throws Exception
 	 */
 	public String getLemma (String lemma) throws Exception {
-		DictionaryCollection c = dc.getCollection(LEMMA);
-		if (lemmaContains(lemma)) {
-			DictWord[] dws = c.getWordsByTags("form.lemma", lemma);
+		DictWord[] dws = find(LEMMA, LEMMA_TAG, lemma);
+		if (dws.length > 0) {
 			if (dws.length > 1) {
 				StringBuilder out = new StringBuilder("[");
 				for (DictWord dw : dws) {
@@ -185,43 +250,259 @@ public class LexiconAdapter {
 		return null;
 	}
 		
+	/**
+	 * Returns the entries of the lemma collection for the given lemma
+	 * @param lemma lemma
+	 * @return entries or <b>null</b> if the lemma cannot be found
+	 * @throws Exception
+	 */
 	public JObject[] getLemmaEntriesAsJObjectArray (String lemma) throws Exception {
-		
-		if (lemmaContains(lemma)) {
-			return lc.getWordsByTags("form.lemma", lemma);
+		DictWord[] dws = find(LEMMA, LEMMA_TAG, lemma);
+		if (dws.length > 0) {
+			return dws;
 		}
 		return null;
 	}
 	
 	/**
 	 * Checks whether the given word is contained in any collection
+	 * <p>
+	 * All collections are queried in one request
 	 * @param word word to check
 	 * @return true if any collection contains word
 	 * @throws Exception
 	 */
 	public boolean wordInDict (String word) throws Exception {
-		return wordformContains(word) || lemmaContains(word) || generatedContains(word);
+		return wordsInDict(Collections.singletonList(word)).get(word);
 	}
-	
+
+	////////////////////////////////////////////////////////////////
+	// Batch lookups
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Looks up many lemmata in the lemma collection
+	 * <p>
+	 * Up to {@link BatchDictionaryClient#MAX_BATCH_SIZE} lemmata
+	 * are looked up per request
+	 * @param lemmata lemmata
+	 * @return entries per lemma, empty if the lemma cannot be found
+	 * @throws Exception
+	 */
+	public Map<String, DictWord[]> lookupLemmas (Collection<String> lemmata) throws Exception {
+		return lookup(LEMMA, LEMMA_TAG, lemmata, false, null);
+	}
+
+	/**
+	 * Looks up many lemmata in the lemma collection, keeping
+	 * the results of the lookups that succeed
+	 * @param lemmata lemmata
+	 * @param failed receives the lemmata whose lookup failed
+	 * @return entries per lemma, empty if the lemma cannot be found,
+	 * without the failed lemmata
+	 * @throws Exception if a request fails as a whole
+	 */
+	public Map<String, DictWord[]> lookupLemmas (Collection<String> lemmata, Collection<String> failed) throws Exception {
+		return lookup(LEMMA, LEMMA_TAG, lemmata, false, failed);
+	}
+
+	/**
+	 * Looks up many word forms in the wordform collection
+	 * @param forms word forms
+	 * @return entries per word form, empty if the word form cannot be found
+	 * @throws Exception
+	 */
+	public Map<String, DictWord[]> lookupWordforms (Collection<String> forms) throws Exception {
+		return lookup(WORDFORMS, WORDFORM_TAG, forms, false, null);
+	}
+
+	/**
+	 * Looks up many words in the generated collection
+	 * @param words words
+	 * @return entries per word, empty if the word cannot be found
+	 * @throws Exception
+	 */
+	public Map<String, DictWord[]> lookupGenerated (Collection<String> words) throws Exception {
+		return lookup(GENERATED, GENERATED_TAG, words, true, null);
+	}
+
+	/**
+	 * Checks for many words whether they are contained in any collection
+	 * <p>
+	 * All collections are queried in the same requests
+	 * @param words words to check
+	 * @return true per word if any collection contains the word
+	 * @throws Exception
+	 */
+	public Map<String, Boolean> wordsInDict (Collection<String> words) throws Exception {
+		List<String> keys = new ArrayList<String>(new LinkedHashSet<String>(words));
+		if (mirror != null) {
+			Map<String, Boolean> out = new LinkedHashMap<String, Boolean>();
+			for (String k : keys)
+				out.put(k, mirror.contains(WORDFORMS, k) || mirror.contains(LEMMA, k) || mirror.contains(GENERATED, k));
+			return out;
+		}
+		int n = keys.size();
+		String[] collections = new String[3*n], tags = new String[3*n], values = new String[3*n];
+		for (int i = 0; i < n; i++) {
+			collections[3*i] = WORDFORMS; tags[3*i] = WORDFORM_TAG;
+			collections[3*i+1] = LEMMA; tags[3*i+1] = LEMMA_TAG;
+			collections[3*i+2] = GENERATED; tags[3*i+2] = GENERATED_TAG;
+			values[3*i] = values[3*i+1] = values[3*i+2] = keys.get(i);
+		}
+		DictWord[][] result = dc.getWordsByTags(collections, tags, values);
+		Map<String, Boolean> out = new LinkedHashMap<String, Boolean>();
+		for (int i = 0; i < n; i++) {
+			boolean found = false;
+			for (int j = 3*i; j < 3*i+3; j++) {
+				if (result[j] == null && j % 3 != 2)
+					throw new Exception("Lookup of " + values[j] + " in " + collections[j] + " failed");
+				found |= result[j] != null && result[j].length > 0;
+			}
+			out.put(keys.get(i), found);
+		}
+		return out;
+	}
+
+	/**
+	 * Looks up many values of a tag in one collection
+	 * @param collection collection name
+	 * @param tag tag
+	 * @param keys tag values
+	 * @param lenient if true, failed lookups yield no entries instead of an exception
+	 * @param failed if not null, receives the values whose lookup failed
+	 * instead of an exception; they are left out of the result
+	 * @return entries per value
+	 * @throws Exception
+	 */
+	private Map<String, DictWord[]> lookup (String collection, String tag, Collection<String> keys, boolean lenient, Collection<String> failed) throws Exception {
+		String[] values = new LinkedHashSet<String>(keys).toArray(new String[0]);
+		if (mirror != null) {
+			Map<String, DictWord[]> out = new LinkedHashMap<String, DictWord[]>();
+			for (String v : values)
+				out.put(v, mirror.get(collection, v));
+			return out;
+		}
+		String[] collections = new String[values.length], tags = new String[values.length];
+		Arrays.fill(collections, collection);
+		Arrays.fill(tags, tag);
+		DictWord[][] result = dc.getWordsByTags(collections, tags, values);
+		Map<String, DictWord[]> out = new LinkedHashMap<String, DictWord[]>();
+		for (int i = 0; i < values.length; i++) {
+			if (result[i] == null) {
+				if (failed != null) {
+					failed.add(values[i]);
+					continue;
+				}
+				if (!lenient)
+					throw new Exception("Lookup of " + values[i] + " in " + collection + " failed");
+				result[i] = new DictWord[0];
+			}
+			out.put(values[i], result[i]);
+		}
+		return out;
+	}
+
+	/**
+	 * Returns the entries of a collection whose tag has the given value
+	 * @param collection collection name
+	 * @param tag tag
+	 * @param value tag value
+	 * @return entries
+	 * @throws Exception
+	 */
+	private DictWord[] find (String collection, String tag, String value) throws Exception {
+		if (mirror != null)
+			return mirror.get(collection, value);
+		DictionaryCollection c = collection.equals(LEMMA) ? lc : dc.getCollection(collection);
+		return c.getWordsByTags(tag, value);
+	}
+
+	/**
+	 * Returns one page of the entries of a collection
+	 * <p>
+	 * Offsets count entries on the server and keys in a local copy
+	 * @param collection collection name
+	 * @param offset offset of the page
+	 * @param count page size
+	 * @return entries or <b>null</b> if there are no more
+	 * @throws Exception
+	 */
+	DictWord[] getPage (String collection, int offset, int count) throws Exception {
+		if (mirror != null)
+			return mirror.getPage(collection, offset, count);
+		DictionaryCollection c = collection.equals(LEMMA) ? lc : dc.getCollection(collection);
+		String[] ids = c.getWordIDs(offset, count);
+		if (ids == null || ids.length == 0)
+			return null;
+		DictWord[] dws = c.getWords(ids, 0, ids.length, null);
+		return dws == null ? new DictWord[0] : dws;
+	}
+
+	/**
+	 * Streams the entries of the lemma and wordform collections,
+	 * without repeating entries
+	 * @return iterator
+	 */
+	public LexiconIterator iterateWordforms () {
+		return iterateWordforms(LexiconIterator.DEFAULT_PAGE_SIZE, null);
+	}
+
+	/**
+	 * Streams the entries of the lemma and wordform collections,
+	 * without repeating entries
+	 * @param pageSize entries per request
+	 * @param from position to resume at, see {@link LexiconIterator#getCursor()},
+	 * or null to start at the beginning
+	 * @return iterator
+	 */
+	public LexiconIterator iterateWordforms (int pageSize, LexiconCursor from) {
+		return new LexiconIterator(this, new String[] {LEMMA, WORDFORMS}, pageSize, from, true);
+	}
+
+	/**
+	 * Streams the entries of the lemma collection
+	 * @return iterator
+	 */
+	public LexiconIterator iterateLemmata () {
+		return iterate(LEMMA, LexiconIterator.DEFAULT_PAGE_SIZE);
+	}
+
+	/**
+	 * Streams the entries of one collection
+	 * @param collection collection name
+	 * @param pageSize entries per request
+	 * @return iterator
+	 */
+	LexiconIterator iterate (String collection, int pageSize) {
+		return new LexiconIterator(this, new String[] {collection}, pageSize, null, false);
+	}
+
+	/**
+	 * Returns the entries of the lemma and wordform collections
+	 * <p>
+	 * Prefer {@link #iterateWordforms()}, which does not hold
+	 * the whole lexicon in memory
+	 * @return entries
+	 * @throws Exception
+	 */
 	public List<DictWord> getAllWordforms() throws Exception {
 		List<DictWord> list = new ArrayList<DictWord>();
-		DictionaryCollection c = dc.getCollection(LEMMA);
-		Iterator<DictWord> i = c.getWordIterator(200);
-		
-		for (DictWord id = i.next(); i.hasNext(); id = i.next()) {
-			list.add(id);
-			
-		}
-		DictionaryCollection c2 = dc.getCollection(WORDFORMS);
-		Iterator<DictWord> i2 = c2.getWordIterator(200);
-		for (DictWord id = i2.next(); i2.hasNext(); id = i2.next()) {
-			if (!list.contains(id))
-				list.add(id);
+		try {
+			Iterator<DictWord> i = iterateWordforms();
+			while (i.hasNext())
+				list.add(i.next());
+		} catch (IllegalStateException e) {
+			if (e.getCause() instanceof Exception)
+				throw (Exception) e.getCause();
+			throw e;
 		}
 		return list;
 	}
 
 	public String getLemmaById(String id) throws Exception {
+		if (mirror != null)
+			return mirror.getLemmaById(LEMMA, id);
 		DictionaryCollection c = dc.getCollection(LEMMA);
 		
 		DictWord dw = c.getWord(id);
@@ -0,0 +1,94 @@
+package de.unitrier.daalft.pali.lexicon;
+
+/**
+ * Position within a {@link LexiconIterator}
+ * <p>
+ * A cursor names the collection, the offset of the page that is
+ * being read and the number of entries of that page already
+ * returned. Its string form can be stored and parsed again to
+ * resume an interrupted export
+ * @author David
+ *
+ */
+public class LexiconCursor {
+
+	/**
+	 * Cursor at the very beginning
+	 */
+	public final static LexiconCursor START = new LexiconCursor(0, 0, 0);
+
+	private final int collection, offset, skip;
+
+	/**
+	 * Constructor
+	 * @param collection index of the collection
+	 * @param offset offset of the page
+	 * @param skip entries of the page already returned
+	 */
+	public LexiconCursor (int collection, int offset, int skip) {
+		if (collection < 0 || offset < 0 || skip < 0)
+			throw new IllegalArgumentException("Negative cursor position");
+		this.collection = collection;
+		this.offset = offset;
+		this.skip = skip;
+	}
+
+	/**
+	 * Returns the index of the collection
+	 * @return collection index
+	 */
+	public int getCollection () {
+		return collection;
+	}
+
+	/**
+	 * Returns the offset of the page
+	 * @return page offset
+	 */
+	public int getOffset () {
+		return offset;
+	}
+
+	/**
+	 * Returns the number of entries of the page already returned
+	 * @return entries to skip
+	 */
+	public int getSkip () {
+		return skip;
+	}
+
+	/**
+	 * Parses the string form of a cursor
+	 * @param s string form, <em>collection:offset:skip</em>
+	 * @return cursor
+	 * @throws IllegalArgumentException if the string is no cursor
+	 */
+	public static LexiconCursor parse (String s) {
+		String[] p = s.trim().split(":");
+		if (p.length != 3)
+			throw new IllegalArgumentException("Not a cursor: " + s);
+		try {
+			return new LexiconCursor(Integer.parseInt(p[0]), Integer.parseInt(p[1]), Integer.parseInt(p[2]));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Not a cursor: " + s, e);
+		}
+	}
+
+	@Override
+	public String toString () {
+		return collection + ":" + offset + ":" + skip;
+	}
+
+	@Override
+	public boolean equals (Object o) {
+		if (!(o instanceof LexiconCursor))
+			return false;
+		LexiconCursor c = (LexiconCursor) o;
+		return collection == c.collection && offset == c.offset && skip == c.skip;
+	}
+
+	@Override
+	public int hashCode () {
+		return (collection * 31 + offset) * 31 + skip;
+	}
+}
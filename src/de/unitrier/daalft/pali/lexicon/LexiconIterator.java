@@ -0,0 +1,123 @@
+package de.unitrier.daalft.pali.lexicon;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import de.cl.dictclient.DictWord;
+
+/**
+ * Streams the entries of one or more collections page by page
+ * <p>
+ * Only one page is held at a time. Entries with an id already
+ * returned are skipped; only the ids are remembered, not the
+ * entries. {@link #getCursor()} tells where to resume after the
+ * last returned entry. Entries returned before a resumed cursor
+ * are not known to the new iterator and thus not skipped.
+ * <br/><br/>
+ * Lookup failures are thrown as {@link IllegalStateException}
+ * with the original exception as cause
+ * @author David
+ *
+ */
+public class LexiconIterator implements Iterator<DictWord> {
+
+	public final static int DEFAULT_PAGE_SIZE = 200;
+
+	private final LexiconAdapter la;
+	private final String[] collections;
+	private final int pageSize;
+	private final boolean dedup;
+	private final Set<String> seen;
+
+	/**
+	 * Current collection and page
+	 */
+	private int collection, offset, pos;
+	private DictWord[] page;
+	/**
+	 * Next entry, fetched ahead by {@link #hasNext()}
+	 */
+	private DictWord next;
+
+	/**
+	 * Constructor
+	 * @param la adapter
+	 * @param collections collection names
+	 * @param pageSize entries per request
+	 * @param from position to start at, null for the beginning
+	 * @param dedup if true, entries with an id already returned are skipped
+	 */
+	LexiconIterator (LexiconAdapter la, String[] collections, int pageSize, LexiconCursor from, boolean dedup) {
+		if (pageSize < 1)
+			throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+		if (from == null)
+			from = LexiconCursor.START;
+		this.la = la;
+		this.collections = collections;
+		this.pageSize = pageSize;
+		this.dedup = dedup;
+		this.seen = dedup ? new HashSet<String>() : null;
+		this.collection = from.getCollection();
+		this.offset = from.getOffset();
+		this.pos = from.getSkip();
+	}
+
+	/**
+	 * Returns the position after the last returned entry
+	 * @return cursor
+	 */
+	public LexiconCursor getCursor () {
+		// the entry fetched ahead has not been returned yet
+		int p = next != null ? pos - 1 : pos;
+		return new LexiconCursor(collection, offset, p);
+	}
+
+	@Override
+	public boolean hasNext () {
+		while (next == null) {
+			if (collection >= collections.length)
+				return false;
+			if (page == null) {
+				try {
+					page = la.getPage(collections[collection], offset, pageSize);
+				} catch (Exception e) {
+					throw new IllegalStateException("Could not read " + collections[collection] + " at " + offset, e);
+				}
+				if (page == null) {
+					// collection exhausted
+					collection++;
+					offset = 0;
+					pos = 0;
+					continue;
+				}
+			}
+			if (pos >= page.length) {
+				page = null;
+				offset += pageSize;
+				pos = 0;
+				continue;
+			}
+			DictWord dw = page[pos++];
+			if (dw == null || (dedup && dw.getID() != null && !seen.add(dw.getID())))
+				continue;
+			next = dw;
+		}
+		return true;
+	}
+
+	@Override
+	public DictWord next () {
+		if (!hasNext())
+			throw new NoSuchElementException();
+		DictWord dw = next;
+		next = null;
+		return dw;
+	}
+
+	@Override
+	public void remove () {
+		throw new UnsupportedOperationException();
+	}
+}
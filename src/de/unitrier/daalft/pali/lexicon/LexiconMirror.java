@@ -0,0 +1,435 @@
+package de.unitrier.daalft.pali.lexicon;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import de.cl.dictclient.DictWord;
+import de.general.json.JObject;
+import de.general.json.JValue;
+import de.general.json.JsonSerializer;
+
+/**
+ * Read-only local copy of the lexical database
+ * <p>
+ * The lemma, wordform and generated collections are exported once
+ * into a single file and memory-mapped afterwards, so that lookups
+ * need neither a connection nor a request. Every collection is
+ * stored as a sorted string table: the UTF-8 keys (the value of the
+ * looked up tag) are sorted bytewise and found by binary search,
+ * and each key points to the JSON of all its entries. The lemma ids
+ * are stored as another table pointing to the lemma.
+ * <br/><br/>
+ * Run {@link #main(String[])} (ant target <em>LexiconMirror</em>) to
+ * export the database
+ * @author David
+ *
+ */
+public class LexiconMirror {
+
+	public final static String DEFAULT_PATH = "data/lexicon/lexicon.mirror";
+
+	/**
+	 * File magic, "PLXM"
+	 */
+	private final static int MAGIC = 0x504C584D;
+	/**
+	 * Format version, increase on every change of the layout
+	 */
+	private final static int VERSION = 1;
+	/**
+	 * Suffix of the table of lemma ids
+	 */
+	private final static String ID_SUFFIX = "#id";
+	private final static Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * Unsigned bytewise order of the keys
+	 */
+	private final static Comparator<byte[]> BYTES = new Comparator<byte[]>() {
+		@Override
+		public int compare (byte[] a, byte[] b) {
+			int n = Math.min(a.length, b.length);
+			for (int i = 0; i < n; i++) {
+				int c = (a[i] & 0xff) - (b[i] & 0xff);
+				if (c != 0)
+					return c;
+			}
+			return a.length - b.length;
+		}
+	};
+
+	/**
+	 * Tables by collection name
+	 */
+	private Map<String, Table> tables;
+	/**
+	 * Time of the export
+	 */
+	private long timestamp;
+
+	private LexiconMirror (Map<String, Table> tables, long timestamp) {
+		this.tables = tables;
+		this.timestamp = timestamp;
+	}
+
+	/**
+	 * Returns the time of the export
+	 * @return milliseconds since the epoch
+	 */
+	public long getTimestamp () {
+		return timestamp;
+	}
+
+	/**
+	 * Checks whether the given collection has been exported
+	 * @param collection collection name
+	 * @return true if the mirror contains the collection
+	 */
+	public boolean hasCollection (String collection) {
+		return tables.containsKey(collection);
+	}
+
+	/**
+	 * Returns the number of keys of a collection
+	 * @param collection collection name
+	 * @return number of keys
+	 */
+	public int size (String collection) {
+		Table t = tables.get(collection);
+		return t == null ? 0 : t.size;
+	}
+
+	/**
+	 * Checks whether a collection contains entries for the given key
+	 * @param collection collection name
+	 * @param key value of the looked up tag
+	 * @return true if there are entries
+	 */
+	public boolean contains (String collection, String key) {
+		Table t = tables.get(collection);
+		return t != null && t.find(key.getBytes(UTF8)) >= 0;
+	}
+
+	/**
+	 * Returns the entries of a collection for the given key
+	 * @param collection collection name
+	 * @param key value of the looked up tag
+	 * @return entries, empty if there are none
+	 * @throws Exception if an entry cannot be parsed
+	 */
+	public DictWord[] get (String collection, String key) throws Exception {
+		Table t = tables.get(collection);
+		int i = t == null ? -1 : t.find(key.getBytes(UTF8));
+		if (i < 0)
+			return new DictWord[0];
+		return toWords(t.getPayload(i));
+	}
+
+	/**
+	 * Returns the entries of a range of keys of a collection, in key order
+	 * @param collection collection name
+	 * @param offset index of the first key
+	 * @param count number of keys
+	 * @return entries or null if there are no more keys
+	 * @throws Exception if an entry cannot be parsed
+	 */
+	public DictWord[] getPage (String collection, int offset, int count) throws Exception {
+		Table t = tables.get(collection);
+		if (t == null || offset >= t.size)
+			return null;
+		List<DictWord> list = new ArrayList<DictWord>();
+		for (int i = offset; i < Math.min(t.size, offset + count); i++) {
+			for (DictWord dw : toWords(t.getPayload(i)))
+				list.add(dw);
+		}
+		return list.toArray(new DictWord[list.size()]);
+	}
+
+	/**
+	 * Returns the lemma of the entry with the given id
+	 * @param collection collection name
+	 * @param id entry id
+	 * @return lemma or null
+	 */
+	public String getLemmaById (String collection, String id) {
+		Table t = tables.get(collection + ID_SUFFIX);
+		int i = t == null ? -1 : t.find(id.getBytes(UTF8));
+		if (i < 0)
+			return null;
+		return t.getPayload(i)[0];
+	}
+
+	/**
+	 * Parses stored entries, given as pairs of id and JSON
+	 * @param payload ids and JSON
+	 * @return entries
+	 * @throws Exception
+	 */
+	private DictWord[] toWords (String[] payload) throws Exception {
+		JsonSerializer js = new JsonSerializer();
+		DictWord[] dws = new DictWord[payload.length / 2];
+		for (int i = 0; i < dws.length; i++) {
+			JObject o = js.deserialize(payload[2*i+1]);
+			if (!payload[2*i].isEmpty())
+				o.add("_id", new JValue(payload[2*i]));
+			dws[i] = new DictWordN(o);
+		}
+		return dws;
+	}
+
+	////////////////////////////////////////////////////////////////
+	// Binary format
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Memory-maps a mirror written by {@link #export(LexiconAdapter, String)}
+	 * @param path mirror file
+	 * @return mirror
+	 * @throws IOException if the file cannot be read or is no mirror file
+	 */
+	public static LexiconMirror map (String path) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(path, "r");
+		ByteBuffer buf;
+		try {
+			buf = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+		} finally {
+			raf.close();
+		}
+		try {
+			if (buf.getInt() != MAGIC || buf.getInt() != VERSION)
+				throw new IOException("Not a lexicon mirror of version " + VERSION + ": " + path);
+			long timestamp = buf.getLong();
+			int count = buf.getInt();
+			Map<String, Table> tables = new LinkedHashMap<String, Table>();
+			for (int i = 0; i < count; i++) {
+				byte[] name = new byte[buf.getInt()];
+				buf.get(name);
+				tables.put(new String(name, UTF8), Table.map(buf));
+			}
+			return new LexiconMirror(tables, timestamp);
+		} catch (RuntimeException e) {
+			throw new IOException("Corrupt lexicon mirror: " + path, e);
+		}
+	}
+
+	/**
+	 * Exports the lemma, wordform and generated collections
+	 * @param la online adapter
+	 * @param path mirror file
+	 * @throws Exception
+	 */
+	public static void export (LexiconAdapter la, String path) throws Exception {
+		String[] collections = {LexiconAdapter.LEMMA, LexiconAdapter.WORDFORMS, LexiconAdapter.GENERATED};
+		String[] tags = {LexiconAdapter.LEMMA_TAG, LexiconAdapter.WORDFORM_TAG, LexiconAdapter.GENERATED_TAG};
+		Map<String, TreeMap<byte[], List<String>>> out = new LinkedHashMap<String, TreeMap<byte[], List<String>>>();
+		for (int c = 0; c < collections.length; c++) {
+			TreeMap<byte[], List<String>> table = new TreeMap<byte[], List<String>>(BYTES);
+			TreeMap<byte[], List<String>> ids = new TreeMap<byte[], List<String>>(BYTES);
+			String[] tag = tags[c].split("\\.");
+			Iterator<DictWord> i = la.iterate(collections[c], LexiconIterator.DEFAULT_PAGE_SIZE);
+			while (i.hasNext()) {
+				DictWord dw = i.next();
+				String key = dw.getPropertyStringValueNormalized(tag);
+				if (key == null)
+					continue;
+				String id = dw.getID() == null ? "" : dw.getID();
+				add(table, key, id, dw.toJSON());
+				if (c == 0 && !id.isEmpty())
+					add(ids, id, key);
+			}
+			out.put(collections[c], table);
+			if (c == 0)
+				out.put(collections[c] + ID_SUFFIX, ids);
+			System.out.println(collections[c] + ": " + table.size() + " keys");
+		}
+		write(out, path);
+	}
+
+	private static void add (TreeMap<byte[], List<String>> table, String key, String... strings) {
+		byte[] k = key.getBytes(UTF8);
+		List<String> l = table.get(k);
+		if (l == null) {
+			l = new ArrayList<String>();
+			table.put(k, l);
+		}
+		for (String s : strings)
+			l.add(s);
+	}
+
+	/**
+	 * Writes sorted tables
+	 * @param tables tables by name
+	 * @param path mirror file
+	 * @throws IOException
+	 */
+	private static void write (Map<String, TreeMap<byte[], List<String>>> tables, String path) throws IOException {
+		File f = new File(path);
+		if (f.getParentFile() != null)
+			f.getParentFile().mkdirs();
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(System.currentTimeMillis());
+			out.writeInt(tables.size());
+			for (Map.Entry<String, TreeMap<byte[], List<String>>> e : tables.entrySet()) {
+				byte[] name = e.getKey().getBytes(UTF8);
+				out.writeInt(name.length);
+				out.write(name);
+				Table.write(e.getValue(), out);
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Exports the lexical database into the default mirror file
+	 * @param args optional path of the mirror file
+	 * @throws Exception
+	 */
+	public static void main (String[] args) throws Exception {
+		String path = args.length > 0 ? args[0] : DEFAULT_PATH;
+		export(new LexiconAdapter(), path);
+		System.out.println("Lexicon mirror written to " + path);
+	}
+
+	/**
+	 * Sorted string table
+	 * <p>
+	 * Layout: number of keys <em>n</em>, length of the key and
+	 * payload sections, <em>n+1</em> key offsets, <em>n+1</em> payload
+	 * offsets, the keys, the payloads. A payload is a number of strings,
+	 * each preceded by its length
+	 */
+	private final static class Table {
+
+		private int size;
+		private IntBuffer keyOffsets, payloadOffsets;
+		private ByteBuffer keys, payloads;
+
+		/**
+		 * Returns the index of a key
+		 * @param key UTF-8 key
+		 * @return index or -1
+		 */
+		int find (byte[] key) {
+			int lo = 0, hi = size - 1;
+			while (lo <= hi) {
+				int mid = (lo + hi) >>> 1;
+				int c = compare(mid, key);
+				if (c < 0)
+					lo = mid + 1;
+				else if (c > 0)
+					hi = mid - 1;
+				else
+					return mid;
+			}
+			return -1;
+		}
+
+		/**
+		 * Compares the key at the given index to another key
+		 */
+		private int compare (int index, byte[] key) {
+			int from = keyOffsets.get(index), length = keyOffsets.get(index+1) - from;
+			int n = Math.min(length, key.length);
+			for (int i = 0; i < n; i++) {
+				int c = (keys.get(from+i) & 0xff) - (key[i] & 0xff);
+				if (c != 0)
+					return c;
+			}
+			return length - key.length;
+		}
+
+		/**
+		 * Returns the strings stored for the key at the given index
+		 */
+		String[] getPayload (int index) {
+			ByteBuffer b = payloads.duplicate();
+			b.position(payloadOffsets.get(index));
+			String[] out = new String[b.getInt()];
+			for (int i = 0; i < out.length; i++) {
+				byte[] s = new byte[b.getInt()];
+				b.get(s);
+				out[i] = new String(s, UTF8);
+			}
+			return out;
+		}
+
+		static Table map (ByteBuffer buf) {
+			Table t = new Table();
+			t.size = buf.getInt();
+			int keyBytes = buf.getInt(), payloadBytes = buf.getInt();
+			t.keyOffsets = slice(buf, 4 * (t.size + 1)).asIntBuffer();
+			t.payloadOffsets = slice(buf, 4 * (t.size + 1)).asIntBuffer();
+			t.keys = slice(buf, keyBytes);
+			t.payloads = slice(buf, payloadBytes);
+			return t;
+		}
+
+		/**
+		 * Returns the next bytes of a buffer as a buffer of their own
+		 */
+		private static ByteBuffer slice (ByteBuffer buf, int length) {
+			ByteBuffer b = buf.duplicate();
+			b.limit(b.position() + length);
+			buf.position(buf.position() + length);
+			return b.slice();
+		}
+
+		static void write (TreeMap<byte[], List<String>> table, DataOutputStream out) throws IOException {
+			int n = table.size();
+			int[] keyOffsets = new int[n+1], payloadOffsets = new int[n+1];
+			List<byte[]> payloads = new ArrayList<byte[]>(n);
+			int i = 0;
+			for (Map.Entry<byte[], List<String>> e : table.entrySet()) {
+				keyOffsets[i+1] = keyOffsets[i] + e.getKey().length;
+				byte[] p = encode(e.getValue());
+				payloads.add(p);
+				payloadOffsets[i+1] = payloadOffsets[i] + p.length;
+				i++;
+			}
+			out.writeInt(n);
+			out.writeInt(keyOffsets[n]);
+			out.writeInt(payloadOffsets[n]);
+			for (int o : keyOffsets)
+				out.writeInt(o);
+			for (int o : payloadOffsets)
+				out.writeInt(o);
+			for (byte[] k : table.keySet())
+				out.write(k);
+			for (byte[] p : payloads)
+				out.write(p);
+		}
+
+		private static byte[] encode (List<String> strings) {
+			byte[][] b = new byte[strings.size()][];
+			int length = 4;
+			for (int i = 0; i < b.length; i++) {
+				b[i] = strings.get(i).getBytes(UTF8);
+				length += 4 + b[i].length;
+			}
+			ByteBuffer buf = ByteBuffer.allocate(length);
+			buf.putInt(b.length);
+			for (byte[] s : b)
+				buf.putInt(s.length).put(s);
+			return buf.array();
+		}
+	}
+}
@@ -0,0 +1,588 @@
+package de.unitrier.daalft.pali.morphology;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.cl.dictclient.DictWord;
+import de.general.log.ILogInterface;
+import de.general.log.PrintLogger;
+import de.unitrier.daalft.pali.GrammarSnapshot;
+import de.unitrier.daalft.pali.PaliGrammarContext;
+import de.unitrier.daalft.pali.lexicon.LexiconAdapter;
+import de.unitrier.daalft.pali.morphology.element.ConstructedWord;
+import de.unitrier.daalft.pali.morphology.element.EndingMatch;
+import de.unitrier.daalft.pali.morphology.element.Feature;
+import de.unitrier.daalft.pali.morphology.element.FeatureSet;
+import de.unitrier.daalft.pali.morphology.paradigm.ParadigmAccessor;
+
+/**
+ * Reverse full-form index: every inflected form of every lemma
+ * of the lexicon, mapped to its lemmata and feature sets
+ * <p>
+ * The index is built once by running the {@link MorphologyGenerator}
+ * over the whole lexicon and is memory-mapped afterwards. Its file
+ * consists of a string pool, the distinct feature sets (as pairs of
+ * string ids) and an open-addressing hash table from surface forms to
+ * their analyses, so that a known form is analyzed by one hash lookup.
+ * An analysis consists of lemma, feature set and the length of the
+ * ending the form has been segmented at, so that the analyses have the
+ * same <em>stem_ending</em> word as those of the rules. The file records
+ * the grammar version it has been built with; {@link #load(String)}
+ * ignores outdated files.
+ * <br/><br/>
+ * {@link #getDefault()} loads the index at {@link #DEFAULT_PATH} if it
+ * exists; the {@link MorphologyAnalyzer} consults it before the rules.
+ * <br/><br/>
+ * Run {@link #main(String[])} (ant target <em>FullFormIndex</em>) to
+ * build the index
+ * @author David
+ *
+ */
+public class FullFormIndex {
+
+	public final static String DEFAULT_PATH = "data/lexicon/fullform.index";
+
+	/**
+	 * File magic, "PFFI"
+	 */
+	private final static int MAGIC = 0x50464649;
+	/**
+	 * Format version, increase on every change of the layout
+	 */
+	private final static int VERSION = 2;
+	private final static Charset UTF8 = Charset.forName("UTF-8");
+	/**
+	 * Separator between stem and ending, as used by the {@link MorphologyAnalyzer}
+	 */
+	private final static String SEPARATOR = "_";
+
+	/**
+	 * Shared index loaded from {@link #DEFAULT_PATH}
+	 */
+	private static FullFormIndex defaultIndex;
+	private static boolean defaultLoaded;
+
+	private final long grammarVersion;
+	private final int size;
+	/**
+	 * String pool
+	 */
+	private final IntBuffer stringOffsets;
+	private final ByteBuffer strings;
+	/**
+	 * Distinct feature sets, copied into the analyses
+	 */
+	private final FeatureSet[] featureSets;
+	/**
+	 * Hash table: record offset per slot, -1 if empty
+	 */
+	private final IntBuffer slots;
+	/**
+	 * Records: form string id, number of analyses, lemma string id,
+	 * feature set id and ending length (-1 if unsegmented) per analysis
+	 */
+	private final IntBuffer records;
+
+	private FullFormIndex (long grammarVersion, int size, IntBuffer stringOffsets, ByteBuffer strings,
+			FeatureSet[] featureSets, IntBuffer slots, IntBuffer records) {
+		this.grammarVersion = grammarVersion;
+		this.size = size;
+		this.stringOffsets = stringOffsets;
+		this.strings = strings;
+		this.featureSets = featureSets;
+		this.slots = slots;
+		this.records = records;
+	}
+
+	/**
+	 * Returns the grammar version the index has been built with
+	 * @return grammar version
+	 */
+	public long getGrammarVersion () {
+		return grammarVersion;
+	}
+
+	/**
+	 * Returns the number of surface forms
+	 * @return number of forms
+	 */
+	public int size () {
+		return size;
+	}
+
+	/**
+	 * Checks whether a surface form is in the index
+	 * @param form surface form
+	 * @return true if the form is known
+	 */
+	public boolean contains (String form) {
+		return find(form) >= 0;
+	}
+
+	/**
+	 * Returns the analyses of a surface form
+	 * <p>
+	 * The word of an analysis is the form segmented into
+	 * <em>stem_ending</em> where the form has been generated
+	 * from a paradigm ending, the form itself otherwise
+	 * @param form surface form
+	 * @param pos word classes to restrict the analyses to, none for all
+	 * @return analyses, empty if the form is unknown
+	 */
+	public List<ConstructedWord> lookup (String form, String... pos) {
+		int r = find(form);
+		if (r < 0)
+			return Collections.emptyList();
+		int n = records.get(r+1);
+		List<ConstructedWord> out = new ArrayList<ConstructedWord>(n);
+		for (int i = 0; i < n; i++) {
+			int a = r + 2 + 3*i;
+			FeatureSet features = featureSets[records.get(a+1)];
+			if (!matches(features, pos))
+				continue;
+			ConstructedWord cw = new ConstructedWord(segment(form, records.get(a+2)), features);
+			cw.setLemma(getString(records.get(a)));
+			out.add(cw);
+		}
+		return out;
+	}
+
+	/**
+	 * Separates the ending from a form
+	 * @param form form
+	 * @param ending length of the ending, -1 if unsegmented
+	 * @return segmented form
+	 */
+	private static String segment (String form, int ending) {
+		if (ending < 0 || ending > form.length())
+			return form;
+		int stem = form.length() - ending;
+		return form.substring(0, stem) + SEPARATOR + form.substring(stem);
+	}
+
+	/**
+	 * Checks whether an analysis belongs to one of the word classes
+	 */
+	private static boolean matches (FeatureSet features, String... pos) {
+		if (pos == null || pos.length == 0 || pos[0] == null || pos[0].isEmpty())
+			return true;
+		String paradigm = features.getFeature("paradigm");
+		for (String p : pos)
+			if (paradigm.equals(p))
+				return true;
+		return false;
+	}
+
+	/**
+	 * Returns the record offset of a surface form
+	 * @param form surface form
+	 * @return record offset or -1
+	 */
+	private int find (String form) {
+		byte[] b = form.getBytes(UTF8);
+		int mask = slots.capacity() - 1;
+		for (int i = hash(form) & mask; ; i = (i + 1) & mask) {
+			int r = slots.get(i);
+			if (r < 0)
+				return -1;
+			if (stringEquals(records.get(r), b))
+				return r;
+		}
+	}
+
+	private boolean stringEquals (int id, byte[] b) {
+		int from = stringOffsets.get(id);
+		if (stringOffsets.get(id+1) - from != b.length)
+			return false;
+		for (int i = 0; i < b.length; i++)
+			if (strings.get(from+i) != b[i])
+				return false;
+		return true;
+	}
+
+	private String getString (int id) {
+		return getString(stringOffsets, strings, id);
+	}
+
+	private static String getString (IntBuffer stringOffsets, ByteBuffer strings, int id) {
+		int from = stringOffsets.get(id);
+		byte[] b = new byte[stringOffsets.get(id+1) - from];
+		ByteBuffer s = strings.duplicate();
+		s.position(from);
+		s.get(b);
+		return new String(b, UTF8);
+	}
+
+	/**
+	 * Spreads the string hash over the slots
+	 */
+	private static int hash (String s) {
+		int h = s.hashCode() * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	////////////////////////////////////////////////////////////////
+	// Binary format
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Memory-maps an index written by a {@link Builder}
+	 * @param path index file
+	 * @return index
+	 * @throws IOException if the file cannot be read or is no index file
+	 */
+	public static FullFormIndex map (String path) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(path, "r");
+		ByteBuffer buf;
+		try {
+			buf = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+		} finally {
+			raf.close();
+		}
+		try {
+			if (buf.getInt() != MAGIC || buf.getInt() != VERSION)
+				throw new IOException("Not a full-form index of version " + VERSION + ": " + path);
+			long grammarVersion = buf.getLong();
+			int size = buf.getInt();
+			int stringCount = buf.getInt(), stringBytes = buf.getInt();
+			int featureSetCount = buf.getInt();
+			int capacity = buf.getInt(), recordInts = buf.getInt();
+			IntBuffer stringOffsets = slice(buf, 4 * (stringCount + 1)).asIntBuffer();
+			ByteBuffer strings = slice(buf, stringBytes);
+			FeatureSet[] featureSets = new FeatureSet[featureSetCount];
+			for (int i = 0; i < featureSetCount; i++) {
+				Feature[] features = new Feature[buf.getInt() / 2];
+				for (int j = 0; j < features.length; j++)
+					features[j] = new Feature(getString(stringOffsets, strings, buf.getInt()),
+							getString(stringOffsets, strings, buf.getInt()));
+				featureSets[i] = new FeatureSet(features);
+			}
+			IntBuffer slots = slice(buf, 4 * capacity).asIntBuffer();
+			IntBuffer records = slice(buf, 4 * recordInts).asIntBuffer();
+			return new FullFormIndex(grammarVersion, size, stringOffsets, strings, featureSets, slots, records);
+		} catch (RuntimeException e) {
+			throw new IOException("Corrupt full-form index: " + path, e);
+		}
+	}
+
+	private static ByteBuffer slice (ByteBuffer buf, int length) {
+		ByteBuffer b = buf.duplicate();
+		b.limit(b.position() + length);
+		buf.position(buf.position() + length);
+		return b.slice();
+	}
+
+	/**
+	 * Returns the index at {@link #DEFAULT_PATH}
+	 * <p>
+	 * The index is loaded on the first call only and shared afterwards
+	 * @return index or null if there is no index for the current grammar
+	 * @see #load(String)
+	 */
+	public static synchronized FullFormIndex getDefault () {
+		if (!defaultLoaded) {
+			defaultIndex = load(DEFAULT_PATH);
+			defaultLoaded = true;
+		}
+		return defaultIndex;
+	}
+
+	/**
+	 * Loads an index if it exists and has been built with the
+	 * current grammar
+	 * @param path index file
+	 * @return index or null
+	 */
+	public static FullFormIndex load (String path) {
+		if (!new File(path).isFile())
+			return null;
+		try {
+			FullFormIndex ffi = map(path);
+			if (ffi.getGrammarVersion() == GrammarSnapshot.grammarVersion())
+				return ffi;
+			System.err.println("Ignoring full-form index built with another grammar: " + path);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		return null;
+	}
+
+	/**
+	 * Collects analyses and writes the index
+	 */
+	public static class Builder {
+
+		/**
+		 * Paradigms the forms are generated from
+		 */
+		private final ParadigmAccessor pa;
+		private final Map<String, Integer> stringIds = new HashMap<String, Integer>();
+		private final List<String> stringList = new ArrayList<String>();
+		private final Map<List<Integer>, Integer> featureSetIds = new HashMap<List<Integer>, Integer>();
+		private final List<List<Integer>> featureSetList = new ArrayList<List<Integer>>();
+		/**
+		 * Lemma id, feature set id and ending length per form id
+		 */
+		private final Map<Integer, Set<List<Integer>>> analyses = new HashMap<Integer, Set<List<Integer>>>();
+
+		/**
+		 * Constructor
+		 * @param pa paradigms used to segment the forms
+		 */
+		public Builder (ParadigmAccessor pa) {
+			this.pa = pa;
+		}
+
+		/**
+		 * Adds the analysis of a generated word form
+		 * @param cw generated word form with lemma and feature set
+		 */
+		public void add (ConstructedWord cw) {
+			if (cw.getWord() == null || cw.getLemma() == null)
+				return;
+			List<Integer> fs = new ArrayList<Integer>();
+			if (cw.getFeatureSet() != null) {
+				for (Feature f : cw.getFeatureSet()) {
+					fs.add(id(f.getKey()));
+					fs.add(id(f.getValue()));
+				}
+			}
+			Integer fsId = featureSetIds.get(fs);
+			if (fsId == null) {
+				fsId = featureSetList.size();
+				featureSetIds.put(fs, fsId);
+				featureSetList.add(fs);
+			}
+			int form = id(cw.getWord());
+			Set<List<Integer>> s = analyses.get(form);
+			if (s == null) {
+				s = new LinkedHashSet<List<Integer>>();
+				analyses.put(form, s);
+			}
+			s.add(Arrays.asList(id(cw.getLemma()), fsId, endingLength(cw)));
+		}
+
+		/**
+		 * Returns the length of the ending the analyzer separates from
+		 * a generated form, that is the ending of the morpheme with the
+		 * form's feature set, or of a morpheme whose features it has.
+		 * Like the analyzer, pronouns and irregular forms are not segmented
+		 * @param cw generated word form
+		 * @return ending length or -1 if the form is not segmented
+		 */
+		private int endingLength (ConstructedWord cw) {
+			FeatureSet fs = cw.getFeatureSet();
+			String form = cw.getWord();
+			if (fs == null || fs.getFeature("paradigm").equals("pronoun")
+					|| pa.getIrregularNouns().isIrregular(form)
+					|| pa.getIrregularNumerals().isIrregular(form))
+				return -1;
+			int ending = -1;
+			for (EndingMatch em : pa.getEndingIndex().match(form, fs.getFeature("paradigm"))) {
+				FeatureSet mfs = em.getMorpheme().getFeatureSet();
+				if (mfs.equals(fs))
+					return em.getEnding().length();
+				if (ending < 0 && fs.satisfies(mfs))
+					ending = em.getEnding().length();
+			}
+			return ending;
+		}
+
+		/**
+		 * Returns the number of surface forms added
+		 * @return number of forms
+		 */
+		public int size () {
+			return analyses.size();
+		}
+
+		private int id (String s) {
+			if (s == null)
+				s = "";
+			Integer i = stringIds.get(s);
+			if (i == null) {
+				i = stringList.size();
+				stringIds.put(s, i);
+				stringList.add(s);
+			}
+			return i;
+		}
+
+		/**
+		 * Writes the index
+		 * @param path index file
+		 * @param grammarVersion version of the grammar the forms have been generated with
+		 * @throws IOException
+		 */
+		public void write (String path, long grammarVersion) throws IOException {
+			// string pool
+			byte[][] b = new byte[stringList.size()][];
+			int stringBytes = 0;
+			for (int i = 0; i < b.length; i++) {
+				b[i] = stringList.get(i).getBytes(UTF8);
+				stringBytes += b[i].length;
+			}
+			// hash table with a load factor of at most 0.5
+			int capacity = Integer.highestOneBit(Math.max(1, analyses.size()) * 2 - 1) << 1;
+			int[] slots = new int[capacity];
+			Arrays.fill(slots, -1);
+			int recordInts = 0;
+			for (Set<List<Integer>> s : analyses.values())
+				recordInts += 2 + 3 * s.size();
+			int[] records = new int[recordInts];
+			int r = 0;
+			for (Map.Entry<Integer, Set<List<Integer>>> e : analyses.entrySet()) {
+				int i = hash(stringList.get(e.getKey())) & (capacity - 1);
+				while (slots[i] >= 0)
+					i = (i + 1) & (capacity - 1);
+				slots[i] = r;
+				records[r++] = e.getKey();
+				records[r++] = e.getValue().size();
+				for (List<Integer> a : e.getValue()) {
+					for (int x : a)
+						records[r++] = x;
+				}
+			}
+
+			File f = new File(path);
+			if (f.getParentFile() != null)
+				f.getParentFile().mkdirs();
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f)));
+			try {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeLong(grammarVersion);
+				out.writeInt(analyses.size());
+				out.writeInt(b.length);
+				out.writeInt(stringBytes);
+				out.writeInt(featureSetList.size());
+				out.writeInt(capacity);
+				out.writeInt(recordInts);
+				int offset = 0;
+				for (byte[] s : b) {
+					out.writeInt(offset);
+					offset += s.length;
+				}
+				out.writeInt(offset);
+				for (byte[] s : b)
+					out.write(s);
+				for (List<Integer> fs : featureSetList) {
+					out.writeInt(fs.size());
+					for (int id : fs)
+						out.writeInt(id);
+				}
+				for (int s : slots)
+					out.writeInt(s);
+				for (int i : records)
+					out.writeInt(i);
+			} finally {
+				out.close();
+			}
+		}
+	}
+
+	////////////////////////////////////////////////////////////////
+	// Batch job
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Inflects all lemmata of the lexicon and writes the index
+	 * @param la lexicon
+	 * @param mg generator
+	 * @param path index file
+	 * @throws Exception
+	 */
+	public static void build (LexiconAdapter la, MorphologyGenerator mg, String path) throws Exception {
+		ILogInterface log = new PrintLogger();
+		Builder b = new Builder(mg.getParadigmAccessor());
+		String[] lemmaPath = {"form", "lemma"};
+		int lemmata = 0, failed = 0;
+		Iterator<DictWord> i = la.iterateLemmata();
+		while (i.hasNext()) {
+			DictWord dw = i.next();
+			String lemma = dw.getPropertyStringValueNormalized(lemmaPath);
+			if (lemma == null)
+				continue;
+			try {
+				for (ConstructedWord cw : mg.generate(log, lemma, dw))
+					b.add(cw);
+				lemmata++;
+			} catch (RuntimeException e) {
+				failed++;
+			}
+		}
+		b.write(path, GrammarSnapshot.grammarVersion());
+		System.out.println(lemmata + " lemmata inflected into " + b.size() + " forms, " + failed + " failed");
+	}
+
+	/**
+	 * Inflects the lemmata of a text file (<em>lemma</em> or <em>lemma TAB word class</em>
+	 * per line) and writes the index
+	 * @param lemmaFile lemma file
+	 * @param mg generator
+	 * @param path index file
+	 * @throws IOException
+	 */
+	public static void build (String lemmaFile, MorphologyGenerator mg, String path) throws IOException {
+		ILogInterface log = new PrintLogger();
+		Builder b = new Builder(mg.getParadigmAccessor());
+		int lemmata = 0, failed = 0;
+		BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(lemmaFile), UTF8));
+		try {
+			String l;
+			while ((l = br.readLine()) != null) {
+				String[] kv = l.trim().split("\t");
+				if (kv[0].isEmpty())
+					continue;
+				try {
+					for (ConstructedWord cw : mg.generate(log, kv[0], kv.length > 1 ? kv[1] : ""))
+						b.add(cw);
+					lemmata++;
+				} catch (RuntimeException e) {
+					failed++;
+				}
+			}
+		} finally {
+			br.close();
+		}
+		b.write(path, GrammarSnapshot.grammarVersion());
+		System.out.println(lemmata + " lemmata inflected into " + b.size() + " forms, " + failed + " failed");
+	}
+
+	/**
+	 * Builds the default index from the lexicon or from a lemma file
+	 * @param args optional path of the index file, optional lemma file
+	 * @throws Exception
+	 */
+	public static void main (String[] args) throws Exception {
+		String path = args.length > 0 ? args[0] : DEFAULT_PATH;
+		PaliGrammarContext ctx = PaliGrammarContext.getInstance();
+		MorphologyGenerator mg = new MorphologyGenerator(ctx.getParadigmAccessor(), ctx.getSandhiManager());
+		if (args.length > 1) {
+			build(args[1], mg, path);
+		} else {
+			build(LexiconAdapter.getDefault(), mg, path);
+		}
+		System.out.println("Full-form index written to " + path);
+	}
+}
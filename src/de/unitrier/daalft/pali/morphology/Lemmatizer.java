@@ -79,8 +79,9 @@ public class Lemmatizer {
 	 * @throws Exception
 	 */
 	public String lemmatizeWithDictionary(ILogInterface log, String word, String...opt) throws Exception {
-		if (ma.getLexiconAdapter().lemmaContains(word)) {
-			return ma.getLexiconAdapter().getLemma(word);
+		String lemma = ma.getLexiconAdapter().getLemma(word);
+		if (lemma != null) {
+			return lemma;
 		} else {
 			System.err.println("Could not retrieve lemma via lookup. Falling back to offline mode.");
 			return WordConverter.toJSONStringLemmatizer(lemmatize(log, word, opt));
@@ -14,10 +14,12 @@ import de.general.log.*;
 import de.cl.dictclient.DictWord;
 import de.unitrier.daalft.pali.lexicon.LexiconAdapter;
 import de.unitrier.daalft.pali.morphology.element.ConstructedWord;
+import de.unitrier.daalft.pali.morphology.element.EndingMatch;
 import de.unitrier.daalft.pali.morphology.element.Feature;
 import de.unitrier.daalft.pali.morphology.element.FeatureSet;
 import de.unitrier.daalft.pali.morphology.element.Morph;
 import de.unitrier.daalft.pali.morphology.element.Morpheme;
+import de.unitrier.daalft.pali.morphology.paradigm.EndingIndex;
 import de.unitrier.daalft.pali.morphology.paradigm.Paradigm;
 import de.unitrier.daalft.pali.morphology.paradigm.ParadigmAccessor;
 import de.unitrier.daalft.pali.morphology.paradigm.irregular.IrregularNouns;
@@ -64,10 +66,12 @@ public class MorphologyAnalyzer {
 	////////////////////////////////////////////////////////////////
 
 	private ParadigmAccessor pa;
+	private EndingIndex ei;
 	private WordClassGuesser wcg;
 	private AdverbStrategy as;
 	private UnknownStrategy us;
 	private LexiconAdapter la;
+	private FullFormIndex ffi;
 	
 	////////////////////////////////////////////////////////////////
 	// Constructors
@@ -79,21 +83,50 @@ public class MorphologyAnalyzer {
 	public MorphologyAnalyzer(ParadigmAccessor pa)
 	{
 		this.pa = pa;
+		this.ei = pa.getEndingIndex();
 		this.wcg = new WordClassGuesser(pa);
 		as = new AdverbStrategy();
 		us = new UnknownStrategy();
 		try {
-			la = new LexiconAdapter();
+			la = LexiconAdapter.getDefault();
 		} catch (Exception e) {
 			// TODO Auto-generated catch block
 			e.printStackTrace();
 		}
+		ffi = FullFormIndex.getDefault();
 	}
 
 	public MorphologyAnalyzer (ParadigmAccessor pa, LexiconAdapter la) {
 		this(pa);
 		this.la=la;
 	}
+
+	/**
+	 * Constructor
+	 * @param pa paradigm accessor
+	 * @param la lexicon adapter
+	 * @param ffi full-form index consulted before the rules, may be null
+	 */
+	public MorphologyAnalyzer (ParadigmAccessor pa, LexiconAdapter la, FullFormIndex ffi) {
+		this(pa, la);
+		this.ffi = ffi;
+	}
+
+	/**
+	 * Sets the full-form index consulted before the rules
+	 * @param ffi full-form index, null to analyze by rules only
+	 */
+	public void setFullFormIndex (FullFormIndex ffi) {
+		this.ffi = ffi;
+	}
+
+	/**
+	 * Returns the full-form index consulted before the rules
+	 * @return full-form index or null
+	 */
+	public FullFormIndex getFullFormIndex () {
+		return ffi;
+	}
 	
 	////////////////////////////////////////////////////////////////
 	// Methods
@@ -102,7 +135,12 @@ public class MorphologyAnalyzer {
 	/**
 	 * Analyze in offline mode
 	 * <p>
-	 * Returns possible analyses of a given word using paradigm information
+	 * Returns possible analyses of a given word using paradigm information.
+	 * If a {@link FullFormIndex} is set and knows the word, its analyses
+	 * are returned; the rules are applied to unknown words only. Both
+	 * are restricted to the given word classes, or to the word classes
+	 * guessed from the word form if none are given; pronouns and irregular
+	 * forms are analyzed regardless
 	 * @param word word to analyze
 	 * @return possible analyses
 	 */
@@ -119,39 +157,28 @@ public class MorphologyAnalyzer {
 		}
 		IrregularNouns irrnoun = pa.getIrregularNouns();
 		IrregularNumerals irrnum = pa.getIrregularNumerals();
-		Paradigm pronoun = pa.getPronounParadigm();
 
-		for (Morpheme mo : pronoun.getMorphemes()) {
-			if (mo.exactly(word)) {
-				FeatureSet feat = new FeatureSet();
-				for (Feature f : mo.getFeatureSet()) {
-					if (f.getKey().equals("case")) {
-						feat.add(new Feature("case", "nominative"));
-					} else if (f.getKey().equals("number")) {
-						feat.add(new Feature("number", "singular"));
-					} else {
-						feat.add(f);
-					}
-				}
-				Paradigm p = pronoun.getParadigmByFeatures(feat);
-				if (p == null) {
-					log.error("No pronoun paradigm for " + word);
-					log.error(feat.toString());
-				}
-				for (Morph m : p.getEndings()) {
-					String lemma = m.getMorph();
-					analyses.add(constructWord(word, lemma, mo.getFeatureSet()));
-				}
-			}
-			// TODO premature return?
+		if (ffi != null) {
+			List<String> classes = new ArrayList<String>(pos);
+			classes.add("pronoun");
+			if (irrnoun.isIrregular(word))
+				classes.add("noun");
+			if (irrnum.isIrregular(word))
+				classes.add("numeral");
+			List<ConstructedWord> known = ffi.lookup(word, classes.toArray(new String[classes.size()]));
+			if (!known.isEmpty())
+				return known;
 		}
+
+		analyses.addAll(pa.getPronounIndex().lookup(word));
 		if (irrnoun.isIrregular(word)) {
 			Paradigm p = irrnoun.getLemma(word);
+			FeatureSet fs = irrnoun.getForms(word).getFeatureSet(word);
 
 			for (Morpheme m : p.getMorphemes()) {
 				for (Morph n : m.getAllomorphs()) {
 					String lemma = n.getMorph();
-					analyses.add(constructWord(word, lemma, irrnoun.getForms(word).getFeatureSet(word)));
+					analyses.add(constructWord(word, lemma, fs));
 				}
 			}
 			// premature?
@@ -159,10 +186,11 @@ public class MorphologyAnalyzer {
 
 		if (irrnum.isIrregular(word)) {
 			Paradigm p = irrnum.getLemma(word);
+			FeatureSet fs = irrnum.getForms(word).getFeatureSet(word);
 			for (Morpheme m : p.getMorphemes()) { 
 				for (Morph n : m.getAllomorphs()) {
 					String lemma = n.getMorph();
-					analyses.add(constructWord(word, lemma, irrnum.getForms(word).getFeatureSet(word)));
+					analyses.add(constructWord(word, lemma, fs));
 				}
 			}
 			// TODO premature return?
@@ -192,9 +220,8 @@ public class MorphologyAnalyzer {
 				analyses.addAll(as.apply(log, word));
 				continue;
 			}
-			// retrieve relevant paradigm
-			Paradigm p = pa.getParadigmsByFeatures(new FeatureSet("paradigm", wci));
-			if (p == null) {
+			// check for relevant paradigm
+			if (!ei.contains(wci)) {
 				
 				analyses.addAll(us.apply(log,word));
 				continue;
@@ -209,31 +236,31 @@ public class MorphologyAnalyzer {
 			for (Entry<String, String> e : map.entrySet()) {
 				String pre = e.getKey();
 				String pre_word = e.getValue();	
-				for (Morpheme morpheme : p.getMorphemes()) {
-					if (morpheme.isApplicable(word)) {
-						// identify boundaries word<->ending
-						String ending = morpheme.match(word);
-						String stem = "";
-						// set word to pre_word if prefix and suffix are not longer than word
-						if (!pre.isEmpty() && pre.length() + ending.length() < word.length()) {
-							stem = pre_word;
-						} else {
-							stem = word;
-						}
-						String start = stem.substring(0,stem.length()-ending.length());
-						// derive lemma from start under "wci" assumption 
-						// with declension info if present
-						String dec = morpheme.getFeatureByName("declension");
-						List<String> lemmata = lemmaFromStem(start, wci, dec);
-						for (String lemma : lemmata) {
-							ConstructedWord cw = new ConstructedWord();
-							cw.setLemma(lemma);
-							String pword = pre.isEmpty() ? "":pre+SEPARATOR;
-							cw.setWord(pword + start + SEPARATOR + ending);
-							cw.setFeatureSet(morpheme.getFeatureSet());
-							analyses.add(cw);
-							cw = null;
-						}
+				// all morphemes of the paradigm the word ends with
+				for (EndingMatch em : ei.match(word, wci)) {
+					Morpheme morpheme = em.getMorpheme();
+					// identify boundaries word<->ending
+					String ending = em.getEnding();
+					String stem = "";
+					// set word to pre_word if prefix and suffix are not longer than word
+					if (!pre.isEmpty() && pre.length() + ending.length() < word.length()) {
+						stem = pre_word;
+					} else {
+						stem = word;
+					}
+					String start = stem.substring(0,stem.length()-ending.length());
+					// derive lemma from start under "wci" assumption 
+					// with declension info if present
+					String dec = morpheme.getFeatureByName("declension");
+					List<String> lemmata = lemmaFromStem(start, wci, dec);
+					for (String lemma : lemmata) {
+						ConstructedWord cw = new ConstructedWord();
+						cw.setLemma(lemma);
+						String pword = pre.isEmpty() ? "":pre+SEPARATOR;
+						cw.setWord(pword + start + SEPARATOR + ending);
+						cw.setFeatureSet(morpheme.getFeatureSet());
+						analyses.add(cw);
+						cw = null;
 					}
 				}
 			}
@@ -411,7 +438,7 @@ public class MorphologyAnalyzer {
 		return cw;
 	}
 	
-	public boolean isLemmaForm (String word) {
+	public static boolean isLemmaForm (String word) {
 		StringBuilder nn = new StringBuilder(".*(");
 		for (String s : NOUN_ENDINGS)
 			nn.append(s+"|");
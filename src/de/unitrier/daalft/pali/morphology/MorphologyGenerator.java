@@ -5,6 +5,7 @@ import java.util.*;
 import de.general.json.JObject;
 import de.general.json.JToken;
 import de.general.log.*;
+import de.unitrier.daalft.pali.PaliGrammarContext;
 import de.unitrier.daalft.pali.morphology.element.ConstructedWord;
 import de.unitrier.daalft.pali.morphology.element.Morph;
 import de.unitrier.daalft.pali.morphology.element.Morpheme;
@@ -14,6 +15,7 @@ import de.unitrier.daalft.pali.morphology.paradigm.irregular.IrregularNouns;
 import de.unitrier.daalft.pali.morphology.paradigm.irregular.IrregularNumerals;
 import de.unitrier.daalft.pali.morphology.tools.WordClassGuesser;
 import de.unitrier.daalft.pali.morphology.strategy.*;
+import de.unitrier.daalft.pali.phonology.SandhiManager;
 
 /**
  * Given a lemma, returns all possible morphological word forms
@@ -45,22 +47,34 @@ public class MorphologyGenerator
 
 	/**
 	 * Default constructor.
+	 * <p>
+	 * Uses the sandhi rules of the shared grammar context
 	 */
 	public MorphologyGenerator(ParadigmAccessor pa)
+	{
+		this(pa, PaliGrammarContext.getInstance().getSandhiManager());
+	}
+
+	/**
+	 * Constructor
+	 * @param pa paradigm accessor
+	 * @param sm sandhi manager used by the strategies
+	 */
+	public MorphologyGenerator(ParadigmAccessor pa, SandhiManager sm)
 	{
 		this.pa = pa;
 
 		wordClassStrategies = new HashMap<>();
 
-		wordClassStrategies.put("noun", new NounStrategy(pa));
-		wordClassStrategies.put("verb", new AlternativeVerbStrategy(pa));
-		wordClassStrategies.put("adjective", new AdjectiveStrategy(pa));
-		wordClassStrategies.put("numeral", new NumeralStrategy(pa));
+		wordClassStrategies.put("noun", new NounStrategy(pa, sm));
+		wordClassStrategies.put("verb", new AlternativeVerbStrategy(pa, sm));
+		wordClassStrategies.put("adjective", new AdjectiveStrategy(pa, sm));
+		wordClassStrategies.put("numeral", new NumeralStrategy(pa, sm));
 		wordClassStrategies.put("adverb", new AdverbStrategy());
 		wordClassStrategies.put("pronoun", new PronounStrategy(pa));
 		wordClassStrategies.put("indeclinable", new IndeclinableStrategy());
 		wordClassStrategies.put("preposition", new IndeclinableStrategy());
-		wordClassStrategies.put("ordinalAdjective", new AdjectiveStrategy(pa));
+		wordClassStrategies.put("ordinalAdjective", new AdjectiveStrategy(pa, sm));
 		wordClassNullStrategy = new NullStrategy();
 
 		wcg = new WordClassGuesser(pa);
@@ -70,6 +84,14 @@ public class MorphologyGenerator
 	// Methods
 	////////////////////////////////////////////////////////////////
 
+	/**
+	 * Returns the paradigm accessor
+	 * @return paradigm accessor
+	 */
+	public ParadigmAccessor getParadigmAccessor () {
+		return pa;
+	}
+
 	/**
 	 * Returns all possible morphological word forms 
 	 * for the given lemma and the given word class
@@ -1,14 +1,16 @@
 package de.unitrier.daalft.pali.morphology;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
-import de.unitrier.daalft.pali.morphology.element.FeatureSet;
+import de.unitrier.daalft.pali.morphology.element.Feature;
 import de.unitrier.daalft.pali.morphology.element.Morph;
+import de.unitrier.daalft.pali.morphology.element.Morpheme;
 import de.unitrier.daalft.pali.morphology.paradigm.Paradigm;
 import de.unitrier.daalft.pali.morphology.paradigm.ParadigmAccessor;
 import de.unitrier.daalft.pali.morphology.tools.WordClassGuesser;
@@ -16,6 +18,11 @@ import de.unitrier.daalft.pali.morphology.tools.WordClassGuesser;
 
 /**
  * Class to stem words
+ * <p>
+ * The endings of every word class are compiled into a reversed
+ * suffix trie when the stemmer is created. Stemming repeatedly
+ * removes the longest ending found by walking the trie from the
+ * end of the word, without sorting or copying the endings
  * @author David
  *
  */
@@ -23,11 +30,48 @@ public class WordclassStemmer
 {
 
 	/**
-	 * List with word endings
+	 * Trie node, edges labelled with the characters
+	 * of the endings read backwards
 	 */
-	private List<String> endings;
+	private static class Node {
+		private char[] labels = new char[0];
+		private Node[] children = new Node[0];
+		/**
+		 * True if an ending starts at this node
+		 */
+		private boolean end;
+
+		private Node get (char c) {
+			for (int i = 0; i < labels.length; i++) {
+				if (labels[i] == c)
+					return children[i];
+			}
+			return null;
+		}
+
+		private Node getOrAdd (char c) {
+			Node n = get(c);
+			if (n != null)
+				return n;
+			n = new Node();
+			int l = labels.length;
+			labels = Arrays.copyOf(labels, l+1);
+			children = Arrays.copyOf(children, l+1);
+			labels[l] = c;
+			children[l] = n;
+			return n;
+		}
+	}
+
+	/**
+	 * Trie over all endings
+	 */
+	private Node endings;
+	/**
+	 * Tries over the endings of each word class
+	 */
+	private Map<String, Node> wordclassEndings;
 
-	private Paradigm p;
 	private WordClassGuesser wcg;
 
 	/**
@@ -39,101 +83,106 @@ public class WordclassStemmer
 	}
 
 	/**
-	 * Reads paradigms, fetches paradigms and populates list of endings
+	 * Reads paradigms, fetches paradigms and builds the tries of endings
 	 */
 	private void initialize(ParadigmAccessor pa)
 	{
-		p = pa.getParadigms();
-		endings = retainEndingsOnly(p);
+		Paradigm p = pa.getParadigms();
+		endings = new Node();
+		wordclassEndings = new HashMap<String, Node>();
+		for (Morpheme m : p.getMorphemes()) {
+			List<Node> tries = new ArrayList<Node>();
+			tries.add(endings);
+			for (Feature f : m.getFeatureSet()) {
+				if (!f.getKey().equals("paradigm"))
+					continue;
+				Node n = wordclassEndings.get(f.getValue());
+				if (n == null) {
+					n = new Node();
+					wordclassEndings.put(f.getValue(), n);
+				}
+				tries.add(n);
+			}
+			for (Morph morph : m.getAllomorphs()) {
+				for (Node n : tries)
+					add(n, morph.getMorph());
+			}
+		}
 		wcg = new WordClassGuesser(pa);
 	}
 
 	/**
-	 * Retains only endings from paradigms and discards all other information
-	 * @param lp list of paradigms
-	 * @return list of endings
+	 * Adds an ending to a trie
+	 * @param root trie
+	 * @param ending ending
 	 */
-	private List<String> retainEndingsOnly (Paradigm lp) {
-		if (lp == null)
-			return null;
-		List<String> l = new ArrayList<String>();		
-		for (Morph m : lp.getEndings()) {
-			l.add(m.getMorph());
-		}
-		return l;
+	private static void add (Node root, String ending) {
+		// an empty ending would never stop stemming
+		if (ending.isEmpty())
+			return;
+		Node n = root;
+		for (int i = ending.length() - 1; i >= 0; i--)
+			n = n.getOrAdd(ending.charAt(i));
+		n.end = true;
+	}
+
+	/**
+	 * Returns the trie of a word class, or of all
+	 * endings if the word class has none
+	 */
+	private Node getEndings (String pos) {
+		Node n = wordclassEndings.get(pos);
+		return n == null ? endings : n;
 	}
 
 	public List<String> stem (String word, String pos) {
-		sort(endings);
 		List<String> out = new ArrayList<String>();
-		List<String> endings = null;
-		Set<String> set = new HashSet<String>();
-		endings = retainEndingsOnly(p.getParadigmByFeatures(new FeatureSet("paradigm", pos)));
-		if (endings == null)
-			endings = this.endings;
-		sort(endings);
-		set.add(stemRecursive(word, endings));
-		out.addAll(set);
+		out.add(stem(word, getEndings(pos)));
 		return out;
 	}
 
 	/**
 	 * Applies the stemming algorithm on a word
 	 * <p>
-	 * Internally, the word is stemmed recursively by
-	 *  {@link #stemRecursive(String)} to eliminate multiple endings
+	 * Internally, the word is stemmed by {@link #stem(String, Node)}
+	 * to eliminate multiple endings
 	 * @param word word to stem
 	 * @return stemmed word
 	 */
 	public List<String> stem (String word) {
-		sort(endings);
 		List<String> out = new ArrayList<String>();
 		List<String> wordclasses = wcg.guessWordClassFromWordForm(word);
-		List<String> endings = null;
-		Set<String> set = new HashSet<String>();
 		if (wordclasses.size() == 0) {
-			out.add(stemRecursive(word, this.endings));
+			out.add(stem(word, this.endings));
 			return out;
 		}
+		Set<String> set = new HashSet<String>();
 		for (String pos : wordclasses) {
-			endings = retainEndingsOnly(p.getParadigmByFeatures(new FeatureSet("paradigm", pos)));
-			if (endings == null)
-				endings = this.endings;
-			sort(endings);
-			set.add(stemRecursive(word, endings));
+			set.add(stem(word, getEndings(pos)));
 		}
 		out.addAll(set);
 		return out;
 	}
 
 	/**
-	 * Recursively stems the word to eliminate all possible endings
+	 * Removes the longest ending until no ending is left
 	 * @param word word to stem
+	 * @param root trie of endings
 	 * @return stemmed word
 	 */
-	private String stemRecursive (String word, List<String> endings) {
-		for (String end : endings) {
-			if (word.endsWith(end)) {
-				int index = word.lastIndexOf(end);
-				return stemRecursive(word.substring(0, index), endings);
+	private String stem (String word, Node root) {
+		int length = word.length();
+		while (true) {
+			// walk backwards and remember the longest ending
+			int cut = -1;
+			Node n = root;
+			for (int i = length - 1; i >= 0 && (n = n.get(word.charAt(i))) != null; i--) {
+				if (n.end)
+					cut = i;
 			}
+			if (cut < 0)
+				return word.substring(0, length);
+			length = cut;
 		}
-		return word;
-	}
-
-	/**
-	 * Sorts the endings by length in descending order
-	 */
-	private void sort (List<String> list) {
-		Collections.sort(list, new Comparator<String>() {
-			@Override
-			public int compare(String o1, String o2) {
-				if (o1.length() > o2.length())
-					return -1;
-				if (o1.length() < o2.length())
-					return 1;
-				return 0;
-			}		
-		});
 	}
 }
@@ -56,12 +56,7 @@ public class ConstructedWord
 	 */
 	public ConstructedWord (String s, FeatureSet fs) {
 		word = s;
-		FeatureSet fsc = new FeatureSet();
-		for (Feature f : fs) 
-		{
-			fsc.add(f);
-		}
-		this.featureSet = fsc;
+		this.featureSet = fs.copy();
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////
@@ -89,10 +84,7 @@ public class ConstructedWord
 	 * @param fs feature set
 	 */
 	public void setFeatureSet (FeatureSet fs) {
-		FeatureSet fsc = new FeatureSet();
-		for (Feature f : fs)
-			fsc.add(f);
-		this.featureSet = fsc;
+		this.featureSet = fs.copy();
 	}
 	
 	/**
@@ -202,10 +194,6 @@ public class ConstructedWord
 		copy.stem = this.stem;
 		copy.lemma = this.lemma;
 		copy.word = this.word;
-		FeatureSet fs = new FeatureSet();
-		for (Feature f : this.featureSet) {
-			fs.add(new Feature(f.getKey(), f.getValue()));
-		}
 		copy.setFeatureSet(featureSet);
 		return copy;
 	}
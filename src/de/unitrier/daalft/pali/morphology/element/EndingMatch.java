@@ -0,0 +1,51 @@
+package de.unitrier.daalft.pali.morphology.element;
+/**
+ * Represents a morpheme whose allomorph was found
+ * at the end of a word
+ * @author David
+ *
+ */
+public class EndingMatch {
+
+	/**
+	 * Matched morpheme
+	 */
+	private Morpheme morpheme;
+	/**
+	 * Matched allomorph
+	 */
+	private String ending;
+
+	/**
+	 * Constructor
+	 * @param morpheme matched morpheme
+	 * @param ending matched allomorph
+	 */
+	public EndingMatch (Morpheme morpheme, String ending) {
+		this.morpheme = morpheme;
+		this.ending = ending;
+	}
+
+	/**
+	 * Returns the matched morpheme
+	 * @return morpheme
+	 */
+	public Morpheme getMorpheme () {
+		return morpheme;
+	}
+
+	/**
+	 * Returns the allomorph the word ends with
+	 * @return ending
+	 */
+	public String getEnding () {
+		return ending;
+	}
+
+	/**
+	 * Default toString method
+	 */
+	public String toString () {
+		return ending + ":" + morpheme.getFeatureSet();
+	}
+}
@@ -2,6 +2,8 @@ package de.unitrier.daalft.pali.morphology.element;
 
 /**
  * Represents a morphological key-value pair
+ * <p>
+ * Features are immutable, so that feature sets can share them
  * @author David
  *
  */
@@ -10,13 +12,13 @@ public class Feature {
 	/**
 	 * Key-value
 	 */
-	private String key, value;
+	private final String key, value;
 	
 	/**
 	 * Constructor
 	 */
 	public Feature () {
-		
+		this(null, null);
 	}
 	
 	/**
@@ -83,9 +85,4 @@ public class Feature {
 			return false;
 		return true;
 	}
-
-	public boolean setValue(String featureValue) {
-		this.value = featureValue;
-		return true;
-	}
 }
@@ -1,36 +1,84 @@
 package de.unitrier.daalft.pali.morphology.element;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
-import java.util.List;
+import java.util.NoSuchElementException;
 /**
  * Represents a set of features
+ * <p>
+ * Features are interned by the {@link FeatureVocabulary} and stored
+ * as their ids, in the order they have been added, and as a bitset
+ * of the ids. Adding a feature unknown to a full vocabulary throws
+ * an {@link IllegalStateException}. Set operations are mask operations on the bitset.
+ * Both arrays are never modified once assigned; a change replaces
+ * them, so copies can share them
  * @author David
  *
  */
 public class FeatureSet implements Iterable<Feature> {
 
+	private final static int[] NO_IDS = {};
+	private final static long[] NO_BITS = {};
+
+	/**
+	 * Feature ids in insertion order
+	 */
+	private int[] ids;
+	/**
+	 * Feature ids as bitset
+	 */
+	private long[] bits;
 	/**
-	 * Features
+	 * True if features cannot be added or changed
 	 */
-	private List<Feature> features;
-	
+	private boolean readOnly;
+
 	/**
 	 * Constructor
 	 */
 	public FeatureSet () {
-		features = new ArrayList<Feature>();
+		ids = NO_IDS;
+		bits = NO_BITS;
 	}
-	
+
 	/**
-	 * Constructor with feature
-	 * @param f feature
+	 * Constructor with features
+	 * @param features features
 	 */
-	public FeatureSet (Feature f) {
-		this();
-		features.add(f);
+	public FeatureSet (Feature... features) {
+		this(Arrays.asList(features));
+	}
+
+	/**
+	 * Constructor with features
+	 * <p>
+	 * Both arrays are allocated once, so prefer this
+	 * to repeated calls of {@link #add(Feature)}.
+	 * Repeated features are contained once
+	 * @param features features
+	 */
+	public FeatureSet (Collection<Feature> features) {
+		int[] i = new int[features.size()];
+		int max = -1;
+		int n = 0;
+		for (Feature f : features) {
+			int id = FeatureVocabulary.id(f);
+			i[n++] = id;
+			max = Math.max(max, id);
+		}
+		long[] b = max < 0 ? NO_BITS : new long[(max >> 6) + 1];
+		n = 0;
+		for (int id : i) {
+			if (hasBit(b, id))
+				continue;
+			b[id >> 6] |= 1L << id;
+			i[n++] = id;
+		}
+		ids = n == 0 ? NO_IDS : n < i.length ? Arrays.copyOf(i, n) : i;
+		bits = b;
 	}
-	
+
 	/**
 	 * Constructor with key-value pair
 	 * @param k key
@@ -39,14 +87,59 @@ public class FeatureSet implements Iterable<Feature> {
 	public FeatureSet (String k, String v) {
 		this(new Feature(k,v));
 	}
-	
+
+	/**
+	 * Returns a copy of this feature set
+	 * <p>
+	 * The copy shares the storage of this feature set
+	 * and is therefore as cheap as a reference
+	 * @return copy
+	 */
+	public FeatureSet copy () {
+		FeatureSet fs = new FeatureSet();
+		fs.ids = ids;
+		fs.bits = bits;
+		return fs;
+	}
+
+	/**
+	 * Returns a read-only copy of this feature set
+	 * <p>
+	 * Adding or changing features of the read-only copy throws
+	 * an exception; its {@link #copy()} can be changed again
+	 * @return read-only copy, this feature set if it is read-only
+	 */
+	public FeatureSet readOnly () {
+		if (readOnly)
+			return this;
+		FeatureSet fs = copy();
+		fs.readOnly = true;
+		return fs;
+	}
+
 	/**
 	 * Adds a feature to this feature set
 	 * @param f feature
-	 * @return true on success
+	 * @return true on success, false if the feature is already contained
 	 */
 	public boolean add (Feature f) {
-		return features.add(f);
+		checkWritable();
+		int id = FeatureVocabulary.id(f);
+		if (hasBit(bits, id))
+			return false;
+		int[] i = Arrays.copyOf(ids, ids.length + 1);
+		i[ids.length] = id;
+		ids = i;
+		bits = withBit(bits, id);
+		return true;
+	}
+
+	/**
+	 * Returns the number of features
+	 * @return size
+	 */
+	public int size () {
+		return ids.length;
 	}
 
 	/**
@@ -54,24 +147,44 @@ public class FeatureSet implements Iterable<Feature> {
 	 */
 	@Override
 	public Iterator<Feature> iterator() {
-		return features.iterator();
+		final int[] i = ids;
+		return new Iterator<Feature>() {
+			private int pos;
+
+			@Override
+			public boolean hasNext() {
+				return pos < i.length;
+			}
+
+			@Override
+			public Feature next() {
+				if (pos >= i.length)
+					throw new NoSuchElementException();
+				return FeatureVocabulary.get(i[pos++]);
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
 	}
-	
+
 	/**
 	 * Returns a string representation
 	 * @return string
 	 */
 	public String toString () {
 		StringBuilder sb = new StringBuilder("{");
-		for (Feature f : features) {
-			sb.append(f.toString());
+		for (int id : ids) {
+			sb.append(FeatureVocabulary.get(id).toString());
 			sb.append(";");
 		}
 		sb.deleteCharAt(sb.length()-1);
 		sb.append("}");
 		return sb.toString();
 	}
-	
+
 	/**
 	 * Checks whether the specified feature set <em>fs</em>
 	 * is a subset of this feature set
@@ -79,21 +192,18 @@ public class FeatureSet implements Iterable<Feature> {
 	 * @return true if fs is a subset of this feature set
 	 */
 	public boolean satisfies (FeatureSet fs) {
-		for (Feature f : fs) {
-			if (!features.contains(f)) {
+		long[] other = fs.bits;
+		for (int i = 0; i < other.length; i++) {
+			long mine = i < bits.length ? bits[i] : 0L;
+			if ((other[i] & ~mine) != 0)
 				return false;
-			}
 		}
 		return true;
 	}
 
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		result = prime * result
-				+ ((features == null) ? 0 : features.hashCode());
-		return result;
+		return Arrays.hashCode(bits);
 	}
 
 	@Override
@@ -105,38 +215,70 @@ public class FeatureSet implements Iterable<Feature> {
 		if (getClass() != obj.getClass())
 			return false;
 		FeatureSet other = (FeatureSet) obj;
-		if (features == null) {
-			if (other.features != null)
-				return false;
-		} else if (!features.equals(other.features))
-			return false;
-		return true;
+		return Arrays.equals(bits, other.bits);
 	}
 
 	public boolean contains(Feature f) {
-		for (Feature fe : features) {
-			if (fe.getKey().equals(f.getKey()) &&
-					fe.getValue().equals(f.getValue()))
-				return true;
-		}
-		return false;
+		return hasBit(bits, FeatureVocabulary.lookup(f));
 	}
 
 	public String getFeature(String name) {
-		for (Feature f : features) {
+		for (int id : ids) {
+			Feature f = FeatureVocabulary.get(id);
 			if (f.getKey().equals(name)) {
 				return f.getValue();
 			}
 		}
 		return "";
 	}
-	
+
 	public boolean setFeature(String featureName, String featureValue) {
-		for(Feature f : features) {
-			if (f.getKey().equals(featureName)) {
-				return f.setValue(featureValue);
+		checkWritable();
+		for (int i = 0; i < ids.length; i++) {
+			if (FeatureVocabulary.get(ids[i]).getKey().equals(featureName)) {
+				int id = FeatureVocabulary.id(new Feature(featureName, featureValue));
+				if (hasBit(bits, id)) {
+					// the new value is already contained, drop the old one
+					int[] c = new int[ids.length - 1];
+					System.arraycopy(ids, 0, c, 0, i);
+					System.arraycopy(ids, i + 1, c, i, c.length - i);
+					ids = c;
+				} else {
+					int[] c = ids.clone();
+					c[i] = id;
+					ids = c;
+				}
+				long[] b = NO_BITS;
+				for (int j : ids)
+					b = withBit(b, j);
+				bits = b;
+				return true;
 			}
 		}
 		return false;
 	}
+
+	private void checkWritable () {
+		if (readOnly)
+			throw new UnsupportedOperationException("Feature set is read-only");
+	}
+
+	////////////////////////////////////////////////////////////////
+	// Bitset
+	////////////////////////////////////////////////////////////////
+
+	private static boolean hasBit (long[] bits, int id) {
+		return id >= 0 && (id >> 6) < bits.length && (bits[id >> 6] & (1L << id)) != 0;
+	}
+
+	/**
+	 * Returns a copy of the bitset with the bit set; the
+	 * copy is as long as needed and no longer, so equal
+	 * sets have equal arrays
+	 */
+	private static long[] withBit (long[] bits, int id) {
+		long[] b = Arrays.copyOf(bits, Math.max(bits.length, (id >> 6) + 1));
+		b[id >> 6] |= 1L << id;
+		return b;
+	}
 }
@@ -0,0 +1,79 @@
+package de.unitrier.daalft.pali.morphology.element;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns features to small integer ids
+ * <p>
+ * The grammar uses a closed vocabulary of key-value pairs, so
+ * every distinct pair gets an id once and keeps it for the lifetime
+ * of the virtual machine. Ids are dense, starting at 0, and index
+ * the bits of a {@link FeatureSet}
+ * <br/><br/>
+ * The vocabulary is never shrunk, so it holds at most
+ * {@link #MAX_SIZE} features, far more than the grammar uses.
+ * Interning a new feature beyond that fails, so open-ended values
+ * read from files cannot grow it without limit
+ * @author David
+ *
+ */
+final class FeatureVocabulary {
+
+	/**
+	 * Maximum number of features
+	 */
+	final static int MAX_SIZE = 1 << 12;
+
+	private final static ConcurrentHashMap<Feature, Integer> ids = new ConcurrentHashMap<Feature, Integer>();
+	/**
+	 * Interned features by id
+	 */
+	private final static Feature[] features = new Feature[MAX_SIZE];
+	private static int size;
+
+	private FeatureVocabulary () {
+
+	}
+
+	/**
+	 * Returns the id of a feature, assigning one if it is new
+	 * @param f feature
+	 * @return id
+	 * @throws IllegalStateException if the feature is new and the vocabulary is full
+	 */
+	static int id (Feature f) {
+		Integer i = ids.get(f);
+		return i != null ? i : register(f);
+	}
+
+	/**
+	 * Returns the id of a feature
+	 * @param f feature
+	 * @return id or -1 if the feature has never been interned
+	 */
+	static int lookup (Feature f) {
+		Integer i = ids.get(f);
+		return i != null ? i : -1;
+	}
+
+	/**
+	 * Returns the interned feature of an id
+	 * @param id id
+	 * @return feature
+	 */
+	static Feature get (int id) {
+		return features[id];
+	}
+
+	private static synchronized int register (Feature f) {
+		Integer i = ids.get(f);
+		if (i != null)
+			return i;
+		if (size == MAX_SIZE)
+			throw new IllegalStateException("Feature vocabulary is full, cannot add " + f);
+		features[size] = f;
+		// published after the array slot, see get(int)
+		ids.put(f, size);
+		return size++;
+	}
+}
@@ -1,6 +1,7 @@
 package de.unitrier.daalft.pali.morphology.element;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 /**
  * Represents an abstract morpheme
@@ -17,6 +18,10 @@ public class Morpheme {
 	 * Concrete morph realizations
 	 */
 	private List<Morph> allomorphs;
+	/**
+	 * True if this morpheme cannot be changed
+	 */
+	private boolean readOnly;
 	
 	/**
 	 * Constructor
@@ -59,6 +64,22 @@ public class Morpheme {
 		this();
 		allomorphs.add(new Morph(m));
 	}
+
+	/**
+	 * Returns a read-only copy of this morpheme
+	 * <p>
+	 * The copy has a read-only feature set and list of
+	 * allomorphs; adding to it throws an exception
+	 * @return read-only copy, this morpheme if it is read-only
+	 */
+	public Morpheme readOnly () {
+		if (readOnly)
+			return this;
+		Morpheme m = new Morpheme(featureSet.readOnly(),
+				Collections.unmodifiableList(new ArrayList<Morph>(allomorphs)));
+		m.readOnly = true;
+		return m;
+	}
 	
 	/**
 	 * Returns the feature set
@@ -85,6 +106,7 @@ public class Morpheme {
 	 * @return true on success
 	 */
 	public boolean add (Morph m) {
+		checkWritable();
 		return allomorphs.add(m);
 	}
 	
@@ -93,6 +115,7 @@ public class Morpheme {
 	 * @param fs feature set
 	 */
 	public void addFS (FeatureSet fs) {
+		checkWritable();
 		featureSet = fs;
 	}
 	
@@ -116,6 +139,7 @@ public class Morpheme {
 	 * @param allomorphs list of morphs
 	 */
 	public void add(List<Morph> allomorphs) {
+		checkWritable();
 		this.allomorphs.addAll(allomorphs);
 	}
 
@@ -204,4 +228,9 @@ public class Morpheme {
 		}
 		return false;
 	}
+
+	private void checkWritable () {
+		if (readOnly)
+			throw new UnsupportedOperationException("Morpheme is read-only");
+	}
 }
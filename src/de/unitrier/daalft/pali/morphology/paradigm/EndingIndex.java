@@ -0,0 +1,211 @@
+package de.unitrier.daalft.pali.morphology.paradigm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+
+import de.unitrier.daalft.pali.morphology.element.EndingMatch;
+import de.unitrier.daalft.pali.morphology.element.Morph;
+import de.unitrier.daalft.pali.morphology.element.Morpheme;
+/**
+ * Reversed suffix trie over all endings of a paradigm
+ * <p>
+ * The trie is built once from the allomorphs of every morpheme.
+ * Looking up a word walks the trie from the last character of
+ * the word towards the first and collects every morpheme with
+ * an allomorph the word ends with. The cost of a lookup therefore
+ * depends on the length of the word, not on the size of the paradigm
+ * @author David
+ *
+ */
+public class EndingIndex {
+
+	/**
+	 * Trie node
+	 */
+	private static class Node {
+		/**
+		 * Outgoing edge labels, parallel to children
+		 */
+		private char[] labels = new char[0];
+		/**
+		 * Child nodes
+		 */
+		private Node[] children = new Node[0];
+		/**
+		 * Morphemes with an allomorph ending at this node
+		 */
+		private int[] morphemes = new int[0];
+		/**
+		 * Position of the allomorph within its morpheme,
+		 * parallel to morphemes
+		 */
+		private int[] allomorphs = new int[0];
+
+		/**
+		 * Returns the child reached by the given character
+		 * @param c character
+		 * @return child or null
+		 */
+		private Node get (char c) {
+			for (int i = 0; i < labels.length; i++) {
+				if (labels[i] == c)
+					return children[i];
+			}
+			return null;
+		}
+
+		/**
+		 * Returns the child reached by the given character,
+		 * creating it if necessary
+		 * @param c character
+		 * @return child
+		 */
+		private Node getOrAdd (char c) {
+			Node n = get(c);
+			if (n != null)
+				return n;
+			n = new Node();
+			int l = labels.length;
+			labels = Arrays.copyOf(labels, l+1);
+			children = Arrays.copyOf(children, l+1);
+			labels[l] = c;
+			children[l] = n;
+			return n;
+		}
+
+		/**
+		 * Marks this node as end of an allomorph
+		 * @param morpheme morpheme index
+		 * @param allomorph allomorph index
+		 */
+		private void mark (int morpheme, int allomorph) {
+			int l = morphemes.length;
+			morphemes = Arrays.copyOf(morphemes, l+1);
+			allomorphs = Arrays.copyOf(allomorphs, l+1);
+			morphemes[l] = morpheme;
+			allomorphs[l] = allomorph;
+		}
+	}
+
+	/**
+	 * Root of the trie
+	 */
+	private Node root;
+	/**
+	 * Indexed morphemes
+	 */
+	private List<Morpheme> morphemes;
+	/**
+	 * Value of feature <em>paradigm</em> per morpheme
+	 */
+	private String[] paradigmNames;
+	/**
+	 * All values of feature <em>paradigm</em>
+	 */
+	private Set<String> paradigms;
+
+	/**
+	 * Constructor
+	 * @param p paradigm to index
+	 */
+	public EndingIndex (Paradigm p) {
+		root = new Node();
+		morphemes = new ArrayList<Morpheme>(p.getMorphemes());
+		paradigmNames = new String[morphemes.size()];
+		paradigms = new HashSet<String>();
+		for (int i = 0; i < morphemes.size(); i++) {
+			Morpheme m = morphemes.get(i);
+			paradigmNames[i] = m.getFeatureByName("paradigm");
+			paradigms.add(paradigmNames[i]);
+			List<Morph> allomorphs = m.getAllomorphs();
+			for (int j = 0; j < allomorphs.size(); j++) {
+				String ending = allomorphs.get(j).getMorph();
+				if (ending == null)
+					continue;
+				Node n = root;
+				for (int k = ending.length()-1; k >= 0; k--) {
+					n = n.getOrAdd(ending.charAt(k));
+				}
+				n.mark(i, j);
+			}
+		}
+	}
+
+	/**
+	 * Returns all morphemes the given word can end with
+	 * <p>
+	 * Equivalent to calling {@link Morpheme#isApplicable(String)}
+	 * and {@link Morpheme#match(String)} on every indexed morpheme:
+	 * every morpheme is reported once, with the first of its
+	 * allomorphs that the word ends with, in paradigm order
+	 * @param word word
+	 * @return matching morphemes and endings
+	 */
+	public List<EndingMatch> match (String word) {
+		return match(word, null);
+	}
+
+	/**
+	 * Returns all morphemes of the given paradigm type that the
+	 * given word can end with
+	 * <p>
+	 * The paradigm type is the value of the feature <em>paradigm</em>,
+	 * i.e. <em>noun</em>. If the type is <b>null</b>, morphemes of all
+	 * types are returned
+	 * @param word word
+	 * @param paradigm paradigm type or null
+	 * @return matching morphemes and endings
+	 * @see #match(String)
+	 */
+	public List<EndingMatch> match (String word, String paradigm) {
+		// morpheme index -> first matching allomorph index
+		Map<Integer, Integer> hits = new TreeMap<Integer, Integer>();
+		collect(root, paradigm, hits);
+		Node n = root;
+		for (int k = word.length()-1; k >= 0 && n != null; k--) {
+			n = n.get(word.charAt(k));
+			if (n != null)
+				collect(n, paradigm, hits);
+		}
+		List<EndingMatch> out = new ArrayList<EndingMatch>(hits.size());
+		for (Entry<Integer, Integer> e : hits.entrySet()) {
+			Morpheme m = morphemes.get(e.getKey());
+			out.add(new EndingMatch(m, m.getAllomorphs().get(e.getValue()).getMorph()));
+		}
+		return out;
+	}
+
+	/**
+	 * Checks whether this index contains morphemes
+	 * of the given paradigm type
+	 * @param paradigm paradigm type
+	 * @return true if paradigm type is indexed
+	 */
+	public boolean contains (String paradigm) {
+		return paradigms.contains(paradigm);
+	}
+
+	/**
+	 * Adds the allomorphs ending at the given node to the hits,
+	 * keeping the first allomorph per morpheme
+	 * @param n node
+	 * @param paradigm paradigm type or null
+	 * @param hits hits
+	 */
+	private void collect (Node n, String paradigm, Map<Integer, Integer> hits) {
+		for (int i = 0; i < n.morphemes.length; i++) {
+			int m = n.morphemes[i];
+			if (paradigm != null && !paradigm.equals(paradigmNames[m]))
+				continue;
+			Integer prev = hits.get(m);
+			if (prev == null || prev > n.allomorphs[i])
+				hits.put(m, n.allomorphs[i]);
+		}
+	}
+}
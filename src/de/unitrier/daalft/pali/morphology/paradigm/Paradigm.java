@@ -1,8 +1,14 @@
 package de.unitrier.daalft.pali.morphology.paradigm;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import de.unitrier.daalft.pali.morphology.element.Feature;
 import de.unitrier.daalft.pali.morphology.element.FeatureSet;
 import de.unitrier.daalft.pali.morphology.element.Morph;
 import de.unitrier.daalft.pali.morphology.element.Morpheme;
@@ -13,16 +19,68 @@ import de.unitrier.daalft.pali.morphology.element.Morpheme;
  */
 public class Paradigm {
 
+	/**
+	 * Read-only paradigm returned by {@link Paradigm#getParadigmByFeatures(FeatureSet)}
+	 * and {@link Paradigm#readOnly()}
+	 */
+	private static class View extends Paradigm {
+
+		private View (List<Morpheme> morphemes) {
+			super(Collections.unmodifiableList(morphemes));
+		}
+
+		@Override
+		public void add (Morpheme m) {
+			throw new UnsupportedOperationException("Paradigm view cannot be modified");
+		}
+	}
+
 	/**
 	 * Feature map
 	 */
 	private List<Morpheme> morphemes;
 
+	/**
+	 * Positions of the morphemes per feature, built on demand
+	 * for the first {@link #indexed} morphemes
+	 */
+	private Map<Feature, BitSet> index;
+	private volatile int indexed = -1;
+	/**
+	 * Sub-paradigms already requested, see {@link #getParadigmByFeatures(FeatureSet)}
+	 */
+	private volatile Map<FeatureSet, Paradigm> views;
+	/**
+	 * Marks a request without result in {@link #views}
+	 */
+	private final static Paradigm NONE = new View(new ArrayList<Morpheme>());
+
 	/**
 	 * No-argument constructor
 	 */
 	public Paradigm () {
-		morphemes = new ArrayList<Morpheme>();
+		this(new ArrayList<Morpheme>());
+	}
+
+	private Paradigm (List<Morpheme> morphemes) {
+		this.morphemes = morphemes;
+	}
+
+	/**
+	 * Returns a read-only copy of this paradigm
+	 * <p>
+	 * The copy consists of read-only copies of the morphemes,
+	 * so neither the paradigm nor its morphemes and their
+	 * feature sets can be changed through it
+	 * @return read-only copy
+	 * @see Morpheme#readOnly()
+	 */
+	public Paradigm readOnly () {
+		List<Morpheme> l = new ArrayList<Morpheme>(morphemes.size());
+		for (Morpheme m : morphemes) {
+			l.add(m.readOnly());
+		}
+		return new View(l);
 	}
 
 	/**
@@ -103,20 +161,76 @@ public class Paradigm {
 	 * class)
 	 * <br/><br/>
 	 * <b>If the resulting Paradigm is empty, null is returned!</b>
+	 * <br/><br/>
+	 * The morphemes are looked up in an inverted index from
+	 * features to morpheme positions and the result is kept, so
+	 * repeated requests return the same paradigm. The result
+	 * is read-only: adding morphemes to it or changing its
+	 * list of morphemes throws an exception. Its morphemes are
+	 * shared with this paradigm
 	 * @param feat feature set
 	 * @return paradigm matching feature set
 	 */
 	public Paradigm getParadigmByFeatures (FeatureSet feat) {
-		Paradigm out = new Paradigm();
-		for (Morpheme m : morphemes) {
-			if (m.getFeatureSet().satisfies(feat)) {
-				Morpheme newMorpheme = new Morpheme();
-				newMorpheme.add(m.getAllomorphs());
-				newMorpheme.addFS(m.getFeatureSet());
-				out.add(newMorpheme);
+		Map<FeatureSet, Paradigm> v = views;
+		Paradigm out = (v != null && indexed == morphemes.size()) ? v.get(feat) : null;
+		if (out == null)
+			out = select(feat);
+		return out == NONE ? null : out;
+	}
+
+	/**
+	 * Selects the morphemes satisfying a feature set by intersecting
+	 * their positions, (re)building the index if morphemes have been
+	 * added since
+	 * @param feat feature set
+	 * @return paradigm or {@link #NONE}
+	 */
+	private synchronized Paradigm select (FeatureSet feat) {
+		if (indexed != morphemes.size()) {
+			Map<Feature, BitSet> idx = new HashMap<Feature, BitSet>();
+			for (int i = 0; i < morphemes.size(); i++) {
+				for (Feature f : morphemes.get(i).getFeatureSet()) {
+					BitSet b = idx.get(f);
+					if (b == null) {
+						b = new BitSet();
+						idx.put(f, b);
+					}
+					b.set(i);
+				}
 			}
+			index = idx;
+			views = new ConcurrentHashMap<FeatureSet, Paradigm>();
+			indexed = morphemes.size();
 		}
-		return (out.isEmpty())?null:out;
+		Paradigm out = views.get(feat);
+		if (out != null)
+			return out;
+		BitSet hits = null;
+		for (Feature f : feat) {
+			BitSet b = index.get(f);
+			if (b == null) {
+				hits = new BitSet();
+				break;
+			}
+			if (hits == null) {
+				hits = (BitSet) b.clone();
+			} else {
+				hits.and(b);
+			}
+		}
+		List<Morpheme> selected = new ArrayList<Morpheme>();
+		if (hits == null) {
+			// no constraints
+			selected.addAll(morphemes);
+		} else {
+			for (int i = hits.nextSetBit(0); i >= 0; i = hits.nextSetBit(i + 1))
+				selected.add(morphemes.get(i));
+		}
+		out = selected.isEmpty() ? NONE : new View(selected);
+		// the key must not change with the caller's feature set
+		views.put(feat.copy(), out);
+		return out;
 	}
 
 	public boolean isEmpty () {
@@ -154,7 +268,7 @@ public class Paradigm {
 			return true;
 		if (obj == null)
 			return false;
-		if (getClass() != obj.getClass())
+		if (!(obj instanceof Paradigm))
 			return false;
 		Paradigm other = (Paradigm) obj;
 		if (morphemes == null) {
@@ -186,7 +300,7 @@ public class Paradigm {
 				Morph morph = new Morph(mo.getMorph(), mo.getOccurrence());
 				morpheme.add(morph);
 			}
-			morpheme.addFS(m.getFeatureSet());
+			morpheme.addFS(m.getFeatureSet().copy());
 			copy.add(morpheme);
 		}
 		//copy.morphemes.removeAll(p2.morphemes);
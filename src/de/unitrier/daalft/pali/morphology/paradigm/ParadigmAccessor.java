@@ -14,15 +14,46 @@ public class ParadigmAccessor {
 	 * Paradigm Reader
 	 */
 	private ParadigmReader pr;
+	/**
+	 * Ending index over all paradigms
+	 */
+	private EndingIndex ei;
+	/**
+	 * Index of the pronoun forms
+	 */
+	private PronounIndex pi;
 	
 	/**
 	 * Constructor
 	 */
 	public ParadigmAccessor () throws Exception
 	{
-		pr = new ParadigmReader();
+		this(new ParadigmReader());
+	}
+
+	/**
+	 * Constructor
+	 * @param pr paradigm reader holding the paradigms
+	 */
+	public ParadigmAccessor (ParadigmReader pr)
+	{
+		this.pr = pr;
+		ei = new EndingIndex(pr.getParadigm());
+		pi = new PronounIndex(pr.getPronounParadigm());
 	}
 	
+	/**
+	 * Returns an accessor holding read-only copies of the
+	 * paradigms of this accessor
+	 * @return read-only copy, this accessor if it is read-only
+	 * @see ParadigmReader#readOnly()
+	 */
+	public ParadigmAccessor readOnly () {
+		if (pr.isReadOnly())
+			return this;
+		return new ParadigmAccessor(pr.readOnly());
+	}
+
 	/**
 	 * Returns a list of Paradigms that satisfy the constraints
 	 * specified by the feature map
@@ -41,6 +72,22 @@ public class ParadigmAccessor {
 		return pr.getParadigm();
 	}
 	
+	/**
+	 * Returns the ending index over all paradigms
+	 * @return ending index
+	 */
+	public EndingIndex getEndingIndex () {
+		return ei;
+	}
+	
+	/**
+	 * Returns the index of the pronoun forms
+	 * @return pronoun index
+	 */
+	public PronounIndex getPronounIndex () {
+		return pi;
+	}
+	
 	/**
 	 * Returns the full noun paradigm
 	 * @return noun paradigm
@@ -5,6 +5,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStreamReader;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.TransformerException;
@@ -34,9 +35,9 @@ public class ParadigmReader
 	// Constants
 	////////////////////////////////////////////////////////////////
 
-	private final static String DEFAULT_PARADIGMS_FILEPATH = "./data/grammar/fullGrammar5.xml";
-	private final static String IRREGULAR_NOUNS_FILEPATH = "./data/grammar/irregularNoun.txt";
-	private final static String IRREGULAR_NUMERALS_FILEPATH = "./data/grammar/irregularNumerals.txt";
+	public final static String DEFAULT_PARADIGMS_FILEPATH = "./data/grammar/fullGrammar5.xml";
+	public final static String IRREGULAR_NOUNS_FILEPATH = "./data/grammar/irregularNoun.txt";
+	public final static String IRREGULAR_NUMERALS_FILEPATH = "./data/grammar/irregularNumerals.txt";
 
 	////////////////////////////////////////////////////////////////
 	// Variables
@@ -55,11 +56,15 @@ public class ParadigmReader
 	/**
 	 * Irregular noun handler
 	 */
-	private static IrregularNouns irrNoun;
+	private IrregularNouns irrNoun;
 	/**
 	 * Irregular numeral handler
 	 */
-	private static IrregularNumerals irrNum;
+	private IrregularNumerals irrNum;
+	/**
+	 * True if created by {@link #readOnly()}
+	 */
+	private boolean readOnly;
 	/**
 	 * Irregular paths
 	 */
@@ -86,6 +91,19 @@ public class ParadigmReader
 		init();
 	}
 
+	/**
+	 * Constructor with already built paradigms
+	 * @param paradigms paradigms
+	 * @param irrNoun irregular noun paradigms
+	 * @param irrNum irregular numeral paradigms
+	 */
+	public ParadigmReader (Paradigm paradigms, IrregularNouns irrNoun, IrregularNumerals irrNum)
+	{
+		this.paradigms = paradigms;
+		this.irrNoun = irrNoun;
+		this.irrNum = irrNum;
+	}
+
 	////////////////////////////////////////////////////////////////
 	// Methods
 	////////////////////////////////////////////////////////////////
@@ -113,12 +131,11 @@ public class ParadigmReader
 		BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(filename), "UTF-8"));
 		String l = "";
 		Paradigm current = new Paradigm();
-		FeatureSet featMap = new FeatureSet();
+		List<Feature> featList = new ArrayList<Feature>();
 		while ((l = br.readLine())!=null) {
 			if (l.equals("=")) {
 				i.add(current);
 				current = new Paradigm();
-				featMap = new FeatureSet();
 				continue;
 			}
 			String features = l.substring(l.indexOf('{')+1, l.indexOf('}'));
@@ -126,10 +143,10 @@ public class ParadigmReader
 			for (String feat : features.split(",")) {
 				String attribute = feat.split("=")[0].trim();
 				String value = feat.split("=")[1].trim();
-				featMap.add(new Feature(attribute, value));
+				featList.add(new Feature(attribute, value));
 			}
-			current.add(new Morpheme(featMap, morph));
-			featMap = new FeatureSet();
+			current.add(new Morpheme(new FeatureSet(featList), morph));
+			featList.clear();
 		}
 		br.close();
 	}
@@ -157,8 +174,8 @@ public class ParadigmReader
 	 */
 	private Paradigm buildParadigm(List<String> list, String delim, String odelim) {
 		Paradigm output = new Paradigm();
+		List<Feature> featList = new ArrayList<Feature>();
 		for (String s : list) {		
-			FeatureSet map = new FeatureSet();
 			String[] info = s.split(delim);
 			String morph = info[0];
 			Morph m = null;
@@ -171,29 +188,17 @@ public class ParadigmReader
 			for (int i = 1; i < info.length; i++) {
 				String[] keyvalue = info[i].split("=");
 				if (keyvalue.length > 1) {
-					map.add(new Feature(keyvalue[0].split(" ")[0], keyvalue[1].replaceAll("\"", "")));
+					featList.add(new Feature(keyvalue[0].split(" ")[0], keyvalue[1].replaceAll("\"", "")));
 				} else 
 				{
-					map.add(new Feature("subtype", info[i]));
+					featList.add(new Feature("subtype", info[i]));
 				}
 			}
-			output.add(new Morpheme(copy(map), m));
+			output.add(new Morpheme(new FeatureSet(featList), m));
+			featList.clear();
 		}
 		return output;
 	}
-
-	/**
-	 * Creates a deep copy of a feature set
-	 * @param fs feature set
-	 * @return deep copy
-	 */
-	private FeatureSet copy (FeatureSet fs) {
-		FeatureSet copy = new FeatureSet();
-		for (Feature f : fs) {
-			copy.add(f);
-		}
-		return copy;
-	}
 	
 	/**
 	 * Returns a Paradigm that is a subset of all paradigms that satisfy the constraints
@@ -209,6 +214,28 @@ public class ParadigmReader
 		return null;
 	}
 
+	/**
+	 * Returns a reader holding read-only copies of the
+	 * paradigms and irregular paradigms of this reader
+	 * @return read-only copy, this reader if it is read-only
+	 * @see Paradigm#readOnly()
+	 */
+	public ParadigmReader readOnly () {
+		if (readOnly)
+			return this;
+		ParadigmReader pr = new ParadigmReader(paradigms.readOnly(), irrNoun.readOnly(), irrNum.readOnly());
+		pr.readOnly = true;
+		return pr;
+	}
+
+	/**
+	 * Checks whether this reader was created by {@link #readOnly()}
+	 * @return true if read-only
+	 */
+	boolean isReadOnly () {
+		return readOnly;
+	}
+
 	/**
 	 * Returns the generated paradigm
 	 * @return paradigms
@@ -253,8 +280,7 @@ public class ParadigmReader
 	 * @return suffix paradigm
 	 */
 	public Paradigm getSuffixParadigm () {
-		FeatureSet map = new FeatureSet("paradigm", "affix");
-		map.add(new Feature("subtype", "suffix"));
+		FeatureSet map = new FeatureSet(new Feature("paradigm", "affix"), new Feature("subtype", "suffix"));
 		Paradigm p = getParadigmsByFeatures(map);
 
 		return p;
@@ -265,8 +291,7 @@ public class ParadigmReader
 	 * @return prefix paradigm
 	 */
 	public Paradigm getPrefixParadigm () {
-		FeatureSet map = new FeatureSet("paradigm", "affix");
-		map.add(new Feature("subtype", "prefix"));
+		FeatureSet map = new FeatureSet(new Feature("paradigm", "affix"), new Feature("subtype", "prefix"));
 		return getParadigmsByFeatures(map);
 	}
 	
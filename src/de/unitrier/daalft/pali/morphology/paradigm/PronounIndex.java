@@ -0,0 +1,115 @@
+package de.unitrier.daalft.pali.morphology.paradigm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.unitrier.daalft.pali.morphology.element.ConstructedWord;
+import de.unitrier.daalft.pali.morphology.element.Feature;
+import de.unitrier.daalft.pali.morphology.element.FeatureSet;
+import de.unitrier.daalft.pali.morphology.element.Morph;
+import de.unitrier.daalft.pali.morphology.element.Morpheme;
+/**
+ * Index from pronoun forms to their analyses
+ * <p>
+ * Built once from the pronoun paradigm. For every allomorph, the
+ * lemmata are the forms of the same pronoun in the nominative
+ * singular, so analyzing a pronoun is a single hash lookup
+ * instead of a scan over the paradigm. Rare forms have the
+ * lemmata of the common ones
+ * @author David
+ *
+ */
+public class PronounIndex {
+
+	/**
+	 * Lemma and feature set
+	 */
+	private static class Analysis {
+		private final String lemma;
+		private final FeatureSet featureSet;
+
+		private Analysis (String lemma, FeatureSet featureSet) {
+			this.lemma = lemma;
+			this.featureSet = featureSet;
+		}
+	}
+
+	/**
+	 * Analyses per form
+	 */
+	private Map<String, List<Analysis>> index;
+
+	/**
+	 * Constructor
+	 * @param pronouns pronoun paradigm, may be null
+	 */
+	public PronounIndex (Paradigm pronouns) {
+		index = new HashMap<String, List<Analysis>>();
+		if (pronouns == null)
+			return;
+		List<Feature> feat = new ArrayList<Feature>();
+		for (Morpheme mo : pronouns.getMorphemes()) {
+			feat.clear();
+			for (Feature f : mo.getFeatureSet()) {
+				if (f.getKey().equals("case")) {
+					feat.add(new Feature("case", "nominative"));
+				} else if (f.getKey().equals("number")) {
+					feat.add(new Feature("number", "singular"));
+				} else if (!(f.getKey().equals("subtype") && f.getValue().equals("rare"))) {
+					feat.add(f);
+				}
+			}
+			Paradigm p = pronouns.getParadigmByFeatures(new FeatureSet(feat));
+			if (p == null)
+				continue;
+			List<Analysis> analyses = new ArrayList<Analysis>();
+			for (Morph m : p.getEndings()) {
+				analyses.add(new Analysis(m.getMorph(), mo.getFeatureSet()));
+			}
+			// a morpheme matches once, even with repeated allomorphs
+			Set<String> forms = new HashSet<String>();
+			for (Morph m : mo.getAllomorphs()) {
+				if (!forms.add(m.getMorph()))
+					continue;
+				List<Analysis> l = index.get(m.getMorph());
+				if (l == null) {
+					l = new ArrayList<Analysis>();
+					index.put(m.getMorph(), l);
+				}
+				l.addAll(analyses);
+			}
+		}
+	}
+
+	/**
+	 * Checks whether a word is a pronoun form
+	 * @param word word
+	 * @return true if the word is a pronoun form
+	 */
+	public boolean contains (String word) {
+		return index.containsKey(word);
+	}
+
+	/**
+	 * Returns the analyses of a pronoun form
+	 * @param word word
+	 * @return analyses, empty if the word is no pronoun form
+	 */
+	public List<ConstructedWord> lookup (String word) {
+		List<Analysis> l = index.get(word);
+		if (l == null)
+			return Collections.emptyList();
+		List<ConstructedWord> out = new ArrayList<ConstructedWord>(l.size());
+		for (Analysis a : l) {
+			ConstructedWord cw = new ConstructedWord(word, a.featureSet);
+			cw.setLemma(a.lemma);
+			out.add(cw);
+		}
+		return out;
+	}
+}
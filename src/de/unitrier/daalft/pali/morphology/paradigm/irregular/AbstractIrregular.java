@@ -0,0 +1,117 @@
+package de.unitrier.daalft.pali.morphology.paradigm.irregular;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.unitrier.daalft.pali.morphology.element.Morph;
+import de.unitrier.daalft.pali.morphology.element.Morpheme;
+import de.unitrier.daalft.pali.morphology.paradigm.Paradigm;
+/**
+ * Abstract irregular handler extended by all irregular handlers
+ * <p>
+ * Every form of an added paradigm is indexed, so that
+ * {@link #isIrregular(String)}, {@link #getForms(String)} and
+ * {@link #getLemma(String)} are hash lookups. A form contained
+ * in several paradigms belongs to the paradigm added first.
+ * Paradigms must be complete when they are added, since their
+ * lemma forms are looked up once on adding
+ * @author David
+ *
+ */
+public abstract class AbstractIrregular implements Irregular {
+
+	/**
+	 * An irregular paradigm and its lemma paradigm
+	 */
+	private static class Entry {
+		private final Paradigm forms;
+		private final Paradigm lemma;
+
+		private Entry (Paradigm forms, Paradigm lemma) {
+			this.forms = forms;
+			this.lemma = lemma;
+		}
+	}
+
+	/**
+	 * List of paradigms
+	 */
+	private List<Paradigm> paradigms;
+	/**
+	 * Paradigm per form
+	 */
+	private Map<String, Entry> index;
+
+	/**
+	 * Constructor
+	 */
+	public AbstractIrregular () {
+		paradigms = new ArrayList<Paradigm>();
+		index = new HashMap<String, Entry>();
+	}
+
+	public void add (Paradigm p) {
+		paradigms.add(p);
+		Entry e = new Entry(p, findLemma(p));
+		for (Morpheme m : p.getMorphemes()) {
+			for (Morph n : m.getAllomorphs()) {
+				if (!index.containsKey(n.getMorph()))
+					index.put(n.getMorph(), e);
+			}
+		}
+	}
+
+	/**
+	 * Adds read-only copies of the paradigms of this handler to
+	 * an empty handler, which cannot be added to afterwards
+	 * @param copy empty handler
+	 * @return copy
+	 * @see Paradigm#readOnly()
+	 */
+	protected <T extends AbstractIrregular> T copyReadOnly (T copy) {
+		AbstractIrregular c = copy;
+		for (Paradigm p : paradigms) {
+			c.add(p.readOnly());
+		}
+		c.paradigms = Collections.unmodifiableList(c.paradigms);
+		return copy;
+	}
+
+	public List<Paradigm> getParadigms () {
+		return paradigms;
+	}
+
+	public boolean isIrregular (String word) {
+		return index.containsKey(word);
+	}
+
+	public Paradigm getForms (String word) {
+		Entry e = index.get(word);
+		return e == null ? null : e.forms;
+	}
+
+	public Paradigm getLemma (String word) {
+		Entry e = index.get(word);
+		return e == null ? null : e.lemma;
+	}
+
+	/**
+	 * Returns the lemma forms of an irregular paradigm
+	 * <p>
+	 * Called once per paradigm when it is added
+	 * @param p irregular paradigm
+	 * @return lemma paradigm or null
+	 */
+	protected abstract Paradigm findLemma (Paradigm p);
+
+	public String toString () {
+		StringBuilder sb = new StringBuilder();
+		for (Paradigm p : paradigms) {
+			sb.append(p);
+		}
+		return sb.toString();
+	}
+}
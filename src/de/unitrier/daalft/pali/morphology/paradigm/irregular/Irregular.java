@@ -1,5 +1,7 @@
 package de.unitrier.daalft.pali.morphology.paradigm.irregular;
 
+import java.util.List;
+
 import de.unitrier.daalft.pali.morphology.paradigm.Paradigm;
 /**
  * Interface for irregular handlers
@@ -13,6 +15,11 @@ public interface Irregular {
 	 * @param current paradigm
 	 */
 	void add (Paradigm current);
+	/**
+	 * Returns all irregular paradigms of this handler
+	 * @return irregular paradigms
+	 */
+	List<Paradigm> getParadigms ();
 	/**
 	 * Checks whether a given word is irregular
 	 * <p>
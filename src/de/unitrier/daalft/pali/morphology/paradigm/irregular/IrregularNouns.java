@@ -1,11 +1,7 @@
 package de.unitrier.daalft.pali.morphology.paradigm.irregular;
 
-import java.util.ArrayList;
-import java.util.List;
 import de.unitrier.daalft.pali.morphology.element.Feature;
 import de.unitrier.daalft.pali.morphology.element.FeatureSet;
-import de.unitrier.daalft.pali.morphology.element.Morph;
-import de.unitrier.daalft.pali.morphology.element.Morpheme;
 import de.unitrier.daalft.pali.morphology.paradigm.Paradigm;
 /**
  * Utility class that wraps functionality related to irregular noun paradigms
@@ -14,70 +10,32 @@ import de.unitrier.daalft.pali.morphology.paradigm.Paradigm;
  * @author David
  *
  */
-public class IrregularNouns implements Irregular {
+public class IrregularNouns extends AbstractIrregular {
 
 	/**
-	 * List of paradigms
+	 * Nominative singular
 	 */
-	private List<Paradigm> paradigms;
+	private final FeatureSet lemmaFeatures;
 
 	/**
 	 * Constructor
 	 */
 	public IrregularNouns () {
-		paradigms = new ArrayList<Paradigm>();
+		lemmaFeatures = new FeatureSet();
+		lemmaFeatures.add(new Feature("case", "nominative"));
+		lemmaFeatures.add(new Feature("number", "singular"));
 	}
 
-	public void add (Paradigm p) {
-		paradigms.add(p);
-	}
-
-	public boolean isIrregular (String word) {
-		for (Paradigm p : paradigms) {
-			for (Morpheme m : p.getMorphemes()) {
-				for (Morph n : m.getAllomorphs()) {
-					if (n.getMorph().equals(word))
-						return true;
-				}
-			}
-		}
-		return false;
-	}
-
-	public Paradigm getForms (String word) {
-		for (Paradigm p : paradigms) {
-			for (Morpheme m : p.getMorphemes()) {
-				for (Morph n : m.getAllomorphs()) {
-					if (n.getMorph().equals(word))
-						return p;
-				}
-			}
-		}
-		return null;
-	}
-
-	public Paradigm getLemma (String word) {
-		FeatureSet feat = new FeatureSet();
-		
-		feat.add(new Feature("case", "nominative"));
-		feat.add(new Feature("number", "singular"));
-		for (Paradigm p : paradigms) {
-			for (Morpheme m : p.getMorphemes()) {
-				for (Morph n : m.getAllomorphs()) {
-					if (n.getMorph().equals(word)) {
-						return p.getParadigmByFeatures(feat);
-					}
-				}
-			}
-		}
-		return null;
+	/**
+	 * Returns a read-only copy of this handler
+	 * @return read-only copy
+	 */
+	public IrregularNouns readOnly () {
+		return copyReadOnly(new IrregularNouns());
 	}
 
-	public String toString () {
-		StringBuilder sb = new StringBuilder();
-		for (Paradigm p : paradigms) {
-			sb.append(p);
-		}
-		return sb.toString();
+	@Override
+	protected Paradigm findLemma (Paradigm p) {
+		return p.getParadigmByFeatures(lemmaFeatures);
 	}
 }
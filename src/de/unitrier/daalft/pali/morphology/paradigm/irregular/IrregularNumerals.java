@@ -1,11 +1,7 @@
 package de.unitrier.daalft.pali.morphology.paradigm.irregular;
 
-import java.util.ArrayList;
-import java.util.List;
 import de.unitrier.daalft.pali.morphology.element.Feature;
 import de.unitrier.daalft.pali.morphology.element.FeatureSet;
-import de.unitrier.daalft.pali.morphology.element.Morph;
-import de.unitrier.daalft.pali.morphology.element.Morpheme;
 import de.unitrier.daalft.pali.morphology.paradigm.Paradigm;
 /**
  * Utility class that wraps functionality related to irregular numerals
@@ -14,48 +10,17 @@ import de.unitrier.daalft.pali.morphology.paradigm.Paradigm;
  * @author David
  *
  */
-public class IrregularNumerals implements Irregular {
+public class IrregularNumerals extends AbstractIrregular {
+
 	/**
-	 * List of paradigms
+	 * Feature sets tried in this order to find the lemma forms
 	 */
-	private List<Paradigm> paradigms;
+	private final FeatureSet[] lemmaFeatures;
 
 	/**
 	 * Constructor
 	 */
 	public IrregularNumerals () {
-		paradigms = new ArrayList<Paradigm>();
-	}
-
-	public void add (Paradigm p) {
-		paradigms.add(p);
-	}
-
-	public boolean isIrregular (String word) {
-		for (Paradigm p : paradigms) {
-			for (Morpheme m : p.getMorphemes()) {
-				for (Morph n : m.getAllomorphs()) {
-					if (n.getMorph().equals(word))
-						return true;
-				}
-			}
-		}
-		return false;
-	}
-
-	public Paradigm getForms (String word) {
-		for (Paradigm p : paradigms) {
-			for (Morpheme m : p.getMorphemes()) {
-				for (Morph n : m.getAllomorphs()) {
-					if (n.getMorph().equals(word))
-						return p;
-				}
-			}
-		}
-		return null;
-	}
-
-	public Paradigm getLemma (String word) {
 		// case caturo etc
 		// return catur
 		FeatureSet fs1 = new FeatureSet();
@@ -82,38 +47,24 @@ public class IrregularNumerals implements Irregular {
 		fs2.add(new Feature("number", "plural"));
 		fs2.add(new Feature("case", "vocative"));
 		
-		
-		for (Paradigm p : paradigms) {
-			for (Morpheme m : p.getMorphemes()) {
-				for (Morph n : m.getAllomorphs()) {
-					if (n.getMorph().equals(word)) {
-						if (p.getParadigmByFeatures(fs1) != null && !p.getParadigmByFeatures(fs1).isEmpty()) {
-							return p.getParadigmByFeatures(fs1);
-						} else if (p.getParadigmByFeatures(fs2) != null && !p.getParadigmByFeatures(fs2).isEmpty()) {
-							return p.getParadigmByFeatures(fs2);
-						} else if (p.getParadigmByFeatures(fs3) != null && !p.getParadigmByFeatures(fs3).isEmpty()) {
-							return p.getParadigmByFeatures(fs3);
-						} else if (p.getParadigmByFeatures(fs4) != null && !p.getParadigmByFeatures(fs4).isEmpty()) {
-							return p.getParadigmByFeatures(fs4);
-						} else if (p.getParadigmByFeatures(fs5) != null && !p.getParadigmByFeatures(fs5).isEmpty()) {
-							return p.getParadigmByFeatures(fs5);
-						} else if (p.getParadigmByFeatures(fs6) != null && !p.getParadigmByFeatures(fs6).isEmpty()) {
-							return p.getParadigmByFeatures(fs6);
-						} else {
-							return null;
-						}
-					}
-				}
-			}
-		}
-		return null;
+		lemmaFeatures = new FeatureSet[] {fs1, fs2, fs3, fs4, fs5, fs6};
 	}
 
-	public String toString () {
-		StringBuilder sb = new StringBuilder();
-		for (Paradigm p : paradigms) {
-			sb.append(p);
+	/**
+	 * Returns a read-only copy of this handler
+	 * @return read-only copy
+	 */
+	public IrregularNumerals readOnly () {
+		return copyReadOnly(new IrregularNumerals());
+	}
+
+	@Override
+	protected Paradigm findLemma (Paradigm p) {
+		for (FeatureSet fs : lemmaFeatures) {
+			Paradigm lemma = p.getParadigmByFeatures(fs);
+			if (lemma != null && !lemma.isEmpty())
+				return lemma;
 		}
-		return sb.toString();
+		return null;
 	}
 }
@@ -1,5 +1,6 @@
 package de.unitrier.daalft.pali.morphology.strategy;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import de.general.log.*;
@@ -44,14 +45,12 @@ public abstract class AbstractStrategy {
 	 * @return union of feature set
 	 */
 	public static FeatureSet union (FeatureSet f1, FeatureSet f2) {
-		FeatureSet u = new FeatureSet();
+		List<Feature> u = new ArrayList<Feature>(f1.size() + f2.size());
 		for (Feature f : f1)
 			u.add(f);
-		for (Feature f : f2) {
-			if (!u.contains(f))
-				u.add(f);
-		}
-		return u;
+		for (Feature f : f2)
+			u.add(f);
+		return new FeatureSet(u);
 	}
 	
 
@@ -63,11 +62,7 @@ public abstract class AbstractStrategy {
 	ConstructedWord copy (ConstructedWord cw) {
 		ConstructedWord copy = new ConstructedWord();
 		copy.setWord(cw.getWord());
-		FeatureSet fscopy = new FeatureSet();
-		for (Feature f : cw.getFeatureSet()) {
-			fscopy.add(f);
-		}
-		copy.setFeatureSet(fscopy);
+		copy.setFeatureSet(cw.getFeatureSet().copy());
 		copy.setLemma(cw.getLemma());
 		return copy;
 	}
@@ -6,6 +6,7 @@ import java.util.List;
 
 import de.general.log.*;
 
+import de.unitrier.daalft.pali.PaliGrammarContext;
 import de.unitrier.daalft.pali.general.Alphabet;
 import de.unitrier.daalft.pali.morphology.element.ConstructedWord;
 import de.unitrier.daalft.pali.morphology.element.Feature;
@@ -14,6 +15,7 @@ import de.unitrier.daalft.pali.morphology.paradigm.Paradigm;
 import de.unitrier.daalft.pali.morphology.paradigm.ParadigmAccessor;
 import de.unitrier.daalft.pali.morphology.paradigm.rule.NullDerivingRule;
 import de.unitrier.daalft.pali.morphology.paradigm.rule.RightDeletingRule;
+import de.unitrier.daalft.pali.phonology.SandhiManager;
 import de.unitrier.daalft.pali.tools.Patterner;
 
 
@@ -35,14 +37,32 @@ public class AdjectiveStrategy extends AbstractStrategy {
 	////////////////////////////////////////////////////////////////
 
 	ParadigmAccessor pa;
+	SandhiManager sm;
 
 	////////////////////////////////////////////////////////////////
 	// Constructors
 	////////////////////////////////////////////////////////////////
 
+	/**
+	 * Constructor
+	 * <p>
+	 * Uses the sandhi rules of the shared grammar context
+	 * @param pa paradigm accessor
+	 */
 	public AdjectiveStrategy(ParadigmAccessor pa)
+	{
+		this(pa, PaliGrammarContext.getInstance().getSandhiManager());
+	}
+
+	/**
+	 * Constructor
+	 * @param pa paradigm accessor
+	 * @param sm sandhi manager
+	 */
+	public AdjectiveStrategy(ParadigmAccessor pa, SandhiManager sm)
 	{
 		this.pa = pa;
+		this.sm = sm;
 	}
 
 	////////////////////////////////////////////////////////////////
@@ -51,7 +71,7 @@ public class AdjectiveStrategy extends AbstractStrategy {
 
 	public List<ConstructedWord> apply(ILogInterface log, String lemma, String... options) {
 		// General declension strategy
-		GeneralDeclensionStrategy gds = new GeneralDeclensionStrategy();
+		GeneralDeclensionStrategy gds = new GeneralDeclensionStrategy(sm);
 		// Fetch all relevant paradigms
 		Paradigm adjectives = pa.getAdjectiveParadigm();
 		
@@ -7,11 +7,13 @@ import java.util.Set;
 
 import de.general.log.*;
 
+import de.unitrier.daalft.pali.PaliGrammarContext;
 import de.unitrier.daalft.pali.morphology.element.ConstructedWord;
 import de.unitrier.daalft.pali.morphology.element.Morph;
 import de.unitrier.daalft.pali.morphology.element.Morpheme;
 import de.unitrier.daalft.pali.morphology.paradigm.Paradigm;
 import de.unitrier.daalft.pali.morphology.paradigm.ParadigmAccessor;
+import de.unitrier.daalft.pali.phonology.SandhiManager;
 import de.unitrier.daalft.pali.phonology.SandhiMerge;
 
 
@@ -32,14 +34,32 @@ public class AffixStrategy
 	////////////////////////////////////////////////////////////////
 
 	ParadigmAccessor pa;
+	SandhiManager sm;
 
 	////////////////////////////////////////////////////////////////
 	// Constructors
 	////////////////////////////////////////////////////////////////
 
+	/**
+	 * Constructor
+	 * <p>
+	 * Uses the sandhi rules of the shared grammar context
+	 * @param pa paradigm accessor
+	 */
 	public AffixStrategy(ParadigmAccessor pa)
+	{
+		this(pa, PaliGrammarContext.getInstance().getSandhiManager());
+	}
+
+	/**
+	 * Constructor
+	 * @param pa paradigm accessor
+	 * @param sm sandhi manager
+	 */
+	public AffixStrategy(ParadigmAccessor pa, SandhiManager sm)
 	{
 		this.pa = pa;
+		this.sm = sm;
 	}
 
 	////////////////////////////////////////////////////////////////
@@ -52,14 +72,14 @@ public class AffixStrategy
 	 * @return list with affixes
 	 */
 	public List<ConstructedWord> apply (List<ConstructedWord> list) {
-		SandhiMerge sm = new SandhiMerge();
+		SandhiMerge merge = new SandhiMerge(sm);
 		List<ConstructedWord> out = new ArrayList<ConstructedWord>();
 		Paradigm prefix = pa.getPrefixParadigm();
 		Paradigm suffix = pa.getSuffixParadigm();
 		for (Morpheme mo : suffix.getMorphemes()) {
 			for (Morph m : mo.getAllomorphs()) {
 				for (ConstructedWord cws : list) {
-					Set<String> merges = new HashSet<String>(sm.merge(cws.getWord(), m.getMorph()));
+					Set<String> merges = new HashSet<String>(merge.merge(cws.getWord(), m.getMorph()));
 					for (String s : merges) {
 						ConstructedWord copy = new ConstructedWord(s, AbstractStrategy.union(cws.getFeatureSet(), mo.getFeatureSet()));
 						copy.setLemma(cws.getLemma());
@@ -71,7 +91,7 @@ public class AffixStrategy
 		for (Morpheme mo : prefix.getMorphemes()) {
 			for (Morph m : mo.getAllomorphs()) {
 				for (ConstructedWord cws : list) {
-					Set<String> merges = new HashSet<String>(sm.merge(m.getMorph(),cws.getWord()));
+					Set<String> merges = new HashSet<String>(merge.merge(m.getMorph(),cws.getWord()));
 					for (String s : merges) {
 						ConstructedWord copy = new ConstructedWord(s, AbstractStrategy.union(cws.getFeatureSet(), mo.getFeatureSet()));
 						copy.setLemma(cws.getLemma());
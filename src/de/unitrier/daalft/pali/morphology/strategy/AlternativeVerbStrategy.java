@@ -5,11 +5,13 @@ import java.util.LinkedHashSet;
 import java.util.List;
 
 import de.general.log.*;
+import de.unitrier.daalft.pali.PaliGrammarContext;
 import de.unitrier.daalft.pali.morphology.paradigm.Paradigm;
 import de.unitrier.daalft.pali.morphology.paradigm.ParadigmAccessor;
 import de.unitrier.daalft.pali.morphology.paradigm.rule.ReplacingRule;
 import de.unitrier.daalft.pali.morphology.tools.VerbHelper;
 import de.unitrier.daalft.pali.morphology.element.ConstructedWord;
+import de.unitrier.daalft.pali.phonology.SandhiManager;
 import de.unitrier.daalft.pali.phonology.SoundChanger;
 
 
@@ -33,14 +35,32 @@ public class AlternativeVerbStrategy extends AbstractStrategy {
 	////////////////////////////////////////////////////////////////
 
 	ParadigmAccessor pa;
+	SandhiManager sm;
 
 	////////////////////////////////////////////////////////////////
 	// Constructors
 	////////////////////////////////////////////////////////////////
 
+	/**
+	 * Constructor
+	 * <p>
+	 * Uses the sandhi rules of the shared grammar context
+	 * @param pa paradigm accessor
+	 */
 	public AlternativeVerbStrategy(ParadigmAccessor pa)
+	{
+		this(pa, PaliGrammarContext.getInstance().getSandhiManager());
+	}
+
+	/**
+	 * Constructor
+	 * @param pa paradigm accessor
+	 * @param sm sandhi manager
+	 */
+	public AlternativeVerbStrategy(ParadigmAccessor pa, SandhiManager sm)
 	{
 		this.pa = pa;
+		this.sm = sm;
 	}
 
 	////////////////////////////////////////////////////////////////
@@ -55,7 +75,7 @@ public class AlternativeVerbStrategy extends AbstractStrategy {
 		}
 		*/
 		// General declension strategy
-		GeneralDeclensionStrategy gds = new GeneralDeclensionStrategy();
+		GeneralDeclensionStrategy gds = new GeneralDeclensionStrategy(sm);
 		// Retrieve relevant paradigms
 		Paradigm verbs = pa.getVerbParadigm();
 
@@ -82,7 +102,7 @@ public class AlternativeVerbStrategy extends AbstractStrategy {
 		
 		// Append additional forms derived by conversion "ava" => "o" and "aya" => e
 		List<ConstructedWord> additional = new ArrayList<ConstructedWord>();
-		SoundChanger sc = new SoundChanger();
+		SoundChanger sc = new SoundChanger(sm);
 		for (ConstructedWord cw : out) {
 			ConstructedWord cwa = (new ConstructedWord(sc.getCommonChange(cw.getWord()), cw.getFeatureSet()));
 			cwa.setLemma(cw.getLemma());
@@ -5,6 +5,7 @@ import java.util.List;
 
 import de.general.log.*;
 
+import de.unitrier.daalft.pali.PaliGrammarContext;
 import de.unitrier.daalft.pali.general.Alphabet;
 import de.unitrier.daalft.pali.morphology.element.ConstructedWord;
 import de.unitrier.daalft.pali.morphology.element.Feature;
@@ -32,9 +33,24 @@ public class GeneralDeclensionStrategy extends AbstractStrategy {
 	/**
 	 * Sandhi manager
 	 */
-	private SandhiManager sm = new SandhiManager();
+	private SandhiManager sm;
 	
+	/**
+	 * Constructor
+	 * <p>
+	 * Uses the sandhi rules of the shared grammar context
+	 */
+	public GeneralDeclensionStrategy () {
+		this(PaliGrammarContext.getInstance().getSandhiManager());
+	}
 	
+	/**
+	 * Constructor
+	 * @param sm sandhi manager
+	 */
+	public GeneralDeclensionStrategy (SandhiManager sm) {
+		this.sm = sm;
+	}
 	
 	/**
 	 * Applies this strategy by combining every element of paradigm with the 
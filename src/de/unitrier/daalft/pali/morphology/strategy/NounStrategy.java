@@ -5,6 +5,7 @@ import java.util.List;
 
 import de.general.log.*;
 
+import de.unitrier.daalft.pali.PaliGrammarContext;
 import de.unitrier.daalft.pali.morphology.element.ConstructedWord;
 import de.unitrier.daalft.pali.morphology.element.FeatureSet;
 import de.unitrier.daalft.pali.morphology.element.Morph;
@@ -13,6 +14,7 @@ import de.unitrier.daalft.pali.morphology.paradigm.Paradigm;
 import de.unitrier.daalft.pali.morphology.paradigm.ParadigmAccessor;
 import de.unitrier.daalft.pali.morphology.paradigm.irregular.IrregularNouns;
 import de.unitrier.daalft.pali.morphology.paradigm.rule.RightDeletingRule;
+import de.unitrier.daalft.pali.phonology.SandhiManager;
 
 
 /**
@@ -33,15 +35,33 @@ public class NounStrategy extends AbstractStrategy {
 	////////////////////////////////////////////////////////////////
 
 	ParadigmAccessor pa;
+	SandhiManager sm;
 	Paradigm emptyParadigm;
 
 	////////////////////////////////////////////////////////////////
 	// Constructors
 	////////////////////////////////////////////////////////////////
 
+	/**
+	 * Constructor
+	 * <p>
+	 * Uses the sandhi rules of the shared grammar context
+	 * @param pa paradigm accessor
+	 */
 	public NounStrategy(ParadigmAccessor pa)
+	{
+		this(pa, PaliGrammarContext.getInstance().getSandhiManager());
+	}
+
+	/**
+	 * Constructor
+	 * @param pa paradigm accessor
+	 * @param sm sandhi manager
+	 */
+	public NounStrategy(ParadigmAccessor pa, SandhiManager sm)
 	{
 		this.pa = pa;
+		this.sm = sm;
 		this.emptyParadigm = new Paradigm();
 	}
 
@@ -52,7 +72,7 @@ public class NounStrategy extends AbstractStrategy {
 	@Override
 	public List<ConstructedWord> apply(ILogInterface log, String lemma, String... options)
 	{
-		GeneralDeclensionStrategy gds = new GeneralDeclensionStrategy();
+		GeneralDeclensionStrategy gds = new GeneralDeclensionStrategy(sm);
 		
 		String gender = (options != null && options.length > 0 && options[0] != null) ? options[0].isEmpty()?null:options[0] : null;
 		String nounDeclension = (options !=null && options.length > 1) ? options[1] : null;
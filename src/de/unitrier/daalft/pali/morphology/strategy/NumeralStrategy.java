@@ -6,6 +6,7 @@ import java.util.List;
 
 import de.general.log.*;
 
+import de.unitrier.daalft.pali.PaliGrammarContext;
 import de.unitrier.daalft.pali.morphology.element.ConstructedWord;
 import de.unitrier.daalft.pali.morphology.element.FeatureSet;
 import de.unitrier.daalft.pali.morphology.element.Morph;
@@ -14,6 +15,7 @@ import de.unitrier.daalft.pali.morphology.paradigm.Paradigm;
 import de.unitrier.daalft.pali.morphology.paradigm.ParadigmAccessor;
 import de.unitrier.daalft.pali.morphology.paradigm.irregular.IrregularNumerals;
 import de.unitrier.daalft.pali.morphology.paradigm.rule.RightDeletingRule;
+import de.unitrier.daalft.pali.phonology.SandhiManager;
 
 
 /**
@@ -59,14 +61,32 @@ public class NumeralStrategy extends AbstractStrategy {
 	////////////////////////////////////////////////////////////////
 
 	ParadigmAccessor pa;
+	SandhiManager sm;
 
 	////////////////////////////////////////////////////////////////
 	// Constructors
 	////////////////////////////////////////////////////////////////
 
+	/**
+	 * Constructor
+	 * <p>
+	 * Uses the sandhi rules of the shared grammar context
+	 * @param pa paradigm accessor
+	 */
 	public NumeralStrategy(ParadigmAccessor pa)
+	{
+		this(pa, PaliGrammarContext.getInstance().getSandhiManager());
+	}
+
+	/**
+	 * Constructor
+	 * @param pa paradigm accessor
+	 * @param sm sandhi manager
+	 */
+	public NumeralStrategy(ParadigmAccessor pa, SandhiManager sm)
 	{
 		this.pa = pa;
+		this.sm = sm;
 	}
 
 	////////////////////////////////////////////////////////////////
@@ -78,7 +98,7 @@ public class NumeralStrategy extends AbstractStrategy {
 		if (isOneToFour(lemma)) {
 			return oneToFourDec(lemma);
 		}
-		GeneralDeclensionStrategy gds = new GeneralDeclensionStrategy();
+		GeneralDeclensionStrategy gds = new GeneralDeclensionStrategy(sm);
 		
 		Paradigm num = pa.getNumeralParadigm();
 		Paradigm fte = num.getParadigmByFeatures(new FeatureSet("restriction", "5to18"));
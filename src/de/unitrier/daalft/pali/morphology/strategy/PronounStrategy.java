@@ -45,60 +45,59 @@ public class PronounStrategy extends AbstractStrategy
 	@Override
 	public List<ConstructedWord> apply(ILogInterface log, String lemma, String... options) {
 		// main filter
-		FeatureSet filter = new FeatureSet();
+		FeatureSet filter;
 		// auxiliary filter
 		FeatureSet helpFilter = null;
 		switch(lemma) {
 		case "ayaṃ": // return subtype demonstrative specification ay/i all genera 
-			filter.add(new Feature("subtype", "demonstrative"));
-			filter.add(new Feature("specification", "ay/i"));
+			filter = new FeatureSet(new Feature("subtype", "demonstrative"),
+					new Feature("specification", "ay/i"));
 			break;
 		case "ahaṃ": // return personal all genera
-			filter.add(new Feature("subtype", "personal"));
+			filter = new FeatureSet(new Feature("subtype", "personal"));
 			break;
 		case "asu": // return demonstrative asu/amu masc + fem
-			filter.add(new Feature("subtype", "demonstrative"));
-			filter.add(new Feature("specification", "asu/amu"));
-			filter.add(new Feature("gender", "masculine"));
-			helpFilter = new FeatureSet();
-			helpFilter.add(new Feature("subtype", "demonstrative"));
-			helpFilter.add(new Feature("specification", "asu/amu"));
-			helpFilter.add(new Feature("gender", "feminine"));
+			filter = new FeatureSet(new Feature("subtype", "demonstrative"),
+					new Feature("specification", "asu/amu"),
+					new Feature("gender", "masculine"));
+			helpFilter = new FeatureSet(new Feature("subtype", "demonstrative"),
+					new Feature("specification", "asu/amu"),
+					new Feature("gender", "feminine"));
 			break;
 		case "aduṃ": // return demonstrative asu/amu neuter
-			filter.add(new Feature("subtype", "demonstrative"));
-			filter.add(new Feature("specification", "asu/amu"));
-			filter.add(new Feature("gender", "neuter"));
+			filter = new FeatureSet(new Feature("subtype", "demonstrative"),
+					new Feature("specification", "asu/amu"),
+					new Feature("gender", "neuter"));
 			break;
 		//REMARK: not a lemma entry
 		case "ko": // return interrogative all?
 			// fall through
 		case "ka°": // return interrogative all?
-			filter.add(new Feature("subtype", "interrogative"));
+			filter = new FeatureSet(new Feature("subtype", "interrogative"));
 			break;
 		case "kā": // return interrogative fem
-			filter.add(new Feature("subtype", "interrogative"));
-			filter.add(new Feature("gender", "feminine"));
+			filter = new FeatureSet(new Feature("subtype", "interrogative"),
+					new Feature("gender", "feminine"));
 			break;
 		case "kiṃ": // return interrogative neuter
-			filter.add(new Feature("subtype", "interrogative"));
-			filter.add(new Feature("gender", "neuter"));
+			filter = new FeatureSet(new Feature("subtype", "interrogative"),
+					new Feature("gender", "neuter"));
 			break;
 		// REMARK: not a lemma entry	
 		case "yo": // return relative all?
 			// fall through
 		case "ya°": // return relative all?
-			filter.add(new Feature("subtype", "relative"));
+			filter = new FeatureSet(new Feature("subtype", "relative"));
 			break;
 		case "yā": // return relative fem
-			filter.add(new Feature("subtype", "relative"));
-			filter.add(new Feature("gender", "feminine"));
+			filter = new FeatureSet(new Feature("subtype", "relative"),
+					new Feature("gender", "feminine"));
 			break;
 		case "yaṃ": // return relative neuter
 			// fall through
 		case "yad": // return relative neuter
-			filter.add(new Feature("subtype", "relative"));
-			filter.add(new Feature("gender", "neuter"));
+			filter = new FeatureSet(new Feature("subtype", "relative"),
+					new Feature("gender", "neuter"));
 			break;
 		default:
 			filter = null;
@@ -114,10 +113,11 @@ public class PronounStrategy extends AbstractStrategy
 				// get the sub paradigm and specification if possible
 				String sub = mo.getFeatureByName("subtype");
 				String spec = mo.getFeatureByName("specification");
-				FeatureSet feat = new FeatureSet();
-				feat.add(new Feature("subtype", sub));
-				if (!spec.isEmpty())
-					feat.add(new Feature("specification", spec));
+				FeatureSet feat;
+				if (spec.isEmpty())
+					feat = new FeatureSet(new Feature("subtype", sub));
+				else
+					feat = new FeatureSet(new Feature("subtype", sub), new Feature("specification", spec));
 				Paradigm p = pa.getParadigmsByFeatures(feat);
 				return constructWords(p, lemma);
 			}
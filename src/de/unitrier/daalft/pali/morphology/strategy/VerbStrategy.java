@@ -6,11 +6,13 @@ import java.util.List;
 
 import de.general.log.*;
 
+import de.unitrier.daalft.pali.PaliGrammarContext;
 import de.unitrier.daalft.pali.morphology.paradigm.Paradigm;
 import de.unitrier.daalft.pali.morphology.paradigm.ParadigmAccessor;
 import de.unitrier.daalft.pali.morphology.paradigm.rule.ReplacingRule;
 import de.unitrier.daalft.pali.morphology.tools.VerbHelper;
 import de.unitrier.daalft.pali.morphology.element.ConstructedWord;
+import de.unitrier.daalft.pali.phonology.SandhiManager;
 import de.unitrier.daalft.pali.phonology.SoundChanger;
 
 
@@ -32,14 +34,32 @@ public class VerbStrategy extends AbstractStrategy {
 	////////////////////////////////////////////////////////////////
 
 	ParadigmAccessor pa;
+	SandhiManager sm;
 
 	////////////////////////////////////////////////////////////////
 	// Constructors
 	////////////////////////////////////////////////////////////////
 
+	/**
+	 * Constructor
+	 * <p>
+	 * Uses the sandhi rules of the shared grammar context
+	 * @param pa paradigm accessor
+	 */
 	public VerbStrategy(ParadigmAccessor pa)
+	{
+		this(pa, PaliGrammarContext.getInstance().getSandhiManager());
+	}
+
+	/**
+	 * Constructor
+	 * @param pa paradigm accessor
+	 * @param sm sandhi manager
+	 */
+	public VerbStrategy(ParadigmAccessor pa, SandhiManager sm)
 	{
 		this.pa = pa;
+		this.sm = sm;
 	}
 
 	////////////////////////////////////////////////////////////////
@@ -52,7 +72,7 @@ public class VerbStrategy extends AbstractStrategy {
 			declension = Integer.parseInt(options[0]);
 		}
 		// General declension strategy
-		GeneralDeclensionStrategy gds = new GeneralDeclensionStrategy();
+		GeneralDeclensionStrategy gds = new GeneralDeclensionStrategy(sm);
 		// Retrieve relevant paradigms
 		Paradigm verbs = pa.getVerbParadigm();
 
@@ -91,7 +111,7 @@ public class VerbStrategy extends AbstractStrategy {
 		
 		// Append additional forms derived by conversion "ava" => "o" and "aya" => e
 		List<ConstructedWord> additional = new ArrayList<ConstructedWord>();
-		SoundChanger sc = new SoundChanger();
+		SoundChanger sc = new SoundChanger(sm);
 		for (ConstructedWord cw : out) {
 			ConstructedWord cwa = (new ConstructedWord(sc.getCommonChange(cw.getWord()), cw.getFeatureSet()));
 			cwa.setLemma(cw.getLemma());
@@ -7,7 +7,6 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import de.unitrier.daalft.pali.general.Alphabet;
-import de.unitrier.daalft.pali.phonology.SandhiSplit;
 import de.unitrier.daalft.pali.phonology.element.SplitResult;
 import de.unitrier.daalft.pali.tools.Patterner;
 import de.unitrier.daalft.pali.tools.Segmenter;
@@ -540,7 +539,6 @@ public class VerbHelper {
 		 * @return roots
 		 */
 		private List<String> third (String stem) {
-			SandhiSplit ss = new SandhiSplit();
 			List<String> output = new ArrayList<String>();
 			if (Segmenter.segmentToArray(stem).length < 4) {
 				if (debug)
@@ -10,6 +10,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import de.unitrier.daalft.pali.morphology.element.EndingMatch;
 import de.unitrier.daalft.pali.morphology.element.Morpheme;
 import de.unitrier.daalft.pali.morphology.paradigm.ParadigmAccessor;
 import de.unitrier.daalft.pali.morphology.paradigm.irregular.IrregularNouns;
@@ -91,15 +92,13 @@ public class WordClassGuesser {
 		// add weight to potential verb lemma
 		if (word.endsWith("ti"))
 			map.put("verb", 10);
-		for (Morpheme m : pa.getParadigms().getMorphemes()) {
+		for (EndingMatch em : pa.getEndingIndex().match(word)) {
+			Morpheme m = em.getMorpheme();
 			if (m.getFeatureByName("paradigm").equals("affix"))
 				continue;
-			if (m.isApplicable(word)) {
-				String wordclass = m.getFeatureByName("paradigm");
-				// weigh the result so that longer matches are given more importance than short matches
-				map.put(wordclass, inc(wordclass, map)+(m.match(word).length()));
-				
-			}
+			String wordclass = m.getFeatureByName("paradigm");
+			// weigh the result so that longer matches are given more importance than short matches
+			map.put(wordclass, inc(wordclass, map)+(em.getEnding().length()));
 		}
 		List<Entry<String, Integer>> list = new LinkedList<Entry<String, Integer>>(map.entrySet());
 		Collections.sort(list, new Comparator<Entry<String, Integer>> () {
@@ -7,7 +7,9 @@ import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -21,6 +23,7 @@ public class NGramExtractor {
 
 	private Map<String, Integer> unigram, bigram, trigram, tetragram;
 	private final static String unigramOut = "unigram_lower_all.data", bigramOut = "bigram_lower_all.data", trigramOut = "trigram_lower_all.data", tetragramOut = "tetragram_lower_all.data";
+	private final static String modelOut = NGramModel.DEFAULT_MODEL_FILE;
 	private final static boolean debug = false;
 
 	public NGramExtractor () {
@@ -42,9 +45,10 @@ public class NGramExtractor {
 	}
 	public void extractServer (String server) throws Exception {
 		LexiconAdapter la = new LexiconAdapter();
-		List<DictWord> l = la.getAllWordforms();
+		Iterator<DictWord> l = la.iterateWordforms();
 		List<DictWord> fault = new ArrayList<DictWord>();
-		for (DictWord dw : l) {
+		while (l.hasNext()) {
+			DictWord dw = l.next();
 			String word = "";
 			if (dw.getPropertyStringValueNormalized("word")!=null) {
 				word = dw.getPropertyStringValueNormalized("word");
@@ -160,6 +164,24 @@ public class NGramExtractor {
 		}
 		bw.flush();
 		bw.close();
+		writeModel();
+	}
+
+	/**
+	 * Writes the counts as binary n-gram model
+	 * @throws IOException
+	 * @see NGramModel
+	 */
+	private void writeModel () throws IOException {
+		NGramModel m = new NGramModel();
+		int n = 1;
+		for (Map<String, Integer> map : Arrays.asList(unigram, bigram, trigram, tetragram)) {
+			for (Entry<String, Integer> e : map.entrySet()) {
+				m.add(n, e.getKey(), e.getValue());
+			}
+			n++;
+		}
+		m.write(modelOut, unigramOut, bigramOut, trigramOut, tetragramOut);
 	}
 
 	public static void main(String[] args) {
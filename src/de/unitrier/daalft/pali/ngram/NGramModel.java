@@ -0,0 +1,365 @@
+package de.unitrier.daalft.pali.ngram;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.zip.CRC32;
+
+/**
+ * Uni-, bi-, tri- and tetragram counts over phonological units
+ * <p>
+ * A model is either read from the tab-separated text files written
+ * by {@link NGramExtractor} (<em>n-gram TAB count TAB probability</em>),
+ * or memory-mapped from its binary form. The binary form stores the
+ * unit alphabet and the slots of every {@link NGramTable} as they are,
+ * so mapping it costs neither parsing nor copying, and all JVMs on a
+ * host share the mapped pages. Its header records the length and
+ * modification time of the text files it was built from and a checksum
+ * of their contents; the checksum is only computed if one of them has
+ * changed. Without the text files the binary model is used as it is.
+ * <br/><br/>
+ * Run {@link #main(String[])} (ant target <em>NGramModel</em>) to
+ * convert the text files
+ * @author David
+ *
+ */
+public class NGramModel {
+
+	public final static String DEFAULT_PATH_PREFIX = "data/ngram/";
+	public final static String[] DEFAULT_TEXT_FILES = {
+		"unigram_lower_all.data",
+		"bigram_lower_all.data",
+		"trigram_lower_all.data",
+		"tetragram_lower_all.data"
+	};
+	public final static String DEFAULT_MODEL_FILE = "ngram_lower_all.model";
+
+	/**
+	 * File magic, "PNGM"
+	 */
+	private final static int MAGIC = 0x504E474D;
+	/**
+	 * Format version, increase on every change of the layout
+	 */
+	private final static int VERSION = 3;
+	private final static Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * Unit codes
+	 */
+	private SegmentAlphabet alphabet;
+	/**
+	 * Count tables, index n-1
+	 */
+	private NGramTable[] tables;
+	/**
+	 * Sum of all counts per table, index n-1
+	 */
+	private long[] totals;
+	/**
+	 * Checksum of the text files, 0 if unknown
+	 */
+	private long sourceChecksum;
+	/**
+	 * Lengths and modification times of the text files, null if unknown
+	 */
+	private long[] sourceLengths, sourceModified;
+
+	/**
+	 * Constructor for an empty model
+	 */
+	public NGramModel () {
+		this(new SegmentAlphabet(), new NGramTable[SegmentAlphabet.MAX_N], new long[SegmentAlphabet.MAX_N]);
+		for (int i = 0; i < tables.length; i++) {
+			tables[i] = new NGramTable();
+		}
+	}
+
+	private NGramModel (SegmentAlphabet alphabet, NGramTable[] tables, long[] totals) {
+		this.alphabet = alphabet;
+		this.tables = tables;
+		this.totals = totals;
+	}
+
+	/**
+	 * Adds the count of an n-gram
+	 * <p>
+	 * N-grams that do not consist of exactly <em>n</em> units are ignored
+	 * @param n n-gram length
+	 * @param ngram n-gram
+	 * @param count count
+	 */
+	public void add (int n, String ngram, float count) {
+		int[] codes = alphabet.encodeAdding(ngram);
+		if (codes.length != n || n < 1 || n > SegmentAlphabet.MAX_N)
+			return;
+		int key = SegmentAlphabet.pack(codes, 0, n);
+		tables[n-1].put(key, tables[n-1].get(key) + count);
+		totals[n-1] += count;
+	}
+
+	/**
+	 * Returns the unit alphabet
+	 * @return alphabet
+	 */
+	public SegmentAlphabet getAlphabet () {
+		return alphabet;
+	}
+
+	/**
+	 * Returns the count table for the given n-gram length
+	 * @param n n-gram length
+	 * @return table or null
+	 */
+	public NGramTable getTable (int n) {
+		if (n < 1 || n > tables.length)
+			return null;
+		return tables[n-1];
+	}
+
+	/**
+	 * Returns the relative frequency of an n-gram
+	 * @param n n-gram length
+	 * @param key n-gram key
+	 * @return probability
+	 */
+	public double getProbability (int n, int key) {
+		NGramTable t = getTable(n);
+		if (t == null || totals[n-1] == 0)
+			return 0.0;
+		return t.get(key) / (double) totals[n-1];
+	}
+
+	////////////////////////////////////////////////////////////////
+	// Text format
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Reads a model from text files
+	 * @param paths uni-, bi-, tri- and tetragram files
+	 * @return model
+	 * @throws IOException
+	 */
+	public static NGramModel readText (String... paths) throws IOException {
+		NGramModel m = new NGramModel();
+		for (int n = 1; n <= paths.length; n++) {
+			BufferedReader br = new BufferedReader(new FileReader(new File(paths[n-1])));
+			try {
+				String l = "";
+				while ((l = br.readLine())!=null) {
+					String[] kv = l.split("\t");
+					m.add(n, kv[0], Float.parseFloat(kv[1]));
+				}
+			} finally {
+				br.close();
+			}
+		}
+		return m;
+	}
+
+	////////////////////////////////////////////////////////////////
+	// Binary format
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Writes this model in binary form
+	 * @param path model file
+	 * @param textPaths text files the model was read from
+	 * @throws IOException
+	 */
+	public void write (String path, String... textPaths) throws IOException {
+		long crc = checksum(textPaths);
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(textPaths.length);
+			for (String textPath : textPaths) {
+				File f = new File(textPath);
+				out.writeLong(f.isFile() ? f.length() : -1);
+				out.writeLong(f.lastModified());
+			}
+			out.writeLong(crc);
+			out.writeInt(alphabet.size());
+			for (String s : alphabet.getSegments()) {
+				byte[] b = s.getBytes(UTF8);
+				out.writeInt(b.length);
+				out.write(b);
+			}
+			out.writeInt(tables.length);
+			for (int i = 0; i < tables.length; i++) {
+				out.writeLong(totals[i]);
+				tables[i].write(out);
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Memory-maps a model written by {@link #write(String, String...)}
+	 * @param path model file
+	 * @return read-only model
+	 * @throws IOException if the file cannot be read or is no model file
+	 */
+	public static NGramModel map (String path) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(path, "r");
+		ByteBuffer buf;
+		try {
+			buf = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+		} finally {
+			raf.close();
+		}
+		try {
+			if (buf.getInt() != MAGIC || buf.getInt() != VERSION)
+				throw new IOException("Not an n-gram model of version " + VERSION + ": " + path);
+			long[] lengths = new long[buf.getInt()];
+			long[] modified = new long[lengths.length];
+			for (int i = 0; i < lengths.length; i++) {
+				lengths[i] = buf.getLong();
+				modified[i] = buf.getLong();
+			}
+			long crc = buf.getLong();
+			SegmentAlphabet alphabet = new SegmentAlphabet();
+			int units = buf.getInt();
+			for (int i = 0; i < units; i++) {
+				byte[] b = new byte[buf.getInt()];
+				buf.get(b);
+				alphabet.add(new String(b, UTF8));
+			}
+			NGramTable[] tables = new NGramTable[buf.getInt()];
+			long[] totals = new long[tables.length];
+			for (int i = 0; i < tables.length; i++) {
+				totals[i] = buf.getLong();
+				tables[i] = NGramTable.map(buf);
+			}
+			NGramModel m = new NGramModel(alphabet, tables, totals);
+			m.sourceChecksum = crc;
+			m.sourceLengths = lengths;
+			m.sourceModified = modified;
+			return m;
+		} catch (RuntimeException e) {
+			throw new IOException("Corrupt n-gram model: " + path, e);
+		}
+	}
+
+	/**
+	 * Loads a model
+	 * <p>
+	 * The binary model is mapped if it exists and was built from
+	 * text files with the same contents, or if a text file is missing;
+	 * otherwise the text files are read. The contents are only compared
+	 * if the length or modification time of a text file has changed
+	 * @param modelPath binary model file
+	 * @param textPaths uni-, bi-, tri- and tetragram files
+	 * @return model
+	 * @throws IOException
+	 */
+	public static NGramModel load (String modelPath, String... textPaths) throws IOException {
+		if (new File(modelPath).isFile()) {
+			try {
+				NGramModel m = map(modelPath);
+				if (!exist(textPaths) || m.isBuiltFrom(textPaths))
+					return m;
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		return readText(textPaths);
+	}
+
+	/**
+	 * Checks whether this model was built from the given text files
+	 * @param paths text files
+	 * @return true if the text files have not changed since
+	 * @throws IOException
+	 */
+	private boolean isBuiltFrom (String... paths) throws IOException {
+		if (sourceLengths != null && sourceLengths.length == paths.length) {
+			boolean unchanged = true;
+			for (int i = 0; i < paths.length && unchanged; i++) {
+				File f = new File(paths[i]);
+				unchanged = f.length() == sourceLengths[i] && f.lastModified() == sourceModified[i];
+			}
+			if (unchanged)
+				return true;
+		}
+		return sourceChecksum == checksum(paths);
+	}
+
+	/**
+	 * Checks whether all text files exist
+	 * @param paths text files
+	 * @return true if all exist
+	 */
+	private static boolean exist (String... paths) {
+		for (String path : paths) {
+			if (!new File(path).isFile())
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Computes a checksum over the lengths and contents of text files
+	 * @param paths text files
+	 * @return checksum
+	 * @throws IOException
+	 */
+	private static long checksum (String... paths) throws IOException {
+		CRC32 crc = new CRC32();
+		ByteBuffer buf = ByteBuffer.allocate(8);
+		byte[] b = new byte[8192];
+		for (String path : paths) {
+			File f = new File(path);
+			buf.putLong(0, f.isFile() ? f.length() : -1);
+			crc.update(buf.array(), 0, 8);
+			if (!f.isFile())
+				continue;
+			InputStream in = new FileInputStream(f);
+			try {
+				int n;
+				while ((n = in.read(b)) > 0) {
+					crc.update(b, 0, n);
+				}
+			} finally {
+				in.close();
+			}
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * Returns the paths of the default text files
+	 * @return text file paths
+	 */
+	public static String[] getDefaultTextPaths () {
+		String[] paths = new String[DEFAULT_TEXT_FILES.length];
+		for (int i = 0; i < paths.length; i++) {
+			paths[i] = DEFAULT_PATH_PREFIX + DEFAULT_TEXT_FILES[i];
+		}
+		return paths;
+	}
+
+	/**
+	 * Converts the default text files into the default binary model
+	 * @param args optional path of the model file
+	 * @throws IOException
+	 */
+	public static void main (String[] args) throws IOException {
+		String path = args.length > 0 ? args[0] : DEFAULT_PATH_PREFIX + DEFAULT_MODEL_FILE;
+		String[] textPaths = getDefaultTextPaths();
+		readText(textPaths).write(path, textPaths);
+		System.out.println("N-gram model written to " + path);
+	}
+}
@@ -1,23 +1,32 @@
 package de.unitrier.daalft.pali.ngram;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
-
-import de.unitrier.daalft.pali.tools.Segmenter;
 
 public class NGramScorer {
 
-	private String pathPrefix = "data/ngram/";
-	private String uniPath = pathPrefix + "unigram_lower_all.data", 
-			biPath = pathPrefix + "bigram_lower_all.data", 
-			triPath = pathPrefix + "trigram_lower_all.data", 
-			tetraPath = pathPrefix + "tetragram_lower_all.data";
+	private String modelPath = NGramModel.DEFAULT_PATH_PREFIX + NGramModel.DEFAULT_MODEL_FILE;
+
+	/**
+	 * Codes of phonological units
+	 */
+	private SegmentAlphabet alphabet;
+
+	/**
+	 * Codes of the start and end symbols padding a word
+	 */
+	private int startCode, endCode;
+
+	/**
+	 * Code buffer per thread, grown as needed
+	 */
+	private static final ThreadLocal<int[]> buffer = new ThreadLocal<int[]>() {
+		@Override
+		protected int[] initialValue() {
+			return new int[32];
+		}
+	};
 
-	private Map<String, Double> unigram, bigram, trigram, tetragram;
+	private NGramTable unigram, bigram, trigram, tetragram;
 
 	private double biBoost = 0.1, triBoost = 2.0, tetraBoost = 3.0;
 
@@ -30,10 +39,6 @@ public class NGramScorer {
 	}
 
 	private NGramScorer () {
-		unigram = new HashMap<String, Double>();
-		bigram = new HashMap<String, Double>();
-		trigram = new HashMap<String, Double>();
-		tetragram = new HashMap<String, Double>();
 		if (debug > 1) {
 			System.err.println("Scorer: Loading n-gram files");
 		}
@@ -43,83 +48,107 @@ public class NGramScorer {
 		}
 	}
 
+	/**
+	 * Loads the n-gram model, memory-mapping the binary
+	 * model if it is up to date
+	 */
 	private void loadFiles () {
+		NGramModel model;
 		try {
-			loadFile(uniPath, unigram);
-			loadFile(biPath, bigram);
-			loadFile(triPath, trigram);
-			loadFile(tetraPath, tetragram);
+			model = NGramModel.load(modelPath, NGramModel.getDefaultTextPaths());
 		} catch (IOException e) {
 			// TODO Auto-generated catch block
 			e.printStackTrace();
+			model = new NGramModel();
 		}
+		alphabet = model.getAlphabet();
+		startCode = alphabet.code("§");
+		endCode = alphabet.code("*");
+		unigram = model.getTable(1);
+		bigram = model.getTable(2);
+		trigram = model.getTable(3);
+		tetragram = model.getTable(4);
 	}
 
-	private void loadFile (String path, Map<String, Double> map) throws IOException {
-		BufferedReader br = new BufferedReader(new FileReader(new File(path)));
-		String l = "";
-		while ((l = br.readLine())!=null) {
-			String[] kv = l.split("\t");
-			map.put(kv[0], Double.parseDouble(kv[1]));
+	/**
+	 * Returns the table for the given n-gram length
+	 * @param n n-gram length
+	 * @return table or null
+	 */
+	private NGramTable getTable (int n) {
+		switch (n) {
+		case 2: return bigram;
+		case 3: return trigram;
+		case 4: return tetragram;
+		default: return null;
 		}
-		br.close();
+	}
+
+	/**
+	 * Returns the code buffer of the current thread
+	 * @param size minimum size
+	 * @return buffer
+	 */
+	private static int[] codeBuffer (int size) {
+		int[] codes = buffer.get();
+		if (codes.length < size) {
+			codes = new int[Math.max(size, 2 * codes.length)];
+			buffer.set(codes);
+		}
+		return codes;
+	}
+
+	/**
+	 * Encodes a word padded with the start and end symbols
+	 * @param word word
+	 * @param codes array of at least the length of the word plus 2
+	 * @return number of units including start and end
+	 */
+	private int encodePadded (String word, int[] codes) {
+		codes[0] = startCode;
+		int length = alphabet.encode(word, codes, 1) + 1;
+		codes[length] = endCode;
+		return length + 1;
 	}
 
 	public double ngramScore (String word, int n) {
-		String[] segments = Segmenter.segmentToArray(word);
+		int[] codes = codeBuffer(word.length());
+		return ngramScore(word, codes, alphabet.encode(word, codes), n);
+	}
+
+	private double ngramScore (String word, int[] codes, int length, int n) {
 		double score = 1.0;
-		if (segments.length < 3) {
+		if (length < 3) {
 			if (debug > 0)
 				System.err.println("Could not apply " + n + "-gram analysis to word [" + word + "]");
 			return score;
 		}
-		int slots = segments.length - (n - 1);
-		for (int i = 0; i < slots; i++) {
-			StringBuilder sb = new StringBuilder();
-			for (int j = 0; j < n; j++) {
-				sb.append(segments[i+j]);
-			}
-			String key = sb.toString();
-			//String reducedKey = reduce(key);
-			if (debug > 2) {
-				System.err.println("Key to find: " + key);
-			}
-			switch (n) {
-			case 2: score *= (bigram.containsKey(key) ? 1.0/bigram.get(key) : 0.0);	
-			break;
-			case 3: score *= (trigram.containsKey(key) ? 1.0/trigram.get(key) : 0.0); 
-			break;
-			case 4: score *= (tetragram.containsKey(key) ? 1.0/tetragram.get(key) : 0.0); 
-			break;
-			default: break;
+		int slots = length - (n - 1);
+		NGramTable table = getTable(n);
+		if (table != null) {
+			for (int i = 0; i < slots; i++) {
+				float count = table.get(SegmentAlphabet.pack(codes, i, n));
+				score *= (count != 0f ? 1.0/count : 0.0);
 			}
 		}
 		return Math.pow(score, 1.0 / slots);
 	}
 
-	private String reduce (String key) {
-		String[] seg = Segmenter.segmentToArray(key);
-		StringBuilder sb = new StringBuilder();
-		for (int i = 0; i < seg.length-1; i++) {
-			sb.append(seg[i]);
-		}
-		return sb.toString();
-	}
-
 	public double compositeScore (String word) {
-		word = "§" + word + "*";
-		double biScore = ngramScore(word, 2);
+		int[] codes = codeBuffer(word.length() + 2);
+		int length = encodePadded(word, codes);
+		double biScore = ngramScore(word, codes, length, 2);
 		if (debug > 2) {
 			System.err.println("Bigram score: " + biBoost*biScore);
 		}
 
-		double triScore = ngramScore(word, 3);
+		double triScore = ngramScore(word, codes, length, 3);
 		double triActual = Double.isNaN(triScore) || Double.isInfinite(triScore) || triScore == 0 ? 1.0 : triScore;
 		if (debug > 2) {
 			System.err.println("Trigram score: " + triBoost*triScore);
 		}
 
-		double tetraScore = ngramScore(word, 4);
+		double tetraScore = ngramScore(word, codes, length, 4);
 		double tetraActual = Double.isNaN(tetraScore) || Double.isInfinite(tetraScore) || tetraScore == 0 ? 1.0 : tetraScore;
 		if (debug > 2) {
 			System.err.println("Tetragram score: " + tetraBoost*tetraScore);
@@ -128,23 +157,68 @@ public class NGramScorer {
 		return ((biBoost * biScore) + (triBoost * triActual) + (tetraBoost * tetraActual))/(3+(biBoost+triBoost+tetraBoost)/3)-1.0638297872340425;
 	}
 
+	/**
+	 * Returns the bigram log-probability of a word, including
+	 * its start and end
+	 * <p>
+	 * Bigram probabilities are add-one smoothed
+	 * @param word word
+	 * @return log-probability, at most 0
+	 */
+	public double logProbability (String word) {
+		int[] codes = codeBuffer(word.length() + 2);
+		int length = encodePadded(word, codes);
+		int units = alphabet.size();
+		double score = 0.0;
+		for (int i = 1; i < length; i++) {
+			float count = bigram.get(SegmentAlphabet.pack(codes, i-1, 2));
+			float context = unigram.get(SegmentAlphabet.pack(codes, i-1, 1));
+			score += Math.log((count + 1.0) / (context + units));
+		}
+		return score;
+	}
+
+	/**
+	 * Returns the number of bigrams of a word, including
+	 * its start and end
+	 * @param word word
+	 * @return number of bigrams
+	 * @see #logProbability(String)
+	 */
+	public int bigramCount (String word) {
+		return SegmentAlphabet.count(word) + 1;
+	}
+
+	/**
+	 * Returns the units of an n-gram as string
+	 * @param codes unit codes
+	 * @param from index of first unit
+	 * @param n n-gram length
+	 * @return n-gram
+	 */
+	private String toString (int[] codes, int from, int n) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = from; i < from+n; i++) {
+			String s = alphabet.getSegment(codes[i]);
+			sb.append(s == null ? "?" : s);
+		}
+		return sb.toString();
+	}
+
 	public boolean testHypothesis (String word, String hyp) {
 		// TODO implement english
 		if (hyp.equals("en"))
 			return false;
 		if (word.length() < 2)
 			return false;
-		String[] segments = Segmenter.segmentToArray(word);
+		int[] codes = codeBuffer(word.length());
+		int length = alphabet.encode(word, codes);
 		for (int n = 2; n < 5; n++) {
-			int slots = segments.length - (n - 1);
+			int slots = length - (n - 1);
 			for (int i = 0; i < slots; i++) {
-				StringBuilder sb = new StringBuilder();
-				for (int j = 0; j < n; j++) {
-					sb.append(segments[i+j]);
-				}
-				String key = sb.toString();
+				int key = SegmentAlphabet.pack(codes, i, n);
 				switch (n) {
-				case 2: if (bigram.containsKey(key)) continue; else { System.out.println("Failed bigram test " + key);return false;}
+				case 2: if (bigram.contains(key)) continue; else { System.out.println("Failed bigram test " + toString(codes, i, n));return false;}
 				
 				//case 3: if (trigram.containsKey(key)) continue; else { System.out.println("Failed trigram test " + key);return false;}
 				
@@ -0,0 +1,225 @@
+package de.unitrier.daalft.pali.ngram;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ReadOnlyBufferException;
+
+/**
+ * Open-addressing hash table from packed n-gram keys to counts
+ * <p>
+ * Keys are produced by {@link SegmentAlphabet#pack(int[], int, int)}
+ * and are never 0, so 0 marks an empty slot. The table is kept at most
+ * half full; a lookup therefore usually takes a single probe and never
+ * allocates.
+ * <br/><br/>
+ * The slots can be written as they are and read back from a
+ * memory-mapped file, see {@link #write(DataOutputStream)} and
+ * {@link #map(ByteBuffer)}. Mapped tables are read-only
+ * @author David
+ *
+ */
+public class NGramTable {
+
+	/**
+	 * Keys, 0 for empty slots
+	 */
+	private IntBuffer keys;
+	/**
+	 * Counts, parallel to keys
+	 */
+	private FloatBuffer values;
+	/**
+	 * Number of slots - 1
+	 */
+	private int mask;
+	/**
+	 * Number of entries
+	 */
+	private int size;
+
+	/**
+	 * Constructor
+	 */
+	public NGramTable () {
+		this(16);
+	}
+
+	/**
+	 * Constructor
+	 * @param expected expected number of entries
+	 */
+	public NGramTable (int expected) {
+		allocate(capacityFor(expected));
+	}
+
+	/**
+	 * Constructor with existing slots
+	 * @param keys keys
+	 * @param values counts
+	 * @param size number of entries
+	 */
+	private NGramTable (IntBuffer keys, FloatBuffer values, int size) {
+		this.keys = keys;
+		this.values = values;
+		this.mask = keys.capacity()-1;
+		this.size = size;
+	}
+
+	/**
+	 * Sets the count of an n-gram
+	 * @param key n-gram key, not 0
+	 * @param value count
+	 */
+	public void put (int key, float value) {
+		if (key == 0)
+			throw new IllegalArgumentException("Key must not be 0");
+		if (keys.isReadOnly())
+			throw new ReadOnlyBufferException();
+		if (2 * (size+1) > keys.capacity())
+			rehash(keys.capacity() * 2);
+		int i = slot(key);
+		if (keys.get(i) == 0) {
+			keys.put(i, key);
+			size++;
+		}
+		values.put(i, value);
+	}
+
+	/**
+	 * Returns the count of an n-gram
+	 * @param key n-gram key
+	 * @return count or 0 if the n-gram is unknown
+	 */
+	public float get (int key) {
+		if (key == 0)
+			return 0f;
+		int i = mix(key) & mask;
+		int k;
+		while ((k = keys.get(i)) != 0) {
+			if (k == key)
+				return values.get(i);
+			i = (i+1) & mask;
+		}
+		return 0f;
+	}
+
+	/**
+	 * Checks whether the n-gram is known
+	 * @param key n-gram key
+	 * @return true if n-gram is known
+	 */
+	public boolean contains (int key) {
+		return get(key) != 0f;
+	}
+
+	/**
+	 * Returns the number of n-grams
+	 * @return number of n-grams
+	 */
+	public int size () {
+		return size;
+	}
+
+	/**
+	 * Returns the slot of the key, or the empty slot
+	 * where the key would be inserted
+	 * @param key key
+	 * @return slot
+	 */
+	private int slot (int key) {
+		int i = mix(key) & mask;
+		while (keys.get(i) != 0 && keys.get(i) != key) {
+			i = (i+1) & mask;
+		}
+		return i;
+	}
+
+	private void rehash (int capacity) {
+		IntBuffer oldKeys = keys;
+		FloatBuffer oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.capacity(); i++) {
+			if (oldKeys.get(i) != 0) {
+				int j = slot(oldKeys.get(i));
+				keys.put(j, oldKeys.get(i));
+				values.put(j, oldValues.get(i));
+			}
+		}
+	}
+
+	private void allocate (int capacity) {
+		keys = IntBuffer.allocate(capacity);
+		values = FloatBuffer.allocate(capacity);
+		mask = capacity-1;
+	}
+
+	/**
+	 * Writes the slots of this table
+	 * <p>
+	 * Layout: number of slots, number of entries,
+	 * keys of all slots, counts of all slots
+	 * @param out output
+	 * @throws IOException
+	 */
+	public void write (DataOutputStream out) throws IOException {
+		int capacity = keys.capacity();
+		out.writeInt(capacity);
+		out.writeInt(size);
+		for (int i = 0; i < capacity; i++) {
+			out.writeInt(keys.get(i));
+		}
+		for (int i = 0; i < capacity; i++) {
+			out.writeFloat(values.get(i));
+		}
+	}
+
+	/**
+	 * Returns a read-only table over slots written by
+	 * {@link #write(DataOutputStream)}
+	 * <p>
+	 * The slots are not copied; the buffer is advanced
+	 * past the table
+	 * @param buf buffer positioned at the table
+	 * @return table
+	 */
+	public static NGramTable map (ByteBuffer buf) {
+		int capacity = buf.getInt();
+		int size = buf.getInt();
+		if (Integer.bitCount(capacity) != 1)
+			throw new IllegalArgumentException("Invalid table capacity " + capacity);
+		ByteBuffer k = buf.slice();
+		k.limit(capacity * 4);
+		buf.position(buf.position() + capacity * 4);
+		ByteBuffer v = buf.slice();
+		v.limit(capacity * 4);
+		buf.position(buf.position() + capacity * 4);
+		return new NGramTable(k.asIntBuffer(), v.asFloatBuffer(), size);
+	}
+
+	/**
+	 * Returns the smallest power of two holding the
+	 * expected number of entries at half load
+	 * @param expected expected number of entries
+	 * @return capacity
+	 */
+	static int capacityFor (int expected) {
+		int capacity = 16;
+		while (capacity < 2 * expected) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	/**
+	 * Spreads the bits of a key
+	 * @param key key
+	 * @return hash
+	 */
+	static int mix (int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
@@ -0,0 +1,219 @@
+package de.unitrier.daalft.pali.ngram;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps phonological units to small integer codes
+ * <p>
+ * Words are segmented exactly like {@link de.unitrier.daalft.pali.tools.Segmenter}
+ * does: a mute consonant followed by <em>h</em> is one unit, every other
+ * character is a unit of its own. Codes start at 1; 0 stands for
+ * units not contained in the alphabet. Up to four codes are packed
+ * into one <code>int</code> to form the key of an n-gram
+ * @author David
+ *
+ */
+public class SegmentAlphabet {
+
+	/**
+	 * Maximum number of units, codes have to fit into 8 bits
+	 */
+	public final static int MAX_SEGMENTS = 255;
+	/**
+	 * Maximum n-gram length that can be packed
+	 */
+	public final static int MAX_N = 4;
+	/**
+	 * Mute consonants that form a unit with a following <em>h</em>
+	 */
+	private final static String MUTES = "kgcjṭḍtdpb";
+
+	/**
+	 * Code per single character unit
+	 */
+	private byte[] single;
+	/**
+	 * Code per aspirated unit, indexed by the mute consonant
+	 */
+	private byte[] aspirated;
+	/**
+	 * Units by code-1
+	 */
+	private List<String> segments;
+
+	/**
+	 * Constructor
+	 */
+	public SegmentAlphabet () {
+		single = new byte[Character.MAX_VALUE+1];
+		aspirated = new byte[Character.MAX_VALUE+1];
+		segments = new ArrayList<String>();
+	}
+
+	/**
+	 * Adds a unit and returns its code
+	 * <p>
+	 * Returns the existing code if the unit is already known
+	 * @param segment unit
+	 * @return code
+	 * @throws IllegalArgumentException if the string is not a single unit
+	 * @throws IllegalStateException if the alphabet is full
+	 */
+	public int add (String segment) {
+		int code = code(segment);
+		if (code != 0)
+			return code;
+		if (!isSegment(segment))
+			throw new IllegalArgumentException("Not a single unit: " + segment);
+		if (segments.size() == MAX_SEGMENTS)
+			throw new IllegalStateException("Segment alphabet is full");
+		segments.add(segment);
+		code = segments.size();
+		if (segment.length() == 1)
+			single[segment.charAt(0)] = (byte) code;
+		else
+			aspirated[segment.charAt(0)] = (byte) code;
+		return code;
+	}
+
+	/**
+	 * Returns the code of a unit
+	 * @param segment unit
+	 * @return code or 0 if unit is unknown
+	 */
+	public int code (String segment) {
+		if (segment.length() == 1)
+			return single[segment.charAt(0)] & 0xFF;
+		if (isSegment(segment))
+			return aspirated[segment.charAt(0)] & 0xFF;
+		return 0;
+	}
+
+	/**
+	 * Returns the unit with the given code
+	 * @param code code
+	 * @return unit or null if code is unknown
+	 */
+	public String getSegment (int code) {
+		if (code < 1 || code > segments.size())
+			return null;
+		return segments.get(code-1);
+	}
+
+	/**
+	 * Returns all units in code order
+	 * @return units
+	 */
+	public List<String> getSegments () {
+		return segments;
+	}
+
+	/**
+	 * Returns the number of units
+	 * @return number of units
+	 */
+	public int size () {
+		return segments.size();
+	}
+
+	/**
+	 * Segments a word and writes the codes of its units
+	 * into the given array
+	 * @param word word
+	 * @param codes array of at least the length of the word
+	 * @return number of units
+	 */
+	public int encode (String word, int[] codes) {
+		return encode(word, codes, 0);
+	}
+
+	/**
+	 * Segments a word and writes the codes of its units
+	 * into the given array, starting at the given index
+	 * @param word word
+	 * @param codes array of at least the length of the word after <em>from</em>
+	 * @param from index of the first code
+	 * @return number of units
+	 */
+	public int encode (String word, int[] codes, int from) {
+		int n = from;
+		int len = word.length();
+		for (int i = 0; i < len; i++) {
+			char c = word.charAt(i);
+			if (i+1 < len && word.charAt(i+1) == 'h' && MUTES.indexOf(c) >= 0) {
+				codes[n++] = aspirated[c] & 0xFF;
+				i++;
+			} else {
+				codes[n++] = single[c] & 0xFF;
+			}
+		}
+		return n - from;
+	}
+
+	/**
+	 * Returns the number of units of a word
+	 * @param word word
+	 * @return number of units
+	 */
+	public static int count (String word) {
+		int n = 0;
+		int len = word.length();
+		for (int i = 0; i < len; i++) {
+			if (i+1 < len && word.charAt(i+1) == 'h' && MUTES.indexOf(word.charAt(i)) >= 0)
+				i++;
+			n++;
+		}
+		return n;
+	}
+
+	/**
+	 * Segments a word, adding all units to the alphabet
+	 * @param word word
+	 * @return codes of the units
+	 */
+	public int[] encodeAdding (String word) {
+		List<String> units = new ArrayList<String>();
+		int len = word.length();
+		for (int i = 0; i < len; i++) {
+			char c = word.charAt(i);
+			if (i+1 < len && word.charAt(i+1) == 'h' && MUTES.indexOf(c) >= 0) {
+				units.add(word.substring(i, i+2));
+				i++;
+			} else {
+				units.add(word.substring(i, i+1));
+			}
+		}
+		int[] codes = new int[units.size()];
+		for (int i = 0; i < codes.length; i++) {
+			codes[i] = add(units.get(i));
+		}
+		return codes;
+	}
+
+	/**
+	 * Packs <em>n</em> codes into an n-gram key
+	 * @param codes codes
+	 * @param from index of first code
+	 * @param n number of codes, at most {@link #MAX_N}
+	 * @return key or 0 if any code is 0
+	 */
+	public static int pack (int[] codes, int from, int n) {
+		int key = 0;
+		for (int i = from; i < from+n; i++) {
+			if (codes[i] == 0)
+				return 0;
+			key = (key << 8) | codes[i];
+		}
+		return key;
+	}
+
+	/**
+	 * Checks whether a string is a single unit
+	 * @param s string
+	 * @return true if string is a single unit
+	 */
+	private static boolean isSegment (String s) {
+		return s.length() == 1 || (s.length() == 2 && s.charAt(1) == 'h' && MUTES.indexOf(s.charAt(0)) >= 0);
+	}
+}
@@ -0,0 +1,40 @@
+package de.unitrier.daalft.pali.phonology;
+
+import de.unitrier.daalft.pali.ngram.NGramScorer;
+/**
+ * Scores the words of a split by their bigram log-probability
+ * @author David
+ *
+ */
+public class NGramSplitScorer implements SplitScorer {
+
+	/**
+	 * N-gram scorer
+	 */
+	private NGramScorer ngs;
+
+	/**
+	 * Constructor
+	 */
+	public NGramSplitScorer () {
+		this(NGramScorer.getInstance());
+	}
+
+	/**
+	 * Constructor
+	 * @param ngs n-gram scorer
+	 */
+	public NGramSplitScorer (NGramScorer ngs) {
+		this.ngs = ngs;
+	}
+
+	@Override
+	public double score (String word) {
+		return ngs.logProbability(word);
+	}
+
+	@Override
+	public int length (String word) {
+		return ngs.bigramCount(word);
+	}
+}
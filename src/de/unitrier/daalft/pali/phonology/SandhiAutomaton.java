@@ -0,0 +1,318 @@
+package de.unitrier.daalft.pali.phonology;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedList;
+import java.util.List;
+
+import de.unitrier.daalft.pali.phonology.element.SandhiRule;
+
+/**
+ * Multi-pattern automaton (Aho-Corasick) over the literal
+ * prefixes of a list of sandhi rules
+ * <p>
+ * Every rule pattern is expanded into the set of literal strings
+ * a match has to start with, i.e. <em>ū(k|c)</em> into <em>ūk</em>
+ * and <em>ūc</em>. A single left-to-right pass over a word then yields
+ * all positions at which a rule might apply; only these candidates are
+ * verified with the rule's regular expression.
+ * <br/><br/>
+ * Rules without a usable literal prefix are verified at every position,
+ * as before
+ * @author David
+ *
+ */
+public class SandhiAutomaton {
+
+	/**
+	 * Maximum number of literal prefixes per rule
+	 */
+	private final static int MAX_PREFIXES = 1024;
+	/**
+	 * Regular expression meta characters
+	 */
+	private final static String META = "\\[](){}.*+?^$|";
+
+	/**
+	 * Automaton state
+	 */
+	private static class Node {
+		/**
+		 * Outgoing edge labels, parallel to children
+		 */
+		private char[] labels = new char[0];
+		/**
+		 * Child nodes
+		 */
+		private Node[] children = new Node[0];
+		/**
+		 * Longest proper suffix of this state that is also a state
+		 */
+		private Node fail;
+		/**
+		 * Rules with a prefix ending at this state (including
+		 * those reached by fail links)
+		 */
+		private int[] rules = new int[0];
+		/**
+		 * Length of the prefix, parallel to rules
+		 */
+		private int[] lengths = new int[0];
+
+		private Node get (char c) {
+			for (int i = 0; i < labels.length; i++) {
+				if (labels[i] == c)
+					return children[i];
+			}
+			return null;
+		}
+
+		private Node getOrAdd (char c) {
+			Node n = get(c);
+			if (n != null)
+				return n;
+			n = new Node();
+			int l = labels.length;
+			labels = Arrays.copyOf(labels, l+1);
+			children = Arrays.copyOf(children, l+1);
+			labels[l] = c;
+			children[l] = n;
+			return n;
+		}
+
+		private void mark (int rule, int length) {
+			int l = rules.length;
+			rules = Arrays.copyOf(rules, l+1);
+			lengths = Arrays.copyOf(lengths, l+1);
+			rules[l] = rule;
+			lengths[l] = length;
+		}
+	}
+
+	/**
+	 * Indexed rules
+	 */
+	private List<SandhiRule> rules;
+	/**
+	 * Root state
+	 */
+	private Node root;
+	/**
+	 * Rules that have to be checked at every position
+	 */
+	private int[] unindexed;
+
+	/**
+	 * Constructor
+	 * @param rules rules to index
+	 */
+	public SandhiAutomaton (List<SandhiRule> rules) {
+		this.rules = new ArrayList<SandhiRule>(rules);
+		root = new Node();
+		List<Integer> always = new ArrayList<Integer>();
+		for (int r = 0; r < this.rules.size(); r++) {
+			List<String> prefixes = getLiteralPrefixes(this.rules.get(r).getPattern());
+			if (prefixes == null) {
+				always.add(r);
+				continue;
+			}
+			for (String p : prefixes) {
+				Node n = root;
+				for (int k = 0; k < p.length(); k++) {
+					n = n.getOrAdd(p.charAt(k));
+				}
+				n.mark(r, p.length());
+			}
+		}
+		unindexed = new int[always.size()];
+		for (int i = 0; i < unindexed.length; i++) {
+			unindexed[i] = always.get(i);
+		}
+		buildFailLinks();
+	}
+
+	/**
+	 * Computes fail links breadth first and merges the
+	 * outputs of each state with those of its fail state
+	 */
+	private void buildFailLinks () {
+		LinkedList<Node> queue = new LinkedList<Node>();
+		root.fail = root;
+		for (Node c : root.children) {
+			c.fail = root;
+			queue.add(c);
+		}
+		while (!queue.isEmpty()) {
+			Node n = queue.removeFirst();
+			for (int i = 0; i < n.labels.length; i++) {
+				char c = n.labels[i];
+				Node child = n.children[i];
+				Node f = n.fail;
+				while (f != root && f.get(c) == null) {
+					f = f.fail;
+				}
+				Node target = f.get(c);
+				child.fail = (target == null || target == child) ? root : target;
+				queue.add(child);
+			}
+			// fail state is closer to the root and therefore complete
+			for (int i = 0; i < n.fail.rules.length; i++) {
+				n.mark(n.fail.rules[i], n.fail.lengths[i]);
+			}
+		}
+	}
+
+	/**
+	 * Returns all positions and rules applicable to the given word
+	 * <p>
+	 * Same as checking {@link SandhiRule#isApplicable(String, int)}
+	 * for every position of the word and every rule; entries are
+	 * ordered by position, then by rule order
+	 * @param word word
+	 * @return table of applicable rules
+	 */
+	public SandhiTable match (String word) {
+		int len = word.length();
+		BitSet[] candidates = new BitSet[len];
+		Node n = root;
+		for (int k = 0; k < len; k++) {
+			char c = word.charAt(k);
+			Node next = n.get(c);
+			while (next == null && n != root) {
+				n = n.fail;
+				next = n.get(c);
+			}
+			n = next == null ? root : next;
+			for (int i = 0; i < n.rules.length; i++) {
+				int start = k - n.lengths[i] + 1;
+				if (candidates[start] == null)
+					candidates[start] = new BitSet(rules.size());
+				candidates[start].set(n.rules[i]);
+			}
+		}
+		SandhiTable st = new SandhiTable();
+		for (int pos = 0; pos < len; pos++) {
+			BitSet b = candidates[pos];
+			if (unindexed.length > 0) {
+				if (b == null)
+					b = new BitSet(rules.size());
+				for (int r : unindexed) {
+					b.set(r);
+				}
+			}
+			if (b == null)
+				continue;
+			for (int r = b.nextSetBit(0); r >= 0; r = b.nextSetBit(r+1)) {
+				SandhiRule sr = rules.get(r);
+				if (sr.isApplicable(word, pos))
+					st.push(pos, sr);
+			}
+		}
+		return st;
+	}
+
+	/**
+	 * Returns the literal strings every match of the pattern
+	 * starts with
+	 * <p>
+	 * Literal characters and groups of literal alternatives
+	 * are expanded from the left until the first other construct
+	 * @param pattern pattern
+	 * @return literal prefixes or null if the pattern
+	 * has no literal prefix
+	 */
+	static List<String> getLiteralPrefixes (String pattern) {
+		if (hasTopLevelAlternative(pattern))
+			return null;
+		List<String> prefixes = new ArrayList<String>();
+		prefixes.add("");
+		int i = 0;
+		// at region start, ^ matches anyway
+		if (pattern.startsWith("^"))
+			i++;
+		while (i < pattern.length()) {
+			char c = pattern.charAt(i);
+			List<String> alternatives = new ArrayList<String>();
+			int next;
+			if (META.indexOf(c) < 0) {
+				alternatives.add(String.valueOf(c));
+				next = i+1;
+			} else if (c == '(') {
+				int close = pattern.indexOf(')', i);
+				if (close < 0)
+					break;
+				boolean literal = true;
+				for (String a : pattern.substring(i+1, close).split("\\|", -1)) {
+					if (a.isEmpty() || !isLiteral(a)) {
+						literal = false;
+						break;
+					}
+					alternatives.add(a);
+				}
+				if (!literal)
+					break;
+				next = close+1;
+			} else {
+				break;
+			}
+			// optional or repeated atoms end the prefix
+			if (next < pattern.length() && "*+?{".indexOf(pattern.charAt(next)) >= 0)
+				break;
+			if (prefixes.size() * alternatives.size() > MAX_PREFIXES)
+				break;
+			List<String> expanded = new ArrayList<String>();
+			for (String p : prefixes) {
+				for (String a : alternatives) {
+					expanded.add(p+a);
+				}
+			}
+			prefixes = expanded;
+			i = next;
+		}
+		if (prefixes.get(0).isEmpty())
+			return null;
+		return prefixes;
+	}
+
+	/**
+	 * Checks whether a string contains no meta characters
+	 * @param s string
+	 * @return true if string is literal
+	 */
+	private static boolean isLiteral (String s) {
+		for (int i = 0; i < s.length(); i++) {
+			if (META.indexOf(s.charAt(i)) >= 0)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Checks whether the pattern has alternatives outside of groups
+	 * @param pattern pattern
+	 * @return true if pattern has top-level alternatives
+	 */
+	private static boolean hasTopLevelAlternative (String pattern) {
+		int depth = 0;
+		boolean cls = false;
+		for (int i = 0; i < pattern.length(); i++) {
+			char c = pattern.charAt(i);
+			if (c == '\\') {
+				i++;
+			} else if (cls) {
+				if (c == ']')
+					cls = false;
+			} else if (c == '[') {
+				cls = true;
+			} else if (c == '(') {
+				depth++;
+			} else if (c == ')') {
+				depth--;
+			} else if (c == '|' && depth == 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
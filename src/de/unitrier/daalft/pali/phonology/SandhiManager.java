@@ -2,6 +2,7 @@ package de.unitrier.daalft.pali.phonology;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -25,6 +26,10 @@ public class SandhiManager {
 	 * Dictionary
 	 */
 	private MyDictionary dict;
+	/**
+	 * Automata over the splitting and sound replacing rules
+	 */
+	private SandhiAutomaton revAutomaton, soundAutomaton;
 
 	public SandhiManager() {
 		rules = new ArrayList<SandhiRule>();
@@ -34,6 +39,26 @@ public class SandhiManager {
 		init();
 	}
 
+	/**
+	 * Constructor with already expanded rules
+	 * @param dict dictionary
+	 * @param rules merging rules
+	 * @param revRules splitting rules
+	 * @param soundRules sound replacing rules
+	 */
+	public SandhiManager(MyDictionary dict, List<SandhiRule> rules, List<SandhiRule> revRules, List<SandhiRule> soundRules) {
+		this.dict = dict;
+		this.rules = readOnly(rules);
+		this.revRules = readOnly(revRules);
+		this.soundRules = readOnly(soundRules);
+		RuleMethods.setDictionary(dict);
+		compile(rules);
+		compile(revRules);
+		compile(soundRules);
+		revAutomaton = new SandhiAutomaton(revRules);
+		soundAutomaton = new SandhiAutomaton(soundRules);
+	}
+
 	/**
 	 * Initializer
 	 */
@@ -46,9 +71,24 @@ public class SandhiManager {
 		}
 		dict = sr.getDictionary();
 		RuleMethods.setDictionary(dict);
-		rules = expand(sr.getRules());
-		revRules = expand(sr.getReverseRules());
-		soundRules = sr.getSoundRules();
+		rules = readOnly(expand(sr.getRules()));
+		revRules = readOnly(expand(sr.getReverseRules()));
+		soundRules = readOnly(sr.getSoundRules());
+		compile(rules);
+		compile(revRules);
+		compile(soundRules);
+		revAutomaton = new SandhiAutomaton(revRules);
+		soundAutomaton = new SandhiAutomaton(soundRules);
+	}
+
+	/**
+	 * Compiles the patterns of all rules
+	 * @param list list
+	 */
+	private static void compile (List<SandhiRule> list) {
+		for (SandhiRule sr : list) {
+			sr.compile();
+		}
 	}
 
 	/**
@@ -64,9 +104,18 @@ public class SandhiManager {
 		return out;
 	}
 	
+	/**
+	 * Returns a read-only copy of a rule list
+	 * @param list list
+	 * @return read-only copy
+	 */
+	private static List<SandhiRule> readOnly (List<SandhiRule> list) {
+		return Collections.unmodifiableList(new ArrayList<SandhiRule>(list));
+	}
+	
 	/**
 	 * Returns merging rules
-	 * @return merging rules
+	 * @return merging rules, read-only
 	 */
 	public List<SandhiRule> getRules () {
 		return rules;
@@ -82,15 +131,31 @@ public class SandhiManager {
 	
 	/**
 	 * Returns splitting rules
-	 * @return splitting rules
+	 * @return splitting rules, read-only
 	 */
 	public List<SandhiRule> getReverseRules () {
 		return revRules;
 	}
 	
+	/**
+	 * Returns the automaton over the splitting rules
+	 * @return splitting rule automaton
+	 */
+	public SandhiAutomaton getReverseRuleAutomaton () {
+		return revAutomaton;
+	}
+	
+	/**
+	 * Returns the automaton over the sound replacing rules
+	 * @return sound replacing rule automaton
+	 */
+	public SandhiAutomaton getSoundRuleAutomaton () {
+		return soundAutomaton;
+	}
+	
 	/**
 	 * Returns sound replacing rules
-	 * @return sound replacing rules
+	 * @return sound replacing rules, read-only
 	 */
 	public List<SandhiRule> getSoundRules () {
 		return soundRules;
@@ -134,7 +199,7 @@ public class SandhiManager {
 	 * @return merged words
 	 */
 	public List<String> merge (String... words) {
-		SandhiMerge sm = new SandhiMerge();
+		SandhiMerge sm = new SandhiMerge(this);
 		return sm.merge(words);
 	}
 	
@@ -145,7 +210,7 @@ public class SandhiManager {
 	 * @return split word
 	 */
 	public List<SplitResult> split (String word, int depth) {
-		SandhiSplit sp = new SandhiSplit();
+		SandhiSplit sp = new SandhiSplit(this);
 		return sp.split(word, depth);
 	}
 }
@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 
+import de.unitrier.daalft.pali.PaliGrammarContext;
 import de.unitrier.daalft.pali.phonology.element.SandhiRule;
 
 /**
@@ -20,8 +21,21 @@ public class SandhiMerge
 	 */
 	private SandhiManager sm;
 	
+	/**
+	 * Constructor
+	 * <p>
+	 * Uses the sandhi rules of the shared grammar context
+	 */
 	public SandhiMerge() {
-		sm  = new SandhiManager();
+		this(PaliGrammarContext.getInstance().getSandhiManager());
+	}
+
+	/**
+	 * Constructor
+	 * @param sm sandhi manager
+	 */
+	public SandhiMerge(SandhiManager sm) {
+		this.sm = sm;
 	}
 
 	/**
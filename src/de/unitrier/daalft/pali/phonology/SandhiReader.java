@@ -28,7 +28,7 @@ public class SandhiReader {
 	/**
 	 * Default paths
 	 */
-	private final static String defaultDictPath = "./data/sandhi/sandhiDictionary.in",
+	public final static String defaultDictPath = "./data/sandhi/sandhiDictionary.in",
 			defaultMergePath = "./data/sandhi/sandhiMerge.in",
 			defaultSplitPath = "./data/sandhi/sandhiSplit.in",
 			defaultSoundPath = "./data/sandhi/sandhiSound.in";
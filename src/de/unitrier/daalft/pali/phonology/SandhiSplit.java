@@ -6,10 +6,9 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
+import de.unitrier.daalft.pali.PaliGrammarContext;
 import de.unitrier.daalft.pali.general.Alphabet;
-import de.unitrier.daalft.pali.morphology.MorphologyAnalyzer;
-import de.unitrier.daalft.pali.morphology.paradigm.ParadigmAccessor;
-import de.unitrier.daalft.pali.phonology.element.SandhiRule;
+import de.unitrier.daalft.pali.ngram.NGramScorer;
 import de.unitrier.daalft.pali.phonology.element.SandhiTableEntry;
 import de.unitrier.daalft.pali.phonology.element.SplitResult;
 import de.unitrier.daalft.pali.tools.Patterner;
@@ -24,13 +23,69 @@ import de.unitrier.daalft.pali.tools.Patterner;
 public class SandhiSplit
 {
 
+	/**
+	 * Default number of splits returned for depths above one
+	 */
+	public final static int DEFAULT_BEST = 10;
+
 	/**
 	 * Sandhi manager instance
 	 */
 	private SandhiManager sm;
+	/**
+	 * Scorer of splits above depth one
+	 */
+	private SplitScorer scorer;
+	/**
+	 * Number of splits returned for depths above one
+	 */
+	private int best;
 
+	/**
+	 * Constructor
+	 * <p>
+	 * Uses the sandhi rules and n-gram tables of the shared
+	 * grammar context
+	 */
 	public SandhiSplit () {
-		sm  = new SandhiManager();
+		this(PaliGrammarContext.getInstance().getSandhiManager(),
+				PaliGrammarContext.getInstance().getNGramScorer());
+	}
+
+	/**
+	 * Constructor
+	 * <p>
+	 * Uses the n-gram tables of the shared n-gram scorer
+	 * @param sm sandhi manager
+	 */
+	public SandhiSplit (SandhiManager sm) {
+		this(sm, NGramScorer.getInstance());
+	}
+
+	/**
+	 * Constructor
+	 * <p>
+	 * Returns the {@link #DEFAULT_BEST} best splits for depths above one
+	 * @param sm sandhi manager
+	 * @param ngs n-gram scorer used to rank splits above depth one
+	 */
+	public SandhiSplit (SandhiManager sm, NGramScorer ngs) {
+		this(sm, ngs, DEFAULT_BEST);
+	}
+
+	/**
+	 * Constructor
+	 * @param sm sandhi manager
+	 * @param ngs n-gram scorer used to rank splits above depth one
+	 * @param best number of splits returned for depths above one
+	 * @throws IllegalArgumentException if <em>best</em> is not positive
+	 */
+	public SandhiSplit (SandhiManager sm, NGramScorer ngs, int best) {
+		if (best < 1)
+			throw new IllegalArgumentException("Number of splits must be positive: " + best);
+		this.sm = sm;
+		this.scorer = new NGramSplitScorer(ngs);
+		this.best = best;
 	}
 
 	public SandhiSplit (int d) {
@@ -41,7 +96,15 @@ public class SandhiSplit
 	/**
 	 * Default splitting depth
 	 */
-	private int defaultDepth = 2;
+	private int defaultDepth = 1;
+
+	/**
+	 * Returns the number of splits returned for depths above one
+	 * @return number of splits
+	 */
+	public int getBest () {
+		return best;
+	}
 
 	/**
 	 * Splits a word into possible constituent words according to
@@ -50,35 +113,50 @@ public class SandhiSplit
 	 *
 	 * <em>depth</em> specifies the depth of the split. The method will be 
 	 * called at most <em>depth</em> times. If the parameter <em>depth</em> is
-	 * specified as <em>0</em>, the default depth of 3 will be used
+	 * specified as <em>0</em>, the default depth of 1 will be used
+	 * <br/><br/>
+	 * For depth one, all splits are returned, sorted. For
+	 * depths above one, the result is <em>not</em>
+	 * exhaustive: only the {@link #getBest()} best splits according
+	 * to the n-gram scorer are returned, best first, as by
+	 * {@link #split(String, int, int, SplitScorer)}. Pass a larger
+	 * number to the constructor to get more splits
 	 * @param word word to split
 	 * @param depth depth of split
-	 * @return possible splits
+	 * @return possible splits; at most {@link #getBest()} for depths above one
+	 * @see #split(String, int, int, SplitScorer)
 	 */
 	public List<SplitResult> split (String word, int depth) {
 		if (depth == 0)
 			depth = defaultDepth;
-		List<SplitResult> out = splitWord(word); //recursiveSplit(word, depth, new ArrayList<SplitResult>());
+		if (depth > 1)
+			return split(word, depth, best, scorer);
+		List<SplitResult> out = splitWord(word);
 		Set<SplitResult> set = new LinkedHashSet<SplitResult>(out);
 		List<SplitResult> finalOut = new ArrayList<SplitResult>(set);
 		Collections.sort(finalOut);
 		return finalOut;
 	}
 
-	private List<SplitResult> recursiveSplit (String w, int d, ArrayList<SplitResult> list) {
-		if (d == 0) {
-			return list;
-		}
-		List<SplitResult> l = splitWord(w);
-
-		for (SplitResult sr : l) {
-			if (!list.contains(sr))
-				list.add(sr);
-			for (String s : sr.getSplit()) {
-				recursiveSplit(s, d-1, list);
-			}
-		}
-		return recursiveSplit(w,d-1,list);
+	/**
+	 * Returns the <em>k</em> best splits of a word into possible
+	 * constituent words according to the rules of sandhi
+	 * <p>
+	 * Each word of a split may be split again, up to <em>depth</em>
+	 * times. Sub-splits are computed once per word and depth, so the
+	 * cost grows polynomially with depth and word length. The score
+	 * of a split is its log-probability per n-gram less a penalty
+	 * per word, and is available as confidence of the split result
+	 * @param word word to split
+	 * @param depth depth of split
+	 * @param k number of splits to return
+	 * @param scorer word scorer
+	 * @return best splits, best first
+	 */
+	public List<SplitResult> split (String word, int depth, int k, SplitScorer scorer) {
+		if (depth < 1 || k < 1)
+			return new ArrayList<SplitResult>();
+		return new SplitLattice(this, scorer, k).split(word, depth);
 	}
 
 	/**
@@ -86,24 +164,9 @@ public class SandhiSplit
 	 * @param word word to split
 	 * @return split result
 	 */
-	private List<SplitResult> splitWord (String word) {
-		MorphologyAnalyzer morphologyAnalyzer = null;
-		try {
-			morphologyAnalyzer = new MorphologyAnalyzer(new ParadigmAccessor());
-		} catch (Exception e) {
-			
-		}
+	List<SplitResult> splitWord (String word) {
 		List<SplitResult> result = new ArrayList<SplitResult>();
-		SandhiTable st = new SandhiTable();
-		for (int i = 0; i < word.length(); i++) {
-			for (SandhiRule sr : sm.getReverseRules()) {
-				
-					if (sr.isApplicable(word.substring(i))) {
-						st.push(i, sr);
-					}
-				
-			}
-		}
+		SandhiTable st = sm.getReverseRuleAutomaton().match(word);
 		for (SandhiTableEntry e : st) {
 			SplitResult sr = new SplitResult(e.getRule().applyPosSplit(e.getPosition(),word), e.getPosition(), e.getRule());
 			if (!result.contains(sr))
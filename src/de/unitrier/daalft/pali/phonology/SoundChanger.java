@@ -4,7 +4,7 @@ import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
-import de.unitrier.daalft.pali.phonology.element.SandhiRule;
+import de.unitrier.daalft.pali.PaliGrammarContext;
 import de.unitrier.daalft.pali.phonology.element.SandhiTableEntry;
 import de.unitrier.daalft.pali.phonology.element.SplitResult;
 
@@ -15,21 +15,35 @@ import de.unitrier.daalft.pali.phonology.element.SplitResult;
  */
 public class SoundChanger {
 
+	/**
+	 * Sandhi manager
+	 */
+	private SandhiManager sm;
+
+	/**
+	 * Constructor
+	 * <p>
+	 * Uses the sandhi rules of the shared grammar context
+	 */
+	public SoundChanger () {
+		this(PaliGrammarContext.getInstance().getSandhiManager());
+	}
+
+	/**
+	 * Constructor
+	 * @param sm sandhi manager
+	 */
+	public SoundChanger (SandhiManager sm) {
+		this.sm = sm;
+	}
+
 	/**
 	 * Returns all spelling alternatives for a given word
 	 * @param word word
 	 * @return spelling alternatives
 	 */
 	public List<String> getAlternatives (String word) {
-		SandhiManager sm = new SandhiManager();
-		SandhiTable st = new SandhiTable();
-		for (int i = 0; i < word.length(); i++) {
-			for (SandhiRule sr : sm.getSoundRules()) {
-				if (sr.isApplicable(word.substring(i))) {
-					st.push(i, sr);
-				}
-			}
-		}
+		SandhiTable st = sm.getSoundRuleAutomaton().match(word);
 		List<String> out = new ArrayList<String>();
 		List<SplitResult> li = new LinkedList<SplitResult>();
 		for (SandhiTableEntry e : st) {
@@ -0,0 +1,275 @@
+package de.unitrier.daalft.pali.phonology;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.unitrier.daalft.pali.morphology.MorphologyAnalyzer;
+import de.unitrier.daalft.pali.phonology.element.SandhiTableEntry;
+import de.unitrier.daalft.pali.phonology.element.SplitResult;
+
+/**
+ * Chart of all sandhi splits of a word up to a given depth
+ * <p>
+ * Every word of a split can be split again. Instead of re-splitting
+ * each word wherever it occurs, the one-level splits and the best
+ * segmentations of every (word, remaining depth) are computed once and
+ * memoized. Only the <em>k</em> best segmentations are kept per chart
+ * entry, and those of a word are combined from the kept segmentations
+ * of the words of its splits.
+ * <br/><br/>
+ * The score of a segmentation is its log-probability per n-gram, less
+ * {@link #WORD_PENALTY} per word. Splitting off a short fragment
+ * therefore only pays if it makes the other words much more probable.
+ * <br/><br/>
+ * As for one-level splits, every word but the last one of a
+ * segmentation has to be a lemma form
+ * @author David
+ *
+ */
+class SplitLattice {
+
+	/**
+	 * Segmentation of a word
+	 */
+	private static class Path {
+		/**
+		 * Words
+		 */
+		private List<String> words;
+		/**
+		 * Applied rules
+		 */
+		private List<SandhiTableEntry> applied;
+		/**
+		 * Sum of word log-probabilities
+		 */
+		private double logProbability;
+		/**
+		 * Sum of word lengths in n-grams
+		 */
+		private int length;
+		/**
+		 * Score
+		 */
+		private double score;
+
+		private Path (List<String> words, List<SandhiTableEntry> applied, double logProbability, int length) {
+			this.words = words;
+			this.applied = applied;
+			this.logProbability = logProbability;
+			this.length = length;
+			score = length == 0 ? 0.0 : logProbability / length - WORD_PENALTY * words.size();
+		}
+	}
+
+	/**
+	 * Score penalty per word of a segmentation
+	 */
+	private final static double WORD_PENALTY = 0.5;
+
+	/**
+	 * Orders paths by descending score
+	 */
+	private final static Comparator<Path> BY_SCORE = new Comparator<Path>() {
+		@Override
+		public int compare (Path p1, Path p2) {
+			return Double.compare(p2.score, p1.score);
+		}
+	};
+
+	/**
+	 * Splitter producing one-level splits
+	 */
+	private SandhiSplit ss;
+	/**
+	 * Word scorer
+	 */
+	private SplitScorer scorer;
+	/**
+	 * Number of segmentations kept per chart entry
+	 */
+	private int k;
+	/**
+	 * One-level splits per word
+	 */
+	private Map<String, List<SplitResult>> splits;
+	/**
+	 * Best segmentations per word, depth and final flag
+	 */
+	private Map<String, List<Path>> chart;
+	/**
+	 * Word log-probabilities
+	 */
+	private Map<String, Double> scores;
+	/**
+	 * Word lengths in n-grams
+	 */
+	private Map<String, Integer> lengths;
+
+	/**
+	 * Constructor
+	 * @param ss splitter producing one-level splits
+	 * @param scorer word scorer
+	 * @param k number of segmentations to keep
+	 */
+	SplitLattice (SandhiSplit ss, SplitScorer scorer, int k) {
+		this.ss = ss;
+		this.scorer = scorer;
+		this.k = k;
+		splits = new HashMap<String, List<SplitResult>>();
+		chart = new HashMap<String, List<Path>>();
+		scores = new HashMap<String, Double>();
+		lengths = new HashMap<String, Integer>();
+	}
+
+	/**
+	 * Returns the <em>k</em> best splits of the word, best first
+	 * @param word word to split
+	 * @param depth maximum number of times a word is split
+	 * @return best splits
+	 */
+	List<SplitResult> split (String word, int depth) {
+		List<Path> paths = new ArrayList<Path>();
+		for (SplitResult sr : splits(word)) {
+			paths.addAll(combine(sr, depth-1, true));
+		}
+		Collections.sort(paths, BY_SCORE);
+		List<SplitResult> out = new ArrayList<SplitResult>();
+		Set<List<String>> seen = new HashSet<List<String>>();
+		for (Path p : paths) {
+			if (out.size() == k)
+				break;
+			if (!seen.add(p.words))
+				continue;
+			// invalid splits are dropped before the k best are taken
+			SplitResult sr = new SplitResult(p.words, p.applied, p.score);
+			if (sr.isValid())
+				out.add(sr);
+		}
+		return out;
+	}
+
+	/**
+	 * Returns the best segmentations of a word that is itself
+	 * part of a split
+	 * @param word word
+	 * @param depth remaining depth
+	 * @param fin true if word is the last word of the segmentation
+	 * @return best segmentations
+	 */
+	private List<Path> expand (String word, int depth, boolean fin) {
+		String key = word + "\t" + depth + "\t" + fin;
+		List<Path> cached = chart.get(key);
+		if (cached != null)
+			return cached;
+		List<Path> paths = new ArrayList<Path>();
+		// leave word as is
+		if (fin || MorphologyAnalyzer.isLemmaForm(word)) {
+			List<String> words = new ArrayList<String>();
+			words.add(word);
+			paths.add(new Path(words, new ArrayList<SandhiTableEntry>(), score(word), length(word)));
+		}
+		if (depth > 0) {
+			for (SplitResult sr : splits(word)) {
+				paths.addAll(combine(sr, depth-1, fin));
+			}
+		}
+		List<Path> best = best(paths);
+		chart.put(key, best);
+		return best;
+	}
+
+	/**
+	 * Combines the best segmentations of the words of a split
+	 * @param sr split
+	 * @param depth remaining depth
+	 * @param fin true if the split ends the segmentation
+	 * @return best segmentations
+	 */
+	private List<Path> combine (SplitResult sr, int depth, boolean fin) {
+		List<String> words = sr.getSplit();
+		List<Path> acc = new ArrayList<Path>();
+		acc.add(new Path(new ArrayList<String>(), new ArrayList<SandhiTableEntry>(sr.getApplied()), 0.0, 0));
+		for (int i = 0; i < words.size() && !acc.isEmpty(); i++) {
+			List<Path> sub = expand(words.get(i), depth, fin && i == words.size()-1);
+			List<Path> next = new ArrayList<Path>();
+			for (Path a : acc) {
+				for (Path b : sub) {
+					List<String> w = new ArrayList<String>(a.words);
+					w.addAll(b.words);
+					List<SandhiTableEntry> e = new ArrayList<SandhiTableEntry>(a.applied);
+					e.addAll(b.applied);
+					next.add(new Path(w, e, a.logProbability + b.logProbability, a.length + b.length));
+				}
+			}
+			acc = best(next);
+		}
+		return acc;
+	}
+
+	/**
+	 * Returns the <em>k</em> best distinct paths, best first
+	 * @param paths paths
+	 * @return best paths
+	 */
+	private List<Path> best (List<Path> paths) {
+		Collections.sort(paths, BY_SCORE);
+		Map<List<String>, Path> distinct = new LinkedHashMap<List<String>, Path>();
+		for (Path p : paths) {
+			if (distinct.size() == k)
+				break;
+			if (!distinct.containsKey(p.words))
+				distinct.put(p.words, p);
+		}
+		return new ArrayList<Path>(distinct.values());
+	}
+
+	/**
+	 * Returns the one-level splits of a word
+	 * @param word word
+	 * @return splits
+	 */
+	private List<SplitResult> splits (String word) {
+		List<SplitResult> l = splits.get(word);
+		if (l == null) {
+			l = ss.splitWord(word);
+			splits.put(word, l);
+		}
+		return l;
+	}
+
+	/**
+	 * Returns the log-probability of a word
+	 * @param word word
+	 * @return log-probability
+	 */
+	private double score (String word) {
+		Double d = scores.get(word);
+		if (d == null) {
+			d = scorer.score(word);
+			scores.put(word, d);
+		}
+		return d;
+	}
+
+	/**
+	 * Returns the length of a word in n-grams
+	 * @param word word
+	 * @return length
+	 */
+	private int length (String word) {
+		Integer n = lengths.get(word);
+		if (n == null) {
+			n = scorer.length(word);
+			lengths.put(word, n);
+		}
+		return n;
+	}
+}
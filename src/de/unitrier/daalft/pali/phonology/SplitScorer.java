@@ -0,0 +1,27 @@
+package de.unitrier.daalft.pali.phonology;
+/**
+ * Interface for scoring the words of a sandhi split
+ * <p>
+ * Words are scored by their log-probability. The score of a
+ * split is its log-probability per n-gram, less a penalty per
+ * word; higher scores are better
+ * @author David
+ *
+ */
+public interface SplitScorer {
+
+	/**
+	 * Returns the log-probability of a single word of a split
+	 * @param word word
+	 * @return log-probability, at most 0
+	 */
+	double score (String word);
+
+	/**
+	 * Returns the number of n-grams the log-probability
+	 * of a word is made of
+	 * @param word word
+	 * @return number of n-grams, at least 1
+	 */
+	int length (String word);
+}
@@ -1,6 +1,8 @@
 package de.unitrier.daalft.pali.phonology.element;
 
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Class to represent sandhi rules (euphony)
@@ -24,6 +26,15 @@ public class SandhiRule {
 	 * Map of references - back-references
 	 */
 	private Map<String, String> map;
+	/**
+	 * Compiled pattern, matched at a given position with lookingAt
+	 */
+	private volatile Pattern compiled;
+	/**
+	 * Compiled parts of a two-word pattern: end of first word,
+	 * start of second word
+	 */
+	private volatile Pattern[] compiledParts;
 	/**
 	 * Constructor with rule
 	 * @param rule rule
@@ -66,7 +77,7 @@ public class SandhiRule {
 	 * @return word with rule applied
 	 */
 	public String apply (String word) {
-		return word.replaceAll(pattern, replacement);
+		return compiled().matcher(word).replaceAll(replacement);
 	}
 	/**
 	 * Applies this rule to the given word once
@@ -74,7 +85,7 @@ public class SandhiRule {
 	 * @return word with rule applied
 	 */
 	public String applyFirst (String word) {
-		return word.replaceFirst(pattern, replacement);
+		return compiled().matcher(word).replaceFirst(replacement);
 	}
 	/**
 	 * Applies this rule to the given words
@@ -115,18 +126,23 @@ public class SandhiRule {
 	 */
 	public String[] applyPosSplit (int pos, String word) {
 		// delete non-back-referencing dollar signs
-		if (replacement.contains("$ ")) {
-			if (replacement.contains("$ $")) 
-				replacement = replacement.replace("$ $", " $");
+		// (on a copy, rules are shared between splitters)
+		String r = replacement;
+		if (r.contains("$ ")) {
+			if (r.contains("$ $")) 
+				r = r.replace("$ $", " $");
 			else
-				replacement = replacement.replace("$ ", "");
+				r = r.replace("$ ", "");
 		}
-		// split the word into two at position 
-		String a = word.substring(0, pos);
-		String b = word.substring(pos);
-		// apply rule
-		String c = b.replaceFirst(pattern, replacement);
-		return (a+c).split(" ");
+		// apply rule to the part of the word starting at position
+		Matcher m = compiled().matcher(word);
+		m.region(pos, word.length());
+		if (!m.find())
+			return word.split(" ");
+		StringBuffer sb = new StringBuffer();
+		m.appendReplacement(sb, r);
+		m.appendTail(sb);
+		return sb.toString().split(" ");
 	}
 	/**
 	 * Checks whether this rule can be applied to the specified arguments
@@ -135,14 +151,14 @@ public class SandhiRule {
 	 * @return true if rule can be applied
 	 */
 	public boolean isApplicable (String w1, String w2) {
-		String[] ps = pattern.split(" ");
+		Pattern[] ps = compiledParts();
 		// if pattern does not contain two parts
-		if (ps.length < 2)
+		if (ps == null)
 			// pattern is not applicable to two words
 			return false;
 		// if argument 1 ends with pattern part 1
 		// and argument 2 starts with pattern part 2
-		if (w1.matches(".*"+ps[0]) && w2.matches(ps[1]+".*"))
+		if (ps[0].matcher(w1).matches() && ps[1].matcher(w2).matches())
 			return true;
 		return false;
 	}
@@ -152,7 +168,61 @@ public class SandhiRule {
 	 * @return true if rule can be applied
 	 */
 	public boolean isApplicable (String word) {
-		return word.matches(pattern+".*");
+		return isApplicable(word, 0);
+	}
+	/**
+	 * Checks whether this rule can be applied to the specified
+	 * argument at the specified position
+	 * <p>
+	 * Same as <code>isApplicable(word.substring(pos))</code>
+	 * without copying the word
+	 * @param word argument
+	 * @param pos position
+	 * @return true if rule can be applied
+	 */
+	public boolean isApplicable (String word, int pos) {
+		Matcher m = compiled().matcher(word);
+		m.region(pos, word.length());
+		return m.lookingAt();
+	}
+	/**
+	 * Compiles the pattern of this rule
+	 * <p>
+	 * Rules compile their pattern on first use anyway;
+	 * calling this once after all constants have been
+	 * replaced avoids doing so while matching
+	 */
+	public void compile () {
+		String[] ps = pattern.split(" ");
+		if (ps.length < 2) {
+			compiledParts = null;
+		} else {
+			compiledParts = new Pattern[] {Pattern.compile(".*"+ps[0]), Pattern.compile(ps[1]+".*")};
+		}
+		// set last, a non-null compiled pattern means the parts are set as well
+		compiled = Pattern.compile(pattern);
+	}
+	/**
+	 * Returns the compiled pattern, compiling it if necessary
+	 * @return compiled pattern
+	 */
+	private Pattern compiled () {
+		Pattern p = compiled;
+		if (p == null) {
+			compile();
+			p = compiled;
+		}
+		return p;
+	}
+	/**
+	 * Returns the compiled parts of a two-word pattern,
+	 * compiling them if necessary
+	 * @return compiled parts or null if pattern has one part only
+	 */
+	private Pattern[] compiledParts () {
+		if (compiled == null)
+			compile();
+		return compiledParts;
 	}
 	/**
 	 * Returns this pattern
@@ -174,6 +244,8 @@ public class SandhiRule {
 	 */
 	public void setPattern (String p) {
 		pattern = p;
+		compiled = null;
+		compiledParts = null;
 	}
 	/**
 	 * Sets this replacement
@@ -3,10 +3,11 @@ package de.unitrier.daalft.pali.phonology.element;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
+import de.cl.dictclient.DictWord;
 import de.unitrier.daalft.pali.lexicon.LexiconAdapter;
 import de.unitrier.daalft.pali.morphology.MorphologyAnalyzer;
-import de.unitrier.daalft.pali.morphology.paradigm.ParadigmAccessor;
 import de.unitrier.daalft.pali.validation.Validator;
 /**
  * Class representing the result of sandhi splitting
@@ -15,7 +16,6 @@ import de.unitrier.daalft.pali.validation.Validator;
  */
 public class SplitResult implements Comparable <SplitResult> {
 	Validator v;
-	MorphologyAnalyzer ma;
 	/**
 	 * List of strings resulting from split
 	 */
@@ -39,12 +39,6 @@ public class SplitResult implements Comparable <SplitResult> {
 		list = new LinkedList<String>();
 		applied = new ArrayList<SandhiTableEntry>();
 		v =  new Validator();
-		try {
-			ma = new MorphologyAnalyzer(new ParadigmAccessor(),la);
-		} catch (Exception e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
 	}
 	/**
 	 * Constructor
@@ -62,6 +56,22 @@ public class SplitResult implements Comparable <SplitResult> {
 		} catch (Exception e) {
 		}
 	}
+	/**
+	 * Constructor
+	 * @param result words of the split
+	 * @param applied applied rules
+	 * @param confidence confidence of split
+	 */
+	public SplitResult (List<String> result, List<SandhiTableEntry> applied, double confidence) {
+		this();
+		list.addAll(result);
+		this.applied.addAll(applied);
+		this.confidence = confidence;
+		try {
+			selfvalidate();
+		} catch (Exception e) {
+		}
+	}
 	/**
 	 * Constructor
 	 * @param word word
@@ -80,7 +90,6 @@ public class SplitResult implements Comparable <SplitResult> {
 	 * @throws Exception
 	 */
 	public double getConfidence () throws Exception {
-		double confidence = 0.0;
 		//calculateConfidence();
 		return confidence;
 	}
@@ -97,30 +106,24 @@ public class SplitResult implements Comparable <SplitResult> {
 	 * @throws Exception
 	 */
 	private double getNom () throws Exception {
-		double n = 0.0;
-		for (String s : list) {
-			if (inDict(s)) {
-				n++;
-			}
-		}
-		return n;
-	}
-	/**
-	 * Checks whether a word is in the dictionary
-	 * @param s word to check
-	 * @return true if word is in dictionary
-	 * @throws Exception
-	 */
-	private boolean inDict (String s) throws Exception {
 		if (la == null) {
 			try {
-				la = new LexiconAdapter();
+				la = LexiconAdapter.getDefault();
 			} catch (Exception e) {
 				e.printStackTrace();
 				System.err.println("Could not establish connection to database!");
 			}
 		}
-		return la.lemmaContains(s) || la.wordformContains(s);// || la.generatedContains(s);
+		// one lookup per collection for all words
+		Map<String, DictWord[]> lemmata = la.lookupLemmas(list);
+		Map<String, DictWord[]> wordforms = la.lookupWordforms(list);// la.lookupGenerated(list);
+		double n = 0.0;
+		for (String s : list) {
+			if (lemmata.get(s).length > 0 || wordforms.get(s).length > 0) {
+				n++;
+			}
+		}
+		return n;
 	}
 	/**
 	 * Self-validates this split result
@@ -131,7 +134,7 @@ public class SplitResult implements Comparable <SplitResult> {
 		for (int i = 0; i < list.size(); i++) {
 			String s = list.get(i);
 			// invalidate if improbable word is encountered
-			if (i < list.size()-1 && !ma.isLemmaForm(s)) {
+			if (i < list.size()-1 && !MorphologyAnalyzer.isLemmaForm(s)) {
 				invalidate();
 				return;
 			}
@@ -176,6 +179,13 @@ public class SplitResult implements Comparable <SplitResult> {
 	public List<String> getSplit() {
 		return list;
 	}
+	/**
+	 * Returns the rules applied to obtain this split result
+	 * @return applied rules
+	 */
+	public List<SandhiTableEntry> getApplied() {
+		return applied;
+	}
 
 	@Override
 	public int compareTo(SplitResult o) {
@@ -0,0 +1,269 @@
+package de.unitrier.daalft.pali.tools;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.cl.dictclient.DictWord;
+import de.general.json.JObject;
+import de.general.json.JProperty;
+import de.general.json.JValue;
+import de.unitrier.daalft.pali.cache.CachedDictionaryLookup;
+import de.unitrier.daalft.pali.cache.EvictionPolicy;
+import de.unitrier.daalft.pali.cache.LoadingCache;
+import de.unitrier.daalft.pali.lexicon.FakeDictionaryServer;
+import de.unitrier.daalft.pali.lexicon.LexiconAdapter;
+import de.unitrier.daalft.pali.lexicon.LexiconIterator;
+import de.unitrier.daalft.pali.lexicon.LexiconMirror;
+
+/**
+ * Load test of the dictionary-backed lookups against a
+ * {@link FakeDictionaryServer} on localhost
+ * <p>
+ * The fixture lexicon is the local mirror if it exists, otherwise
+ * a generated one. Lemmata are requested by several threads with
+ * Zipf-distributed frequencies, some of them unknown, through
+ * <ul>
+ * <li>the plain {@link LexiconAdapter}</li>
+ * <li>the {@link CachedDictionaryLookup}, one lemma at a time</li>
+ * <li>the {@link CachedDictionaryLookup}, in batches</li>
+ * </ul>
+ * For every phase the throughput, the latency, the requests
+ * reaching the server and the cache hit ratio are printed.
+ * <br/><br/>
+ * Arguments (all optional, in this order): threads, lookups per thread,
+ * server latency in ms, server error rate, cache size
+ * @author David
+ *
+ */
+public class DictionaryLoadTest {
+
+	private final static String LEMMA = "pali_main_new";
+	private final static int GENERATED_LEMMATA = 20000, BATCH_SIZE = 50;
+	/**
+	 * Share of requested words that are not in the lexicon
+	 */
+	private final static double UNKNOWN_SHARE = 0.1;
+
+	private final FakeDictionaryServer server;
+	private final String[] lemmata;
+	/**
+	 * Cumulative Zipf weights of the lemmata
+	 */
+	private final double[] cumulative;
+	private final int threads, lookups;
+
+	public DictionaryLoadTest (FakeDictionaryServer server, String[] lemmata, int threads, int lookups) {
+		this.server = server;
+		this.lemmata = lemmata;
+		this.threads = threads;
+		this.lookups = lookups;
+		cumulative = new double[lemmata.length];
+		double sum = 0;
+		for (int i = 0; i < lemmata.length; i++) {
+			sum += 1.0 / (i + 1);
+			cumulative[i] = sum;
+		}
+	}
+
+	/**
+	 * Draws a lemma, or an unknown word
+	 * @param r random source of the calling thread
+	 * @return word
+	 */
+	private String draw (Random r) {
+		if (r.nextDouble() < UNKNOWN_SHARE)
+			return "unknown" + r.nextInt(lemmata.length);
+		int i = Arrays.binarySearch(cumulative, r.nextDouble() * cumulative[cumulative.length-1]);
+		return lemmata[i < 0 ? -i - 1 : i];
+	}
+
+	/**
+	 * A phase of the test: a lookup of a number of words
+	 */
+	private interface Lookup {
+		void lookup (List<String> words) throws Exception;
+	}
+
+	/**
+	 * Runs a phase on all threads and prints its statistics
+	 * @param name phase name
+	 * @param batch words per lookup
+	 * @param lookup lookup
+	 * @param cache if not null, the hit ratio of this cache is printed
+	 * @throws InterruptedException
+	 */
+	private void run (String name, final int batch, final Lookup lookup, LoadingCache<?> cache) throws InterruptedException {
+		server.resetCounts();
+		long hits0 = cache == null ? 0 : cache.getHitCount(), misses0 = cache == null ? 0 : cache.getMissCount();
+		final AtomicLong failures = new AtomicLong();
+		final long[][] latencies = new long[threads][];
+		Thread[] t = new Thread[threads];
+		long start = System.nanoTime();
+		for (int i = 0; i < threads; i++) {
+			final int n = i;
+			t[i] = new Thread(new Runnable() {
+				@Override
+				public void run () {
+					Random r = new Random(n);
+					long[] l = new long[lookups / batch];
+					for (int j = 0; j < l.length; j++) {
+						List<String> words = new ArrayList<String>(batch);
+						for (int k = 0; k < batch; k++)
+							words.add(draw(r));
+						long s = System.nanoTime();
+						try {
+							lookup.lookup(words);
+						} catch (Exception e) {
+							failures.incrementAndGet();
+						}
+						l[j] = System.nanoTime() - s;
+					}
+					latencies[n] = l;
+				}
+			});
+			t[i].start();
+		}
+		for (Thread th : t)
+			th.join();
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		long[] all = new long[0];
+		for (long[] l : latencies) {
+			int from = all.length;
+			all = Arrays.copyOf(all, from + l.length);
+			System.arraycopy(l, 0, all, from, l.length);
+		}
+		Arrays.sort(all);
+		long sum = 0;
+		for (long l : all)
+			sum += l;
+		long words = (long) all.length * batch;
+
+		System.out.println(name);
+		System.out.println(String.format("  %d words in %.2f s: %.0f words/s, %d failed lookups",
+				words, seconds, words / seconds, failures.get()));
+		if (all.length > 0)
+			System.out.println(String.format("  latency per lookup: mean %.2f ms, p50 %.2f ms, p99 %.2f ms",
+					sum / 1e6 / all.length, all[all.length / 2] / 1e6, all[(int) (all.length * 0.99)] / 1e6));
+		System.out.println(String.format("  server: %d requests, %d commands, %d injected errors",
+				server.getRequestCount(), server.getCommandCount(), server.getErrorCount()));
+		if (cache != null) {
+			long hits = cache.getHitCount() - hits0, misses = cache.getMissCount() - misses0;
+			System.out.println(String.format("  cache: %d hits, %d misses, hit ratio %.3f",
+					hits, misses, hits / (double) Math.max(1, hits + misses)));
+		}
+	}
+
+	/**
+	 * Generates a fixture lexicon of the given size
+	 * @param server server to fill
+	 * @param n number of lemmata
+	 * @return lemmata
+	 * @throws Exception
+	 */
+	private static String[] generate (FakeDictionaryServer server, int n) throws Exception {
+		String[] onsets = {"", "k", "kh", "g", "c", "j", "ñ", "ṭ", "ḍ", "t", "th", "d", "dh", "n", "p", "ph", "b", "bh", "m", "y", "r", "l", "v", "s", "h"};
+		String[] vowels = {"a", "ā", "i", "ī", "u", "ū", "e", "o"};
+		Random r = new Random(42);
+		List<String> out = new ArrayList<String>(n);
+		Set<String> seen = new HashSet<String>();
+		while (out.size() < n) {
+			StringBuilder sb = new StringBuilder();
+			for (int s = 2 + r.nextInt(3); s > 0; s--)
+				sb.append(onsets[r.nextInt(onsets.length)]).append(vowels[r.nextInt(vowels.length)]);
+			String lemma = sb.toString();
+			if (!seen.add(lemma))
+				continue;
+			out.add(lemma);
+			server.addWord(LEMMA, new JObject(new JProperty("form", new JObject(new JProperty("lemma", new JValue(lemma)))),
+					new JProperty("grammar", new JObject(new JProperty("pos", new JValue("noun"))))));
+		}
+		return out.toArray(new String[n]);
+	}
+
+	/**
+	 * Returns the lemmata of a mirror
+	 * @param mirror mirror
+	 * @return lemmata
+	 * @throws Exception
+	 */
+	private static String[] lemmata (LexiconMirror mirror) throws Exception {
+		List<String> out = new ArrayList<String>();
+		String[] path = {"form", "lemma"};
+		DictWord[] page;
+		for (int ofs = 0; (page = mirror.getPage(LEMMA, ofs, LexiconIterator.DEFAULT_PAGE_SIZE)) != null; ofs += LexiconIterator.DEFAULT_PAGE_SIZE) {
+			for (DictWord dw : page) {
+				String l = dw.getPropertyStringValueNormalized(path);
+				if (l != null && (out.isEmpty() || !out.get(out.size()-1).equals(l)))
+					out.add(l);
+			}
+		}
+		// shuffle so the Zipf ranks do not follow the alphabet
+		Collections.shuffle(out, new Random(42));
+		return out.toArray(new String[out.size()]);
+	}
+
+	public static void main (String[] args) throws Exception {
+		int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+		int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+		int latency = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+		double errorRate = args.length > 3 ? Double.parseDouble(args[3]) : 0.0;
+		int cacheSize = args.length > 4 ? Integer.parseInt(args[4]) : 2000;
+
+		FakeDictionaryServer server = new FakeDictionaryServer();
+		String[] lemmata;
+		if (new File(LexiconMirror.DEFAULT_PATH).isFile()) {
+			LexiconMirror mirror = LexiconMirror.map(LexiconMirror.DEFAULT_PATH);
+			server.addAll(mirror, LEMMA);
+			lemmata = lemmata(mirror);
+		} else {
+			lemmata = generate(server, GENERATED_LEMMATA);
+		}
+		server.start(0, threads);
+		server.setLatency(latency, latency);
+		System.out.println(String.format("Fixture: %d lemmata; %d threads x %d lookups; latency %d-%d ms; error rate %.3f; cache size %d",
+				lemmata.length, threads, lookups, latency, 2*latency, errorRate, cacheSize));
+
+		try {
+			DictionaryLoadTest test = new DictionaryLoadTest(server, lemmata, threads, lookups);
+
+			// clients log in before errors are injected
+			final LexiconAdapter la = new LexiconAdapter(server.getHost(), server.getPort(), "test", "test");
+			final CachedDictionaryLookup single = new CachedDictionaryLookup(server.getHost(), server.getPort(), "test", "test",
+					cacheSize, 3600, EvictionPolicy.TINY_LFU);
+			final CachedDictionaryLookup batched = new CachedDictionaryLookup(server.getHost(), server.getPort(), "test", "test",
+					cacheSize, 3600, EvictionPolicy.TINY_LFU);
+			server.setErrorRate(errorRate);
+
+			test.run("LexiconAdapter, uncached", 1, new Lookup() {
+				@Override
+				public void lookup (List<String> words) throws Exception {
+					la.getLemmaEntriesAsJObjectArray(words.get(0));
+				}
+			}, null);
+
+			test.run("CachedDictionaryLookup, single lookups", 1, new Lookup() {
+				@Override
+				public void lookup (List<String> words) throws Exception {
+					single.getLemmata(words.get(0));
+				}
+			}, single.getCache());
+
+			test.run("CachedDictionaryLookup, batches of " + BATCH_SIZE, BATCH_SIZE, new Lookup() {
+				@Override
+				public void lookup (List<String> words) throws Exception {
+					batched.getLemmata(words);
+				}
+			}, batched.getCache());
+		} finally {
+			server.stop();
+		}
+	}
+}
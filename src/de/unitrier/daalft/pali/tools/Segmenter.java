@@ -1,5 +1,7 @@
 package de.unitrier.daalft.pali.tools;
 
+import de.unitrier.daalft.pali.general.Alphabet;
+
 /**
  * Class used to segment a word into phonological units
  * @author David
@@ -51,39 +53,25 @@ public class Segmenter {
 	 */
 	public static String segmentToString (String input, String delimiter) {
 		// if input is less than two characters long, return input
-				if (input.length() < 2)
-					return input;
-				StringBuilder sb = new StringBuilder();
-				for (int i = 0; i < input.length(); i++) {
-					// if character at position i is mute
-					if (
-							input.charAt(i) == 'k' ||
-							input.charAt(i) == 'g' ||
-							input.charAt(i) == 'c' ||
-							input.charAt(i) == 'j' ||
-							input.charAt(i) == 'ṭ' ||
-							input.charAt(i) == 'ḍ' ||
-							input.charAt(i) == 't' ||
-							input.charAt(i) == 'd' ||
-							input.charAt(i) == 'p' ||
-							input.charAt(i) == 'b'
-							) {
-						// if following character is 'h' => aspirated consonant
-						if ((i+1 < input.length()) && input.charAt(i+1) == 'h') {
-							// append aspirated consonant as unit
-							sb.append(input.substring(i, i+2)).append(delimiter);
-							// jump over the next letter ('h')
-							i++;
-						} else {
-							sb.append(input.substring(i, i+1)).append(delimiter);
-						}
-					} else {
-						sb.append(input.substring(i, i+1)).append(delimiter);
-					}
-				}
-				// delete last delimiter
-				sb.deleteCharAt(sb.length()-1);
-				return sb.toString();
+		if (input.length() < 2)
+			return input;
+		StringBuilder sb = new StringBuilder(input.length() * 2);
+		for (int i = 0; i < input.length(); i++) {
+			char c = input.charAt(i);
+			sb.append(c);
+			// if character at position i is mute and the
+			// following character is 'h' => aspirated consonant
+			if ((Alphabet.classOf(c) & Alphabet.MUTE) != 0 && (i+1 < input.length()) && input.charAt(i+1) == 'h') {
+				// append aspirated consonant as unit and
+				// jump over the next letter ('h')
+				sb.append('h');
+				i++;
+			}
+			sb.append(delimiter);
+		}
+		// delete last delimiter
+		sb.setLength(sb.length() - delimiter.length());
+		return sb.toString();
 	}
 	
 	/**
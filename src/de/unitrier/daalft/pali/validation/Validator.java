@@ -1,11 +1,8 @@
 package de.unitrier.daalft.pali.validation;
 
-import java.util.List;
+import java.util.Arrays;
 
 import de.unitrier.daalft.pali.general.Alphabet;
-import de.unitrier.daalft.pali.ngram.NGramScorer;
-import de.unitrier.daalft.pali.tools.Patterner;
-import de.unitrier.daalft.pali.tools.Segmenter;
 
 /**
  * Class to validate input
@@ -15,7 +12,6 @@ import de.unitrier.daalft.pali.tools.Segmenter;
 public class Validator {
 	
 	private static double threshold = 0.18;
-	private NGramScorer ngs = NGramScorer.getInstance();
 	
 	public Validator () {
 		
@@ -31,12 +27,11 @@ public class Validator {
 	 * @return true if string is a word
 	 */
 	public boolean isWord (String word) {
-		char[] ca = word.toCharArray();
-		boolean isChar = true;
-		for (int i = 0; i < ca.length; i++) {
-			isChar = isChar && (Alphabet.contains(ca[i]) || (ca[i] == '-') || (ca[i] == '\''));
+		for (int i = 0; i < word.length(); i++) {
+			if ((charClass(Character.toLowerCase(word.charAt(i))) & LETTER) == 0)
+				return false;
 		}
-		return isChar;
+		return true;
 	}
 	
 	/**
@@ -46,44 +41,61 @@ public class Validator {
 	 * @return true if word is valid according to the rules of the language
 	 */
 	public boolean isValidWord (String word) {
-		String segmentedWord = Segmenter.segmentToString(word);
-		boolean valid = isWord(word);
-		if (Segmenter.segmentToArray(word).length < 2) {
-			if (word.matches(Patterner.patternGroup(Alphabet.getVowels())))
-				return true;
-			return false;
+		return validate(word) == Violation.NONE;
+	}
+	
+	/**
+	 * Checks the given string against the phonotactic rules
+	 * of the language
+	 * <p>
+	 * The word is read segment by segment, an aspirated consonant
+	 * being one segment, and run through the {@link #TRANSITIONS}
+	 * automaton, which records every violation on the way. A word
+	 * is checked in a single pass without allocation
+	 * @param word word to check
+	 * @return first violated rule, see {@link Violation}, or {@link Violation#NONE}
+	 */
+	public Violation validate (String word) {
+		int n = word.length();
+		int segments = 0, first = OTHER, second = OTHER;
+		int state = 0, flags = 0;
+		boolean letters = true;
+		for (int i = 0; i < n; i++) {
+			char c = word.charAt(i);
+			letters = letters && (charClass(Character.toLowerCase(c)) & LETTER) != 0;
+			int segment = charClass(c) & SEGMENT;
+			if ((charClass(c) & MUTE) != 0 && i+1 < n && word.charAt(i+1) == 'h') {
+				// aspirated consonant
+				segment = ASPIRATED;
+				i++;
+			}
+			if (segments == 0) {
+				first = segment;
+			} else if (segments == 1) {
+				second = segment;
+			}
+			segments++;
+			int t = TRANSITIONS[state * SEGMENTS + segment];
+			state = t & 0xFF;
+			flags |= t >> 8;
 		}
+		if (segments < 2)
+			return n == 1 && isVowel(first) ? Violation.NONE : Violation.SHORT_WORD;
+		if (!letters)
+			return Violation.NOT_A_WORD;
 		// start with single C/V
-		valid = valid && (segmentedWord.matches("^"+patternGroup(Alphabet.getVowels()) +Segmenter.getDelimiter()+ patternOr(Alphabet.getConsonants()) + ".*?") || 
-				segmentedWord.matches("^"+patternOr(Alphabet.getConsonants()) +Segmenter.getDelimiter()+ patternGroup(Alphabet.getVowels()) + ".*?"));
-		if (!valid) return false;
-			//throw new Exception("WordStartViolation");
-		// TODO ends in V - ONLY FOR LEMMA
-		/*valid = valid && segmentedWord.matches(".*?" + patternGroup(Alphabet.getVowels()));
-		if (!valid)
-			throw new Exception("WordEndViolation");*/
+		if (!(isVowel(first) && isConsonant(second) || isConsonant(first) && isVowel(second)))
+			return Violation.WORD_START;
 		// not more than 2 C
-		valid = valid && !(segmentedWord.matches(".*?" + patternOr(Alphabet.getConsonants())+Segmenter.getDelimiter()+ patternOr(Alphabet.getConsonants()) + Segmenter.getDelimiter() + 
-				patternOr(Alphabet.getConsonants()) + ".*?"));
-		if (!valid) return false;
-			//throw new Exception("ConsonantClusterViolation");
+		if ((flags & CLUSTER) != 0)
+			return Violation.CONSONANT_CLUSTER;
 		// no C after aspirated C
-		if (segmentedWord.matches(".*?" + patternOr(Alphabet.getAspirated()) + ".*?")) {
-			valid = valid && !(segmentedWord.matches(".*?" + patternOr(Alphabet.getAspirated()) +Segmenter.getDelimiter()+ patternOr(Alphabet.getConsonants()) + ".*?"));
-			if (!valid) return false;
-				//throw new Exception("AspiratedConsonantViolation");
-		}
+		if ((flags & ASPIRATED_CLUSTER) != 0)
+			return Violation.ASPIRATED_CONSONANT;
 		// long vowel + single C (+ semivowel)
 		// TODO review
-		if (segmentedWord.matches(".*?" + patternGroup(Alphabet.getLongVowels()) + Segmenter.getDelimiter() + patternOr(Alphabet.getConsonants())+ ".*?")) {
-			valid = valid && (segmentedWord.matches(".*?" + patternGroup(Alphabet.getLongVowels()) + Segmenter.getDelimiter()
-					+ patternOr(Alphabet.getConsonants()) + Segmenter.getDelimiter() + patternGroup(Alphabet.getVowels()) + ".*?") ||
-					segmentedWord.matches(".*?" + patternGroup(Alphabet.getLongVowels()) + Segmenter.getDelimiter() + 
-							patternOr(Alphabet.getConsonants()) + Segmenter.getDelimiter() + "(" + patternOr(Alphabet.getSemiVowels()) + ")?.*?")
-					);
-			if (!valid) return false;
-				//throw new Exception("LawOfMoraViolation");
-		}
+		if ((flags & MORA) != 0 && (flags & MORA_SATISFIED) == 0)
+			return Violation.LAW_OF_MORA;
 		// TODO maybe move ngram check to isProbableWord?
 		/*if (valid) {
 			if (ngs.compositeScore(word) < threshold) {
@@ -92,7 +104,7 @@ public class Validator {
 			} else
 				return true;
 		}*/
-		return valid;
+		return Violation.NONE;
 	}
 	
 	/**
@@ -106,7 +118,10 @@ public class Validator {
 	public boolean isProbableWord (String word) {
 		boolean b = isValidWord(word);
 		// consonant-only word match
-		boolean a = !word.matches(Patterner.patternOr(Alphabet.getConsonants())+"+");
+		boolean a = word.isEmpty();
+		for (int i = 0; i < word.length() && !a; i++) {
+			a = (charClass(word.charAt(i)) & SEGMENT) != CONSONANT;
+		}
 		//boolean c = ngs.compositeScore(word) < threshold;
 		//return a && b && c;
 		return a && b;
@@ -133,37 +148,99 @@ public class Validator {
 	public boolean isValidVerb (String word) {
 		return isValidWord(word);
 	}
-	
+
+	////////////////////////////////////////////////////////////////
+	// Automaton
+	////////////////////////////////////////////////////////////////
+
 	/**
-	 * Transforms a list of string into a regular expression string
-	 * <p>
-	 * Every element is separated by a logical OR
-	 * @param list list of string
-	 * @return regular expression string
+	 * Segment classes
 	 */
-	private String patternOr (List<String> list) {
-		StringBuilder sb = new StringBuilder("(");
-		for (String s : list) {
-			sb.append(s).append("|");
-		}
-		sb.deleteCharAt(sb.length()-1);
-		sb.append(")");
-		return sb.toString();
-	}
-	
+	private final static int SHORT_VOWEL = 0, LONG_VOWEL = 1, CONSONANT = 2, ASPIRATED = 3, OTHER = 4, SEGMENTS = 5;
 	/**
-	 * Transforms a list of string into a regular expression string
+	 * Character flags besides the segment class: mutes that form an aspirated
+	 * consonant with a following <em>h</em>, letters of the alphabet
+	 */
+	private final static int SEGMENT = 0x7, MUTE = 0x8, LETTER = 0x10;
+	/**
+	 * Violations recorded by the automaton
+	 */
+	private final static int CLUSTER = 1, ASPIRATED_CLUSTER = 2, MORA = 4, MORA_SATISFIED = 8;
+
+	/**
+	 * Class and flags of the characters up to {@link #CHARS}
+	 */
+	private final static int CHARS = 0x2000;
+	private final static byte[] CLASSES = new byte[CHARS];
+	/**
+	 * Transition table: next state in the low byte, recorded violations above,
+	 * indexed by state and segment class
 	 * <p>
-	 * Returns a group of elements
-	 * @param list list of string
-	 * @return regular expression group string
+	 * A state remembers the number of preceding consonants (up to two), whether
+	 * the last segment is an aspirated consonant, whether it is a long vowel and
+	 * whether the last two segments are a long vowel and a consonant
 	 */
-	private String patternGroup (List<String> list) {
-		StringBuilder sb = new StringBuilder("[");
-		for (String s : list) {
-			sb.append(s);
+	private final static int[] TRANSITIONS = new int[3 * 2 * 2 * 2 * SEGMENTS];
+
+	static {
+		Arrays.fill(CLASSES, (byte) OTHER);
+		for (String s : Alphabet.getShortVowels())
+			CLASSES[s.charAt(0)] = SHORT_VOWEL | LETTER;
+		for (String s : Alphabet.getLongVowels())
+			CLASSES[s.charAt(0)] = LONG_VOWEL | LETTER;
+		for (String s : Alphabet.getConsonants()) {
+			if (s.length() == 1)
+				CLASSES[s.charAt(0)] = CONSONANT | LETTER;
+		}
+		for (String s : Alphabet.getMutes()) {
+			if (s.length() == 1)
+				CLASSES[s.charAt(0)] |= MUTE;
+		}
+		CLASSES['-'] |= LETTER;
+		CLASSES['\''] |= LETTER;
+
+		for (int consonants = 0; consonants < 3; consonants++) {
+			for (int aspirated = 0; aspirated < 2; aspirated++) {
+				for (int longVowel = 0; longVowel < 2; longVowel++) {
+					for (int longConsonant = 0; longConsonant < 2; longConsonant++) {
+						int state = state(consonants, aspirated, longVowel, longConsonant);
+						for (int segment = 0; segment < SEGMENTS; segment++) {
+							boolean consonant = segment == CONSONANT || segment == ASPIRATED;
+							int flags = 0;
+							if (consonant && consonants == 2)
+								flags |= CLUSTER;
+							if (consonant && aspirated == 1)
+								flags |= ASPIRATED_CLUSTER;
+							if (consonant && longVowel == 1)
+								flags |= MORA;
+							// long vowel and consonant followed by any segment
+							if (longConsonant == 1)
+								flags |= MORA_SATISFIED;
+							int next = state(consonant ? Math.min(consonants + 1, 2) : 0,
+									segment == ASPIRATED ? 1 : 0,
+									segment == LONG_VOWEL ? 1 : 0,
+									consonant && longVowel == 1 ? 1 : 0);
+							TRANSITIONS[state * SEGMENTS + segment] = next | (flags << 8);
+						}
+					}
+				}
+			}
 		}
-		sb.append("]");
-		return sb.toString();
+	}
+
+	private static int state (int consonants, int aspirated, int longVowel, int longConsonant) {
+		return ((consonants * 2 + aspirated) * 2 + longVowel) * 2 + longConsonant;
+	}
+
+	private static int charClass (char c) {
+		return c < CHARS ? CLASSES[c] : OTHER;
+	}
+
+	private static boolean isVowel (int segment) {
+		return segment == SHORT_VOWEL || segment == LONG_VOWEL;
+	}
+
+	private static boolean isConsonant (int segment) {
+		return segment == CONSONANT || segment == ASPIRATED;
 	}
 }
@@ -0,0 +1,43 @@
+package de.unitrier.daalft.pali.validation;
+
+/**
+ * Phonotactic violations reported by {@link Validator#validate(String)}
+ * <p>
+ * If a word violates several constraints, the first one in
+ * the order of declaration is reported
+ * @author David
+ *
+ */
+public enum Violation {
+
+	/**
+	 * The word is valid
+	 */
+	NONE,
+	/**
+	 * The word consists of a single segment that is not a vowel
+	 */
+	SHORT_WORD,
+	/**
+	 * The word contains characters that are not in the alphabet
+	 */
+	NOT_A_WORD,
+	/**
+	 * The word does not start with a single consonant
+	 * followed by a vowel or vice versa
+	 */
+	WORD_START,
+	/**
+	 * The word contains more than two consonants in a row
+	 */
+	CONSONANT_CLUSTER,
+	/**
+	 * An aspirated consonant is followed by a consonant
+	 */
+	ASPIRATED_CONSONANT,
+	/**
+	 * A long vowel is followed by a consonant, but no long
+	 * vowel is followed by a consonant and a further segment
+	 */
+	LAW_OF_MORA
+}